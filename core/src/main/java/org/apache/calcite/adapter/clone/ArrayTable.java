@@ -259,6 +259,21 @@ public interface Representation {
 
     /** Converts a data set to a string. */
     String toString(Object dataSet);
+
+    /** Copies the values at ordinals {@code start} to
+     * {@code start + count - 1} into field {@code field} of the first
+     * {@code count} rows of {@code rows}.
+     *
+     * <p>Decoding a column at a time, rather than a row at a time, keeps the
+     * inner loop tight and free of per-value dispatch; representations
+     * backed by a plain array override this method to read the array
+     * directly. */
+    default void copyTo(Object dataSet, int start, int count, Object[][] rows,
+        int field) {
+      for (int i = 0; i < count; i++) {
+        rows[i][field] = getObject(dataSet, start + i);
+      }
+    }
   }
 
   /** Representation that stores the column values in an array. */
@@ -305,6 +320,14 @@ public int size(Object dataSet) {
       return ((Comparable[]) dataSet).length;
     }
 
+    @Override public void copyTo(Object dataSet, int start, int count,
+        Object[][] rows, int field) {
+      final Comparable[] values = (Comparable[]) dataSet;
+      for (int i = 0; i < count; i++) {
+        rows[i][field] = values[start + i];
+      }
+    }
+
     public String toString(Object dataSet) {
       return Arrays.toString((Comparable[]) dataSet);
     }
@@ -356,6 +379,47 @@ public int size(Object dataSet) {
       return Array.getLength(dataSet);
     }
 
+    @Override public void copyTo(Object dataSet, int start, int count,
+        Object[][] rows, int field) {
+      // The array may be narrower than the type values are returned as
+      // (say INT values stored in a byte[]), so read it directly only if
+      // the two agree.
+      switch (primitive) {
+      case INT:
+        if (p == Primitive.INT) {
+          final int[] ints = (int[]) dataSet;
+          for (int i = 0; i < count; i++) {
+            rows[i][field] = ints[start + i];
+          }
+          return;
+        }
+        break;
+      case LONG:
+        if (p == Primitive.LONG) {
+          final long[] longs = (long[]) dataSet;
+          for (int i = 0; i < count; i++) {
+            rows[i][field] = longs[start + i];
+          }
+          return;
+        }
+        break;
+      case DOUBLE:
+        if (p == Primitive.DOUBLE) {
+          final double[] doubles = (double[]) dataSet;
+          for (int i = 0; i < count; i++) {
+            rows[i][field] = doubles[start + i];
+          }
+          return;
+        }
+        break;
+      default:
+        break;
+      }
+      for (int i = 0; i < count; i++) {
+        rows[i][field] = p.arrayItem(dataSet, start + i);
+      }
+    }
+
     public String toString(Object dataSet) {
       return p.arrayToString(dataSet);
     }
@@ -589,6 +653,14 @@ public int size(Object dataSet) {
       return pair.right;
     }
 
+    @Override public void copyTo(Object dataSet, int start, int count,
+        Object[][] rows, int field) {
+      final Object value = getObject(dataSet, start);
+      for (int i = 0; i < count; i++) {
+        rows[i][field] = value;
+      }
+    }
+
     public String toString(Object dataSet) {
       Pair<Object, Integer> pair = toPair(dataSet);
       return Collections.nCopies(pair.right, pair.left).toString();
@@ -863,32 +935,63 @@ public void close() {
     }
 
     /** Enumerator over a table with more than one column; each element
-     * returned is an array. */
+     * returned is an array.
+     *
+     * <p>Rows are decoded in batches of up to {@link #BATCH_SIZE}, one column
+     * at a time, so that the cost of dispatching to each column's
+     * {@link Representation} is paid once per batch rather than once per
+     * value. */
     private static class ArrayEnumerator implements Enumerator<Object[]> {
+      static final int BATCH_SIZE = 1024;
+
       final int rowCount;
       final List<Column> columns;
+      final Object[][] batch;
+      /** Ordinal of the first row in {@link #batch}. */
+      int batchStart = 0;
+      /** Number of valid rows in {@link #batch}. */
+      int batchCount = 0;
       int i = -1;
 
       ArrayEnumerator(int rowCount, List<Column> columns) {
         this.rowCount = rowCount;
         this.columns = columns;
+        this.batch = new Object[Math.min(rowCount, BATCH_SIZE)][];
       }
 
       public Object[] current() {
-        Object[] objects = new Object[columns.size()];
-        for (int j = 0; j < objects.length; j++) {
-          final Column pair = columns.get(j);
-          objects[j] = pair.representation.getObject(pair.dataSet, i);
-        }
-        return objects;
+        return batch[i - batchStart];
       }
 
       public boolean moveNext() {
-        return ++i < rowCount;
+        if (++i >= rowCount) {
+          return false;
+        }
+        if (i >= batchStart + batchCount) {
+          fill(i);
+        }
+        return true;
+      }
+
+      /** Decodes the batch of rows that starts at {@code start}. */
+      private void fill(int start) {
+        final int count = Math.min(batch.length, rowCount - start);
+        final int fieldCount = columns.size();
+        for (int r = 0; r < count; r++) {
+          batch[r] = new Object[fieldCount];
+        }
+        for (int j = 0; j < fieldCount; j++) {
+          final Column column = columns.get(j);
+          column.representation.copyTo(column.dataSet, start, count, batch, j);
+        }
+        batchStart = start;
+        batchCount = count;
       }
 
       public void reset() {
         i = -1;
+        batchStart = 0;
+        batchCount = 0;
       }
 
       public void close() {
@@ -33,7 +33,10 @@
 import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.plan.RelTraitSet;
 import org.apache.calcite.rel.InvalidRelException;
+import org.apache.calcite.rel.RelCollation;
+import org.apache.calcite.rel.RelCollationTraitDef;
 import org.apache.calcite.rel.RelCollations;
+import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.core.Aggregate;
 import org.apache.calcite.rel.core.AggregateCall;
@@ -427,23 +430,72 @@ public RexToLixTranslator rowTranslator() {
                   resultBlock.toBlock(),
                   key_,
                   acc_));
-      builder.add(
-          Expressions.return_(null,
-              Expressions.call(childExp,
-                  BuiltInMethod.GROUP_BY2.method,
-                  Expressions.list(keySelector_,
-                      Expressions.call(lambdaFactory,
-                          BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_INITIALIZER.method),
-                      Expressions.call(lambdaFactory,
-                          BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_ADDER.method),
-                      Expressions.call(lambdaFactory,
-                          BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_RESULT_SELECTOR.method,
-                          resultSelector_))
-                      .appendIfNotNull(keyPhysType.comparer()))));
+      final List<Integer> runKeys = runKeys();
+      if (runKeys.isEmpty() || keyPhysType.comparer() != null) {
+        builder.add(
+            Expressions.return_(null,
+                Expressions.call(childExp,
+                    BuiltInMethod.GROUP_BY2.method,
+                    Expressions.list(keySelector_,
+                        Expressions.call(lambdaFactory,
+                            BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_INITIALIZER.method),
+                        Expressions.call(lambdaFactory,
+                            BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_ADDER.method),
+                        Expressions.call(lambdaFactory,
+                            BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_RESULT_SELECTOR.method,
+                            resultSelector_))
+                        .appendIfNotNull(keyPhysType.comparer()))));
+      } else {
+        final Expression runKeySelector_ =
+            builder.append("runKeySelector",
+                inputPhysType.generateSelector(parameter, runKeys,
+                    JavaRowFormat.LIST));
+        builder.add(
+            Expressions.return_(null,
+                Expressions.call(
+                    BuiltInMethod.GROUP_BY_RUNS.method,
+                    Expressions.list(childExp,
+                        runKeySelector_,
+                        keySelector_,
+                        Expressions.call(lambdaFactory,
+                            BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_INITIALIZER.method),
+                        Expressions.call(lambdaFactory,
+                            BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_ADDER.method),
+                        Expressions.call(lambdaFactory,
+                            BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_RESULT_SELECTOR.method,
+                            resultSelector_)))));
+      }
     }
     return implementor.result(physType, builder.toBlock());
   }
 
+  /** Returns the group keys that the input is sorted on: the longest prefix
+   * of a collation of the input that consists of group keys.
+   *
+   * <p>If the input is sorted on a group key, for example a window that is a
+   * function of the rowtime column of a stream, a group receives no more rows
+   * once the value of that key has changed. So the aggregate can return the
+   * group and discard its accumulator, rather than waiting for the end of the
+   * input, which for a stream never comes. */
+  private List<Integer> runKeys() {
+    final List<RelCollation> collations =
+        getInput().getTraitSet().getTraits(RelCollationTraitDef.INSTANCE);
+    List<Integer> runKeys = ImmutableList.of();
+    for (RelCollation collation : Util.first(collations, ImmutableList.of())) {
+      final List<Integer> keys = new ArrayList<>();
+      for (RelFieldCollation fieldCollation : collation.getFieldCollations()) {
+        if (!groupSet.get(fieldCollation.getFieldIndex())) {
+          break;
+        }
+        keys.add(fieldCollation.getFieldIndex());
+      }
+      if (keys.size() > runKeys.size()) {
+        runKeys = keys;
+      }
+    }
+    return runKeys;
+  }
+
   private static boolean hasOrderedCall(List<AggImpState> aggs) {
     for (AggImpState agg : aggs) {
       if (!agg.call.collation.equals(RelCollations.EMPTY)) {
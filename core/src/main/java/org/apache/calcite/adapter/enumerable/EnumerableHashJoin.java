@@ -16,9 +16,12 @@
  */
 package org.apache.calcite.adapter.enumerable;
 
+import org.apache.calcite.config.CalciteConnectionConfig;
+import org.apache.calcite.linq4j.function.LongFunction1;
 import org.apache.calcite.linq4j.tree.BlockBuilder;
 import org.apache.calcite.linq4j.tree.Expression;
 import org.apache.calcite.linq4j.tree.Expressions;
+import org.apache.calcite.linq4j.tree.ParameterExpression;
 import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.plan.RelOptCost;
 import org.apache.calcite.plan.RelOptPlanner;
@@ -41,6 +44,7 @@
 import com.google.common.collect.ImmutableList;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.Type;
 import java.util.Set;
 
 /** Implementation of {@link org.apache.calcite.rel.core.Join} in
@@ -224,6 +228,52 @@ private Result implementHashJoin(EnumerableRelImplementor implementor, Prefer pr
             left, right, leftResult.physType, rightResult.physType, nonEquiCondition);
       }
     }
+    final int parallelism = hashJoinParallelism();
+    if (parallelism > 1
+        && joinInfo.nonEquiConditions.isEmpty()
+        && !joinType.generatesNullsOnLeft()) {
+      return implementor.result(
+          physType,
+          builder.append(
+              Expressions.call(
+                  BuiltInMethod.PARALLEL_HASH_JOIN.method,
+                  Expressions.list(
+                      leftExpression,
+                      rightExpression,
+                      leftResult.physType.generateAccessor(joinInfo.leftKeys),
+                      rightResult.physType.generateAccessor(joinInfo.rightKeys),
+                      EnumUtils.joinSelector(joinType,
+                          physType,
+                          ImmutableList.of(
+                              leftResult.physType, rightResult.physType)),
+                      Util.first(keyPhysType.comparer(),
+                          Expressions.constant(null)),
+                      Expressions.constant(joinType.generatesNullsOnRight()),
+                      Expressions.constant(parallelism))))
+              .toBlock());
+    }
+    if (joinInfo.leftKeys.size() == 1
+        && joinInfo.nonEquiConditions.isEmpty()
+        && !joinType.generatesNullsOnLeft()
+        && isLongKey(leftResult.physType, joinInfo.leftKeys.get(0))
+        && isLongKey(rightResult.physType, joinInfo.rightKeys.get(0))) {
+      return implementor.result(
+          physType,
+          builder.append(
+              Expressions.call(
+                  BuiltInMethod.LONG_KEY_HASH_JOIN.method,
+                  leftExpression,
+                  rightExpression,
+                  longKeySelector(leftResult.physType, joinInfo.leftKeys.get(0)),
+                  longKeySelector(rightResult.physType,
+                      joinInfo.rightKeys.get(0)),
+                  EnumUtils.joinSelector(joinType,
+                      physType,
+                      ImmutableList.of(
+                          leftResult.physType, rightResult.physType)),
+                  Expressions.constant(joinType.generatesNullsOnRight())))
+              .toBlock());
+    }
     return implementor.result(
         physType,
         builder.append(
@@ -249,4 +299,34 @@ private Result implementHashJoin(EnumerableRelImplementor implementor, Prefer pr
                     .append(predicate)))
             .toBlock());
   }
+
+  /** Returns the number of threads the join may use, per the
+   * {@link org.apache.calcite.config.CalciteConnectionProperty#HASH_JOIN_PARALLELISM}
+   * connection property, or 1 if the planner has no connection config. */
+  private int hashJoinParallelism() {
+    final CalciteConnectionConfig config =
+        getCluster().getPlanner().getContext()
+            .unwrap(CalciteConnectionConfig.class);
+    return config == null ? 1 : config.hashJoinParallelism();
+  }
+
+  /** Returns whether a field is a non-nullable integer of at most 64 bits,
+   * and can therefore be used as the key of
+   * {@link org.apache.calcite.linq4j.EnumerableDefaults#longKeyHashJoin}. */
+  private static boolean isLongKey(PhysType physType, int field) {
+    final Type type = physType.getJavaFieldType(field);
+    return type == int.class
+        || type == long.class
+        || type == short.class
+        || type == byte.class;
+  }
+
+  /** Generates a {@link LongFunction1} that returns a key field of a row. */
+  private static Expression longKeySelector(PhysType physType, int field) {
+    final ParameterExpression v1 =
+        Expressions.parameter(physType.getJavaRowType(), "v1");
+    return Expressions.lambda(LongFunction1.class,
+        EnumUtils.convert(physType.fieldReference(v1, field), long.class),
+        v1);
+  }
 }
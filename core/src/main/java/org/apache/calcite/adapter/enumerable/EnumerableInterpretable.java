@@ -44,9 +44,11 @@
 import org.apache.calcite.runtime.Typed;
 import org.apache.calcite.runtime.Utilities;
 import org.apache.calcite.util.Util;
+import org.apache.calcite.util.javac.BytecodeCache;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.codehaus.commons.compiler.CompileException;
 import org.codehaus.commons.compiler.CompilerFactoryFactory;
@@ -58,7 +60,13 @@
 import java.lang.reflect.Modifier;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Relational expression that converts an enumerable input to interpretable
@@ -102,6 +110,10 @@ public Node implement(final InterpreterImplementor implementor) {
           .maximumSize(CalciteSystemProperty.BINDABLE_CACHE_MAX_SIZE.value())
           .build();
 
+  /** Compilations that are in progress, keyed by source code. */
+  private static final ConcurrentMap<String, CompletableFuture<Bindable>>
+      COMPILING = new ConcurrentHashMap<>();
+
   public static Bindable toBindable(Map<String, Object> parameters,
       CalcitePrepare.SparkHandler spark, EnumerableRel rel,
       EnumerableRel.Prefer prefer) {
@@ -110,13 +122,7 @@ public static Bindable toBindable(Map<String, Object> parameters,
             parameters);
 
     final ClassDeclaration expr = relImplementor.implementRoot(rel, prefer);
-    String s = Expressions.toString(expr.memberDeclarations, "\n", false);
-
-    if (CalciteSystemProperty.DEBUG.value()) {
-      Util.debugCode(System.out, s);
-    }
-
-    Hook.JAVA_PLAN.run(s);
+    final String s = toSource(expr);
 
     try {
       if (spark != null && spark.enabled()) {
@@ -130,36 +136,120 @@ public static Bindable toBindable(Map<String, Object> parameters,
     }
   }
 
-  static Bindable getBindable(ClassDeclaration expr, String s, int fieldCount)
-      throws CompileException, IOException, ExecutionException {
-    ICompilerFactory compilerFactory;
-    try {
-      compilerFactory = CompilerFactoryFactory.getDefaultCompilerFactory();
-    } catch (Exception e) {
-      throw new IllegalStateException(
-          "Unable to instantiate java compiler", e);
+  /** Generates Java code for a relational expression, and compiles it in the
+   * background.
+   *
+   * <p>Code is generated on the calling thread, so that it sees the same
+   * state as {@link #toBindable}. Compilation runs in a pool of
+   * {@link CalciteSystemProperty#COMPILE_THREADS} daemon threads; if the same
+   * source is already being compiled for another statement, the returned
+   * future is shared with that statement. */
+  public static CompletableFuture<Bindable> toBindableAsync(
+      Map<String, Object> parameters, EnumerableRel rel,
+      EnumerableRel.Prefer prefer) {
+    EnumerableRelImplementor relImplementor =
+        new EnumerableRelImplementor(rel.getCluster().getRexBuilder(),
+            parameters);
+
+    final ClassDeclaration expr = relImplementor.implementRoot(rel, prefer);
+    final String s = toSource(expr);
+    final int fieldCount = rel.getRowType().getFieldCount();
+
+    final CompletableFuture<Bindable> future = new CompletableFuture<>();
+    final CompletableFuture<Bindable> existing = COMPILING.putIfAbsent(s, future);
+    if (existing != null) {
+      return existing;
     }
-    final IClassBodyEvaluator cbe = compilerFactory.newClassBodyEvaluator();
-    cbe.setClassName(expr.name);
-    cbe.setExtendedClass(Utilities.class);
-    cbe.setImplementedInterfaces(
-        fieldCount == 1
-            ? new Class[] {Bindable.class, Typed.class}
-            : new Class[] {ArrayBindable.class});
-    cbe.setParentClassLoader(EnumerableInterpretable.class.getClassLoader());
+    CompileService.EXECUTOR.execute(() -> {
+      try {
+        Hook.ASYNC_COMPILE.run(future);
+        future.complete(getBindable(expr, s, fieldCount));
+      } catch (Exception e) {
+        future.completeExceptionally(
+            Helper.INSTANCE.wrap("Error while compiling generated Java code:\n"
+                + s, e));
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
+      } finally {
+        COMPILING.remove(s, future);
+      }
+    });
+    return future;
+  }
+
+  private static String toSource(ClassDeclaration expr) {
+    final String s =
+        Expressions.toString(expr.memberDeclarations, "\n", false);
+
     if (CalciteSystemProperty.DEBUG.value()) {
-      // Add line numbers to the generated janino class
-      cbe.setDebuggingInformation(true, true, true);
+      Util.debugCode(System.out, s);
+    }
+
+    Hook.JAVA_PLAN.run(s);
+    return s;
+  }
+
+  static Bindable getBindable(ClassDeclaration expr, String s, int fieldCount)
+      throws CompileException, IOException, ExecutionException {
+    final Class[] interfaces = fieldCount == 1
+        ? new Class[] {Bindable.class, Typed.class}
+        : new Class[] {ArrayBindable.class};
+    final Callable<Bindable> compiler;
+    if (BytecodeCache.isEnabled()) {
+      compiler = () -> loadBindable(expr.name, s, interfaces);
+    } else {
+      ICompilerFactory compilerFactory;
+      try {
+        compilerFactory = CompilerFactoryFactory.getDefaultCompilerFactory();
+      } catch (Exception e) {
+        throw new IllegalStateException(
+            "Unable to instantiate java compiler", e);
+      }
+      final IClassBodyEvaluator cbe = compilerFactory.newClassBodyEvaluator();
+      cbe.setClassName(expr.name);
+      cbe.setExtendedClass(Utilities.class);
+      cbe.setImplementedInterfaces(interfaces);
+      cbe.setParentClassLoader(EnumerableInterpretable.class.getClassLoader());
+      if (CalciteSystemProperty.DEBUG.value()) {
+        // Add line numbers to the generated janino class
+        cbe.setDebuggingInformation(true, true, true);
+      }
+      compiler = () -> (Bindable) cbe.createInstance(new StringReader(s));
     }
 
     if (CalciteSystemProperty.BINDABLE_CACHE_MAX_SIZE.value() != 0) {
       StaticFieldDetector detector = new StaticFieldDetector();
       expr.accept(detector);
       if (!detector.containsStaticField) {
-        return BINDABLE_CACHE.get(s, () -> (Bindable) cbe.createInstance(new StringReader(s)));
+        return BINDABLE_CACHE.get(s, compiler);
       }
     }
-    return (Bindable) cbe.createInstance(new StringReader(s));
+    try {
+      return compiler.call();
+    } catch (CompileException | IOException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ExecutionException(e);
+    }
+  }
+
+  /** Compiles a class body into a class that extends {@link Utilities},
+   * using {@link BytecodeCache} so that a class compiled by a previous JVM
+   * is not compiled again, and returns an instance of it. */
+  private static Bindable loadBindable(String className, String classBody,
+      Class[] interfaces) throws ReflectiveOperationException {
+    final StringBuilder buf = new StringBuilder()
+        .append("public final class ").append(className)
+        .append(" extends ").append(Utilities.class.getName())
+        .append(" implements ");
+    for (int i = 0; i < interfaces.length; i++) {
+      buf.append(i > 0 ? ", " : "").append(interfaces[i].getName());
+    }
+    buf.append(" {\n").append(classBody).append("\n}\n");
+    final Class<?> clazz =
+        BytecodeCache.loadClass(className, buf.toString(),
+            EnumerableInterpretable.class.getClassLoader());
+    return (Bindable) clazz.getDeclaredConstructor().newInstance();
   }
 
   /**
@@ -213,6 +303,18 @@ public void close() {
     };
   }
 
+  /** Holds the pool of threads that compile in the background, so that the
+   * pool is created when first used. */
+  private static class CompileService {
+    static final ExecutorService EXECUTOR =
+        Executors.newFixedThreadPool(
+            CalciteSystemProperty.COMPILE_THREADS.value(),
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("calcite-compile-%d")
+                .build());
+  }
+
   /** Interpreter node that reads from an {@link Enumerable}.
    *
    * <p>From the interpreter's perspective, it is a leaf node. */
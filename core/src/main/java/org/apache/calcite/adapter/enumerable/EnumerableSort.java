@@ -16,6 +16,7 @@
  */
 package org.apache.calcite.adapter.enumerable;
 
+import org.apache.calcite.config.CalciteConnectionConfig;
 import org.apache.calcite.linq4j.tree.BlockBuilder;
 import org.apache.calcite.linq4j.tree.Expression;
 import org.apache.calcite.linq4j.tree.Expressions;
@@ -27,6 +28,7 @@
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.util.BuiltInMethod;
 import org.apache.calcite.util.Pair;
+import org.apache.calcite.util.Util;
 
 /** Implementation of {@link org.apache.calcite.rel.core.Sort} in
  * {@link org.apache.calcite.adapter.enumerable.EnumerableConvention enumerable calling convention}. */
@@ -81,6 +83,20 @@ public Result implement(EnumerableRelImplementor implementor, Prefer pref) {
         inputPhysType.generateCollationKey(
             collation.getFieldCollations());
 
+    final int spillThreshold = sortSpillThreshold();
+    if (spillThreshold > 0) {
+      builder.add(
+          Expressions.return_(null,
+              Expressions.call(
+                  BuiltInMethod.ORDER_BY_SPILLING.method,
+                  childExp,
+                  builder.append("keySelector", pair.left),
+                  Util.first(
+                      builder.appendIfNotNull("comparator", pair.right),
+                      Expressions.constant(null)),
+                  Expressions.constant(spillThreshold))));
+      return implementor.result(physType, builder.toBlock());
+    }
     builder.add(
         Expressions.return_(null,
             Expressions.call(childExp,
@@ -91,4 +107,15 @@ public Result implement(EnumerableRelImplementor implementor, Prefer pref) {
                         builder.appendIfNotNull("comparator", pair.right)))));
     return implementor.result(physType, builder.toBlock());
   }
+
+  /** Returns the number of rows the sort may hold in memory before it
+   * spills, per the
+   * {@link org.apache.calcite.config.CalciteConnectionProperty#SORT_SPILL_THRESHOLD}
+   * connection property, or 0 if it never spills. */
+  private int sortSpillThreshold() {
+    final CalciteConnectionConfig config =
+        getCluster().getPlanner().getContext()
+            .unwrap(CalciteConnectionConfig.class);
+    return config == null ? 0 : config.sortSpillThreshold();
+  }
 }
@@ -32,6 +32,7 @@
 import org.apache.calcite.linq4j.tree.OptimizeShuttle;
 import org.apache.calcite.linq4j.tree.ParameterExpression;
 import org.apache.calcite.linq4j.tree.Primitive;
+import org.apache.calcite.linq4j.tree.Types;
 import org.apache.calcite.linq4j.tree.UnaryExpression;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeFactory;
@@ -50,6 +51,7 @@
 import org.apache.calcite.sql.SqlJsonConstructorNullClause;
 import org.apache.calcite.sql.SqlJsonEmptyOrError;
 import org.apache.calcite.sql.SqlJsonValueEmptyOrErrorBehavior;
+import org.apache.calcite.sql.SqlKind;
 import org.apache.calcite.sql.SqlMatchFunction;
 import org.apache.calcite.sql.SqlOperator;
 import org.apache.calcite.sql.SqlTypeConstructorFunction;
@@ -465,20 +467,21 @@ public Expression implement(RexToLixTranslator translator,
     map.put(IS_NOT_FALSE, new IsXxxImplementor(false, true));
 
     // LIKE and SIMILAR
-    final MethodImplementor likeImplementor =
-        new MethodImplementor(BuiltInMethod.LIKE.method);
+    final NotNullImplementor likeImplementor =
+        new PatternImplementor(SqlKind.LIKE);
     defineImplementor(LIKE, NullPolicy.STRICT, likeImplementor, false);
     defineImplementor(NOT_LIKE, NullPolicy.STRICT,
         NotImplementor.of(likeImplementor), false);
-    final MethodImplementor similarImplementor =
-        new MethodImplementor(BuiltInMethod.SIMILAR.method);
+    final NotNullImplementor similarImplementor =
+        new PatternImplementor(SqlKind.SIMILAR);
     defineImplementor(SIMILAR_TO, NullPolicy.STRICT, similarImplementor, false);
     defineImplementor(NOT_SIMILAR_TO, NullPolicy.STRICT,
         NotImplementor.of(similarImplementor), false);
 
-    // POSIX REGEX
-    final MethodImplementor posixRegexImplementor =
-        new MethodImplementor(BuiltInMethod.POSIX_REGEX.method);
+    // POSIX REGEX; the third operand of each call says whether it is case
+    // sensitive
+    final NotNullImplementor posixRegexImplementor =
+        new PatternImplementor(SqlKind.POSIX_REGEX_CASE_SENSITIVE);
     defineImplementor(SqlStdOperatorTable.POSIX_REGEX_CASE_INSENSITIVE, NullPolicy.STRICT,
         posixRegexImplementor, false);
     defineImplementor(SqlStdOperatorTable.POSIX_REGEX_CASE_SENSITIVE, NullPolicy.STRICT,
@@ -488,23 +491,7 @@ public Expression implement(RexToLixTranslator translator,
     defineImplementor(SqlStdOperatorTable.NEGATED_POSIX_REGEX_CASE_SENSITIVE, NullPolicy.STRICT,
         NotImplementor.of(posixRegexImplementor), false);
     defineImplementor(REGEXP_REPLACE, NullPolicy.STRICT,
-        new NotNullImplementor() {
-          final NotNullImplementor[] implementors = {
-              new ReflectiveCallNotNullImplementor(
-                  BuiltInMethod.REGEXP_REPLACE3.method),
-              new ReflectiveCallNotNullImplementor(
-                  BuiltInMethod.REGEXP_REPLACE4.method),
-              new ReflectiveCallNotNullImplementor(
-                  BuiltInMethod.REGEXP_REPLACE5.method),
-              new ReflectiveCallNotNullImplementor(
-                  BuiltInMethod.REGEXP_REPLACE6.method)
-          };
-          public Expression implement(RexToLixTranslator translator, RexCall call,
-              List<Expression> translatedOperands) {
-            return implementors[call.getOperands().size() - 3]
-                .implement(translator, call, translatedOperands);
-          }
-        }, false);
+        new PatternImplementor(SqlKind.OTHER_FUNCTION), false);
 
     // Multisets & arrays
     defineMethod(CARDINALITY, BuiltInMethod.COLLECTION_SIZE.method,
@@ -2341,6 +2328,143 @@ public Expression implement(
     }
   }
 
+  /** Implementor for {@code LIKE}, {@code SIMILAR TO}, the POSIX regular
+   * expression operators and {@code REGEXP_REPLACE} (whose kind is
+   * {@link SqlKind#OTHER_FUNCTION}).
+   *
+   * <p>If the pattern and its escape or flags are literals, the pattern is
+   * compiled once: the call that compiles it has constant arguments, so the
+   * code optimizer moves it into a static field of the generated class. A
+   * literal {@code LIKE} pattern whose only wildcards are {@code %} at its
+   * start or end becomes a call to a {@link String} method, such as
+   * {@link String#startsWith(String)}. Other patterns are compiled by a
+   * {@link SqlFunctions.PatternCache}, which the generated class creates
+   * once. */
+  private static class PatternImplementor implements NotNullImplementor {
+    private final SqlKind kind;
+
+    PatternImplementor(SqlKind kind) {
+      this.kind = kind;
+    }
+
+    public Expression implement(RexToLixTranslator translator, RexCall call,
+        List<Expression> translatedOperands) {
+      final List<RexNode> operands = call.getOperands();
+      final Expression s = translatedOperands.get(0);
+      switch (kind) {
+      case LIKE:
+      case SIMILAR:
+        final String method = kind == SqlKind.LIKE ? "like" : "similar";
+        if (!isLiteral(Util.skip(operands))) {
+          return cached(method, translatedOperands);
+        }
+        final String pattern = RexLiteral.stringValue(operands.get(1));
+        if (kind == SqlKind.LIKE && operands.size() == 2) {
+          final Expression e = likeWithoutPattern(s, pattern);
+          if (e != null) {
+            return e;
+          }
+        }
+        final String escape = operands.size() > 2
+            ? RexLiteral.stringValue(operands.get(2))
+            : null;
+        return EnumUtils.call(SqlFunctions.class, "matches",
+            ImmutableList.of(s,
+                EnumUtils.call(SqlFunctions.class, method + "Pattern",
+                    ImmutableList.of(Expressions.constant(pattern),
+                        Expressions.constant(escape, String.class)))));
+
+      case POSIX_REGEX_CASE_SENSITIVE:
+        if (!isLiteral(Util.skip(operands))) {
+          return cached("posixRegex", translatedOperands);
+        }
+        return EnumUtils.call(SqlFunctions.class, "find",
+            ImmutableList.of(s,
+                EnumUtils.call(SqlFunctions.class, "posixRegexPattern",
+                    ImmutableList.of(
+                        Expressions.constant(
+                            RexLiteral.stringValue(operands.get(1))),
+                        Expressions.constant(
+                            RexLiteral.booleanValue(operands.get(2)),
+                            Boolean.class)))));
+
+      default:
+        // REGEXP_REPLACE(s, regex, replacement [, pos [, occurrence
+        //   [, matchType]]])
+        final Expression pos = operands.size() > 3
+            ? translatedOperands.get(3)
+            : Expressions.constant(1);
+        final Expression occurrence = operands.size() > 4
+            ? translatedOperands.get(4)
+            : Expressions.constant(0);
+        final List<RexNode> patternOperands = operands.size() > 5
+            ? ImmutableList.of(operands.get(1), operands.get(5))
+            : ImmutableList.of(operands.get(1));
+        if (!isLiteral(patternOperands)) {
+          return cached("regexpReplace",
+              ImmutableList.of(s, translatedOperands.get(1),
+                  translatedOperands.get(2), pos, occurrence,
+                  operands.size() > 5
+                      ? translatedOperands.get(5)
+                      : Expressions.constant(null, String.class)));
+        }
+        final String matchType = operands.size() > 5
+            ? RexLiteral.stringValue(operands.get(5))
+            : null;
+        return EnumUtils.call(SqlFunctions.class, "regexpReplace",
+            ImmutableList.of(s,
+                EnumUtils.call(SqlFunctions.class, "regexpReplacePattern",
+                    ImmutableList.of(
+                        Expressions.constant(
+                            RexLiteral.stringValue(operands.get(1))),
+                        Expressions.constant(matchType, String.class))),
+                translatedOperands.get(2), pos, occurrence));
+      }
+    }
+
+    /** Returns whether all operands are non-null literals. */
+    private static boolean isLiteral(List<RexNode> operands) {
+      return operands.stream().allMatch(operand ->
+          operand instanceof RexLiteral && !((RexLiteral) operand).isNull());
+    }
+
+    /** Calls a method of a pattern cache that is created once per query. */
+    private static Expression cached(String method,
+        List<Expression> arguments) {
+      return EnumUtils.call(SqlFunctions.PatternCache.class, method,
+          arguments, Expressions.new_(SqlFunctions.PatternCache.class));
+    }
+
+    /** Returns an expression that evaluates {@code s LIKE pattern} by calling
+     * a {@link String} method, or null if the pattern has wildcards other
+     * than {@code %} at its start or end. */
+    static Expression likeWithoutPattern(Expression s, String pattern) {
+      int start = 0;
+      int end = pattern.length();
+      while (start < end && pattern.charAt(start) == '%') {
+        ++start;
+      }
+      while (end > start && pattern.charAt(end - 1) == '%') {
+        --end;
+      }
+      final String literal = pattern.substring(start, end);
+      if (literal.indexOf('%') >= 0 || literal.indexOf('_') >= 0) {
+        return null;
+      }
+      final boolean leading = start > 0;
+      final boolean trailing = end < pattern.length();
+      if (literal.isEmpty() && (leading || trailing)) {
+        return Expressions.constant(true);
+      }
+      final String method = leading
+          ? trailing ? "contains" : "endsWith"
+          : trailing ? "startsWith" : "equals";
+      return Expressions.call(EnumUtils.convert(s, String.class),
+          Types.lookupMethod(String.class, method, String.class),
+          Expressions.constant(literal));
+    }
+  }
+
   /**
    * Implementor for JSON_VALUE function, convert to solid format
    * "JSON_VALUE(json_doc, path, empty_behavior, empty_default, error_behavior, error default)"
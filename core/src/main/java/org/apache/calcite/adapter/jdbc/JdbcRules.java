@@ -475,6 +475,10 @@ public JdbcCalc(RelOptCluster cluster, RelTraitSet traitSet, RelNode input,
       Util.discard(flags);
     }
 
+    public RexProgram getProgram() {
+      return program;
+    }
+
     public RelWriter explainTerms(RelWriter pw) {
       return program.explainCalc(super.explainTerms(pw));
     }
@@ -78,6 +78,9 @@ public class JdbcSchema implements Schema {
   final JdbcConvention convention;
   private ImmutableMap<String, JdbcTable> tableMap;
   private final boolean snapshot;
+  final int fetchSize;
+  final boolean prefetch;
+  final ImmutableMap<String, Split> splits;
 
   @Experimental
   public static final ThreadLocal<Foo> THREAD_METADATA = new ThreadLocal<>();
@@ -96,17 +99,68 @@ public class JdbcSchema implements Schema {
    */
   public JdbcSchema(DataSource dataSource, SqlDialect dialect,
       JdbcConvention convention, String catalog, String schema) {
-    this(dataSource, dialect, convention, catalog, schema, null);
+    this(dataSource, dialect, convention, catalog, schema, 0, false);
+  }
+
+  /**
+   * Creates a JDBC schema with settings for fetching query results.
+   *
+   * @param dataSource Data source
+   * @param dialect SQL dialect
+   * @param convention Calling convention
+   * @param catalog Catalog name, or null
+   * @param schema Schema name pattern
+   * @param fetchSize Number of rows to fetch from the database in each round
+   *                  trip, or 0 to use the driver's default
+   * @param prefetch Whether to read rows in a background thread, one batch
+   *                 ahead of the consumer
+   */
+  public JdbcSchema(DataSource dataSource, SqlDialect dialect,
+      JdbcConvention convention, String catalog, String schema,
+      int fetchSize, boolean prefetch) {
+    this(dataSource, dialect, convention, catalog, schema, fetchSize,
+        prefetch, ImmutableMap.of());
+  }
+
+  /**
+   * Creates a JDBC schema with settings for fetching query results, and
+   * tables whose scans are split into concurrent range scans.
+   *
+   * @param dataSource Data source
+   * @param dialect SQL dialect
+   * @param convention Calling convention
+   * @param catalog Catalog name, or null
+   * @param schema Schema name pattern
+   * @param fetchSize Number of rows to fetch from the database in each round
+   *                  trip, or 0 to use the driver's default
+   * @param prefetch Whether to read rows in a background thread, one batch
+   *                 ahead of the consumer
+   * @param splits How to split scans, keyed by the name of the table in the
+   *               JDBC data source
+   */
+  public JdbcSchema(DataSource dataSource, SqlDialect dialect,
+      JdbcConvention convention, String catalog, String schema,
+      int fetchSize, boolean prefetch, Map<String, Split> splits) {
+    this(dataSource, dialect, convention, catalog, schema, fetchSize,
+        prefetch, ImmutableMap.copyOf(splits), null);
   }
 
   private JdbcSchema(DataSource dataSource, SqlDialect dialect,
       JdbcConvention convention, String catalog, String schema,
+      int fetchSize, boolean prefetch, ImmutableMap<String, Split> splits,
       ImmutableMap<String, JdbcTable> tableMap) {
+    if (fetchSize < 0) {
+      throw new IllegalArgumentException("fetch size must not be negative: "
+          + fetchSize);
+    }
     this.dataSource = Objects.requireNonNull(dataSource);
     this.dialect = Objects.requireNonNull(dialect);
     this.convention = convention;
     this.catalog = catalog;
     this.schema = schema;
+    this.fetchSize = fetchSize;
+    this.prefetch = prefetch;
+    this.splits = Objects.requireNonNull(splits);
     this.tableMap = tableMap;
     this.snapshot = tableMap != null;
   }
@@ -128,12 +182,40 @@ public static JdbcSchema create(
       SqlDialectFactory dialectFactory,
       String catalog,
       String schema) {
+    return create(parentSchema, name, dataSource, dialectFactory, catalog,
+        schema, 0, false);
+  }
+
+  public static JdbcSchema create(
+      SchemaPlus parentSchema,
+      String name,
+      DataSource dataSource,
+      SqlDialectFactory dialectFactory,
+      String catalog,
+      String schema,
+      int fetchSize,
+      boolean prefetch) {
+    return create(parentSchema, name, dataSource, dialectFactory, catalog,
+        schema, fetchSize, prefetch, ImmutableMap.of());
+  }
+
+  public static JdbcSchema create(
+      SchemaPlus parentSchema,
+      String name,
+      DataSource dataSource,
+      SqlDialectFactory dialectFactory,
+      String catalog,
+      String schema,
+      int fetchSize,
+      boolean prefetch,
+      Map<String, Split> splits) {
     final Expression expression =
         Schemas.subSchemaExpression(parentSchema, name, JdbcSchema.class);
     final SqlDialect dialect = createDialect(dialectFactory, dataSource);
     final JdbcConvention convention =
         JdbcConvention.of(dialect, expression, name);
-    return new JdbcSchema(dataSource, dialect, convention, catalog, schema);
+    return new JdbcSchema(dataSource, dialect, convention, catalog, schema,
+        fetchSize, prefetch, splits);
   }
 
   /**
@@ -144,6 +226,7 @@ public static JdbcSchema create(
    * @param operand Map of property/value pairs
    * @return A JdbcSchema
    */
+  @SuppressWarnings("unchecked")
   public static JdbcSchema create(
       SchemaPlus parentSchema,
       String name,
@@ -167,16 +250,30 @@ public static JdbcSchema create(
     String jdbcCatalog = (String) operand.get("jdbcCatalog");
     String jdbcSchema = (String) operand.get("jdbcSchema");
     String sqlDialectFactory = (String) operand.get("sqlDialectFactory");
+    final Number fetchSize = (Number) operand.get("fetchSize");
+    final Boolean prefetch = (Boolean) operand.get("prefetch");
+    final ImmutableMap.Builder<String, Split> splits = ImmutableMap.builder();
+    final List<Map<String, Object>> splitList =
+        (List<Map<String, Object>>) operand.get("splits");
+    if (splitList != null) {
+      for (Map<String, Object> split : splitList) {
+        final Number count = (Number) split.get("count");
+        splits.put((String) split.get("table"),
+            new Split((String) split.get("column"),
+                count == null ? Split.DEFAULT_COUNT : count.intValue()));
+      }
+    }
 
+    final SqlDialectFactory factory;
     if (sqlDialectFactory == null || sqlDialectFactory.isEmpty()) {
-      return JdbcSchema.create(
-          parentSchema, name, dataSource, jdbcCatalog, jdbcSchema);
+      factory = SqlDialectFactoryImpl.INSTANCE;
     } else {
-      SqlDialectFactory factory = AvaticaUtils.instantiatePlugin(
+      factory = AvaticaUtils.instantiatePlugin(
           SqlDialectFactory.class, sqlDialectFactory);
-      return JdbcSchema.create(
-          parentSchema, name, dataSource, factory, jdbcCatalog, jdbcSchema);
     }
+    return JdbcSchema.create(parentSchema, name, dataSource, factory,
+        jdbcCatalog, jdbcSchema, fetchSize == null ? 0 : fetchSize.intValue(),
+        prefetch != null && prefetch, splits.build());
   }
 
   /**
@@ -214,7 +311,7 @@ public boolean isMutable() {
 
   public Schema snapshot(SchemaVersion version) {
     return new JdbcSchema(dataSource, dialect, convention, catalog, schema,
-        tableMap);
+        fetchSize, prefetch, splits, tableMap);
   }
 
   // Used by generated code.
@@ -222,6 +319,26 @@ public DataSource getDataSource() {
     return dataSource;
   }
 
+  /** Returns the number of rows to fetch from the database in each round
+   * trip, or 0 to use the driver's default. */
+  public int getFetchSize() {
+    return fetchSize;
+  }
+
+  /** Returns whether query results are read in a background thread, one
+   * batch ahead of the consumer. */
+  public boolean isPrefetch() {
+    return prefetch;
+  }
+
+  /** Returns how to split scans of a table, or null if they are not
+   * split.
+   *
+   * @param tableName Name of the table in the JDBC data source */
+  public Split getSplit(String tableName) {
+    return splits.get(tableName);
+  }
+
   public Expression getExpression(SchemaPlus parentSchema, String name) {
     return Schemas.subSchemaExpression(parentSchema, name, JdbcSchema.class);
   }
@@ -561,6 +678,30 @@ public Schema create(
     }
   }
 
+  /** Specification of how to split a scan of a table into range scans that
+   * run concurrently.
+   *
+   * <p>The key column must have an integer, DATE or TIMESTAMP type. When the
+   * scan runs, it reads the least and greatest values of the key, divides
+   * that range into {@link #count} ranges of equal width, and reads each
+   * range, and the rows whose key is null, on its own connection. */
+  public static class Split {
+    /** Number of ranges if not specified. */
+    public static final int DEFAULT_COUNT = 4;
+
+    public final String column;
+    public final int count;
+
+    public Split(String column, int count) {
+      this.column = Objects.requireNonNull(column);
+      if (count < 1) {
+        throw new IllegalArgumentException("split count must be positive: "
+            + count);
+      }
+      this.count = count;
+    }
+  }
+
   /** Do not use */
   @Experimental
   public interface Foo
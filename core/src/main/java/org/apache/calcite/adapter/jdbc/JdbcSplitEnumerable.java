@@ -0,0 +1,383 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.jdbc;
+
+import org.apache.calcite.DataContext;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.function.Function0;
+import org.apache.calcite.linq4j.function.Function1;
+import org.apache.calcite.runtime.ResultSetEnumerable;
+import org.apache.calcite.util.Static;
+import org.apache.calcite.util.Util;
+
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.sql.DataSource;
+
+/**
+ * Executes a scan of a JDBC table as several queries, each reading a range
+ * of a key column on its own connection, and returns the union of their
+ * results as an {@link org.apache.calcite.linq4j.Enumerable}.
+ *
+ * <p>When enumerated, it first reads the least and greatest values of the
+ * key, and divides that range into ranges of equal width. The first range
+ * has no lower bound and the last has no upper bound, so that rows inserted
+ * after the bounds were read are not lost. If the key column is nullable,
+ * another query reads the rows whose key is null.
+ *
+ * <p>Each query runs in its own thread; the threads put batches of rows into
+ * a bounded queue, so that the enumerator returns rows in the order they
+ * arrive, not in the order of the key.
+ *
+ * @param <T> Element type
+ */
+public class JdbcSplitEnumerable<T> extends AbstractEnumerable<T> {
+  /** Number of rows each thread puts into the queue at a time. */
+  private static final int BATCH_SIZE = 100;
+
+  private final DataSource dataSource;
+  private final Function1<ResultSet, Function0<T>> rowBuilderFactory;
+  private final String boundsSql;
+  private final String firstSql;
+  private final String middleSql;
+  private final String lastSql;
+  private final String nullSql;
+  private final KeyType keyType;
+  private final int count;
+
+  private DataContext context;
+  private int fetchSize;
+
+  private JdbcSplitEnumerable(DataSource dataSource,
+      Function1<ResultSet, Function0<T>> rowBuilderFactory, String boundsSql,
+      String firstSql, String middleSql, String lastSql, String nullSql,
+      KeyType keyType, int count) {
+    this.dataSource = dataSource;
+    this.rowBuilderFactory = rowBuilderFactory;
+    this.boundsSql = boundsSql;
+    this.firstSql = firstSql;
+    this.middleSql = middleSql;
+    this.lastSql = lastSql;
+    this.nullSql = nullSql;
+    this.keyType = keyType;
+    this.count = count;
+  }
+
+  /** Creates a JdbcSplitEnumerable.
+   *
+   * @param dataSource Data source; should be a connection pool, because each
+   *                   range uses a connection of its own
+   * @param rowBuilderFactory Converts JDBC column values into rows
+   * @param boundsSql Query that returns the least and greatest key
+   * @param firstSql Query that reads the rows whose key is less than
+   *                 parameter 1
+   * @param middleSql Query that reads the rows whose key is not less than
+   *                  parameter 1 and is less than parameter 2
+   * @param lastSql Query that reads the rows whose key is not less than
+   *                parameter 1
+   * @param nullSql Query that reads the rows whose key is null, or null if
+   *                the key is not nullable
+   * @param keyType Type of the key
+   * @param count Number of ranges
+   */
+  public static <T> JdbcSplitEnumerable<T> of(DataSource dataSource,
+      Function1<ResultSet, Function0<T>> rowBuilderFactory, String boundsSql,
+      String firstSql, String middleSql, String lastSql, String nullSql,
+      KeyType keyType, int count) {
+    return new JdbcSplitEnumerable<>(dataSource, rowBuilderFactory,
+        boundsSql, firstSql, middleSql, lastSql, nullSql, keyType, count);
+  }
+
+  /** Sets the context whose timeout applies to each query; see
+   * {@link ResultSetEnumerable#setTimeout(DataContext)}. */
+  public void setTimeout(DataContext context) {
+    this.context = context;
+  }
+
+  /** Sets the number of rows each query fetches from the database in each
+   * round trip; 0 means use the driver's default. */
+  public void setFetchSize(int fetchSize) {
+    this.fetchSize = fetchSize;
+  }
+
+  public Enumerator<T> enumerator() {
+    final List<ResultSetEnumerable<T>> splits = new ArrayList<>();
+    if (nullSql != null) {
+      splits.add(ResultSetEnumerable.of(dataSource, nullSql,
+          rowBuilderFactory));
+    }
+    final long[] bounds = bounds();
+    if (bounds != null) {
+      final List<Long> cuts = cuts(bounds[0], bounds[1], count);
+      if (cuts.isEmpty()) {
+        splits.add(ResultSetEnumerable.of(dataSource, lastSql,
+            rowBuilderFactory, statement -> bind(statement, bounds[0])));
+      } else {
+        splits.add(ResultSetEnumerable.of(dataSource, firstSql,
+            rowBuilderFactory, statement -> bind(statement, cuts.get(0))));
+        for (int i = 1; i < cuts.size(); i++) {
+          final long lower = cuts.get(i - 1);
+          final long upper = cuts.get(i);
+          splits.add(ResultSetEnumerable.of(dataSource, middleSql,
+              rowBuilderFactory, statement -> bind(statement, lower, upper)));
+        }
+        final long last = cuts.get(cuts.size() - 1);
+        splits.add(ResultSetEnumerable.of(dataSource, lastSql,
+            rowBuilderFactory, statement -> bind(statement, last)));
+      }
+    }
+    for (ResultSetEnumerable<T> split : splits) {
+      if (context != null) {
+        split.setTimeout(context);
+      }
+      split.setFetchSize(fetchSize);
+    }
+    return new SplitEnumerator<>(splits);
+  }
+
+  /** Reads the least and greatest key; returns null if the table has no
+   * rows whose key is not null. */
+  private long[] bounds() {
+    try (Connection connection = dataSource.getConnection();
+         Statement statement = connection.createStatement();
+         ResultSet resultSet = statement.executeQuery(boundsSql)) {
+      if (!resultSet.next()) {
+        return null;
+      }
+      final Long min = keyType.get(resultSet, 1);
+      final Long max = keyType.get(resultSet, 2);
+      if (min == null || max == null) {
+        return null;
+      }
+      return new long[] {min, max};
+    } catch (SQLException e) {
+      throw Static.RESOURCE.exceptionWhilePerformingQueryOnJdbcSubSchema(
+          boundsSql).ex(e);
+    }
+  }
+
+  /** Returns the keys that divide the range {@code [min, max]} into
+   * {@code count} ranges of equal width, omitting duplicates. Each key is
+   * the lower bound of one range and the upper bound of the one before. */
+  static List<Long> cuts(long min, long max, int count) {
+    final BigInteger lower = BigInteger.valueOf(min);
+    final BigInteger width = BigInteger.valueOf(max).subtract(lower);
+    final BigInteger n = BigInteger.valueOf(count);
+    final List<Long> cuts = new ArrayList<>();
+    for (int i = 1; i < count; i++) {
+      final long cut = width.multiply(BigInteger.valueOf(i)).divide(n)
+          .add(lower).longValue();
+      if (cut > min && (cuts.isEmpty() || cut > cuts.get(cuts.size() - 1))) {
+        cuts.add(cut);
+      }
+    }
+    return cuts;
+  }
+
+  private void bind(PreparedStatement statement, long... keys)
+      throws SQLException {
+    for (int i = 0; i < keys.length; i++) {
+      statement.setObject(i + 1, keyType.value(keys[i]));
+    }
+  }
+
+  /** Type of a key column, and how to convert its values to and from the
+   * {@code long} values whose range is divided. */
+  public enum KeyType {
+    /** Exact integer type; the values themselves. */
+    INTEGER {
+      Long get(ResultSet resultSet, int i) throws SQLException {
+        final long v = resultSet.getLong(i);
+        return resultSet.wasNull() ? null : v;
+      }
+
+      Object value(long v) {
+        return v;
+      }
+    },
+
+    /** DATE; the number of days since the epoch. */
+    DATE {
+      Long get(ResultSet resultSet, int i) throws SQLException {
+        final Date v = resultSet.getDate(i);
+        return v == null ? null : v.toLocalDate().toEpochDay();
+      }
+
+      Object value(long v) {
+        return Date.valueOf(LocalDate.ofEpochDay(v));
+      }
+    },
+
+    /** TIMESTAMP; the number of milliseconds since the epoch. */
+    TIMESTAMP {
+      Long get(ResultSet resultSet, int i) throws SQLException {
+        final Timestamp v = resultSet.getTimestamp(i);
+        return v == null ? null : v.getTime();
+      }
+
+      Object value(long v) {
+        return new Timestamp(v);
+      }
+    };
+
+    /** Reads a key from a result set; returns null if it is null. */
+    abstract Long get(ResultSet resultSet, int i) throws SQLException;
+
+    /** Converts a key to a value for a parameter of a statement. */
+    abstract Object value(long v);
+  }
+
+  /** Enumerator that reads each range in its own thread.
+   *
+   * @param <T> element type */
+  private static class SplitEnumerator<T> implements Enumerator<T> {
+    private final List<ResultSetEnumerable<T>> splits;
+    private final List<Thread> threads = new ArrayList<>();
+    private final BlockingQueue<List<T>> queue;
+    /** Put into the queue by each thread after its last batch. */
+    private final List<T> end = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean closed;
+
+    private int running;
+    private List<T> batch;
+    private int index;
+    private T current;
+
+    SplitEnumerator(List<ResultSetEnumerable<T>> splits) {
+      this.splits = splits;
+      this.queue = new ArrayBlockingQueue<>(2 * Math.max(splits.size(), 1));
+      for (int i = 0; i < splits.size(); i++) {
+        final ResultSetEnumerable<T> split = splits.get(i);
+        final Thread thread = new Thread(() -> read(split),
+            String.format(Locale.ROOT, "calcite-jdbc-split-%d", i));
+        thread.setDaemon(true);
+        threads.add(thread);
+      }
+      running = threads.size();
+      threads.forEach(Thread::start);
+    }
+
+    /** Body of a thread. */
+    private void read(ResultSetEnumerable<T> split) {
+      try (Enumerator<T> enumerator = split.enumerator()) {
+        List<T> rows = new ArrayList<>(BATCH_SIZE);
+        while (!closed && enumerator.moveNext()) {
+          rows.add(enumerator.current());
+          if (rows.size() == BATCH_SIZE) {
+            put(rows);
+            rows = new ArrayList<>(BATCH_SIZE);
+          }
+        }
+        if (!rows.isEmpty()) {
+          put(rows);
+        }
+      } catch (Throwable e) {
+        failure.compareAndSet(null, e);
+      }
+      put(end);
+    }
+
+    /** Puts a batch into the queue, waiting for space unless the enumerator
+     * is closed. */
+    private void put(List<T> rows) {
+      try {
+        while (!closed) {
+          if (queue.offer(rows, 100, TimeUnit.MILLISECONDS)) {
+            return;
+          }
+        }
+      } catch (InterruptedException e) {
+        // closed by the consumer
+      }
+    }
+
+    public T current() {
+      return current;
+    }
+
+    public boolean moveNext() {
+      for (;;) {
+        if (batch != null && index < batch.size()) {
+          current = batch.get(index++);
+          return true;
+        }
+        batch = null;
+        if (running == 0) {
+          return false;
+        }
+        final List<T> next;
+        try {
+          next = queue.take();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException(e);
+        }
+        if (next == end) {
+          --running;
+          final Throwable e = failure.get();
+          if (e != null) {
+            close();
+            Util.throwIfUnchecked(e);
+            throw new RuntimeException(e);
+          }
+        } else {
+          batch = next;
+          index = 0;
+        }
+      }
+    }
+
+    public void reset() {
+      throw new UnsupportedOperationException();
+    }
+
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      running = 0;
+      queue.clear();
+      // Threads may be waiting for the database; make them return
+      splits.forEach(ResultSetEnumerable::cancel);
+      for (Thread thread : threads) {
+        try {
+          thread.join();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+    }
+  }
+}
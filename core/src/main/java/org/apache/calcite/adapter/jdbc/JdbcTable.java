@@ -48,6 +48,7 @@
 import org.apache.calcite.sql.SqlNodeList;
 import org.apache.calcite.sql.SqlSelect;
 import org.apache.calcite.sql.SqlWriterConfig;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
 import org.apache.calcite.sql.parser.SqlParserPos;
 import org.apache.calcite.sql.pretty.SqlPrettyWriter;
 import org.apache.calcite.sql.util.SqlString;
@@ -142,6 +143,22 @@ private List<Pair<ColumnMetaData.Rep, Integer>> fieldClasses(
 
   SqlString generateSql() {
     final SqlNodeList selectList = SqlNodeList.SINGLETON_STAR;
+    return generateSql(selectList);
+  }
+
+  /** Generates a query that returns the least and greatest value of a
+   * column. */
+  SqlString generateBoundsSql(String columnName) {
+    final SqlIdentifier column =
+        new SqlIdentifier(columnName, SqlParserPos.ZERO);
+    final SqlNodeList selectList =
+        SqlNodeList.of(SqlStdOperatorTable.MIN.createCall(SqlParserPos.ZERO,
+                column),
+            SqlStdOperatorTable.MAX.createCall(SqlParserPos.ZERO, column));
+    return generateSql(selectList);
+  }
+
+  private SqlString generateSql(SqlNodeList selectList) {
     SqlSelect node =
         new SqlSelect(SqlParserPos.ZERO, SqlNodeList.EMPTY, selectList,
             tableName(), null, null, null, null, null, null, null, null);
@@ -180,9 +197,20 @@ public <T> Queryable<T> asQueryable(QueryProvider queryProvider,
 
   public Enumerable<Object[]> scan(DataContext root) {
     final JavaTypeFactory typeFactory = root.getTypeFactory();
+    return resultSetEnumerable(typeFactory);
+  }
+
+  /** Creates an enumerable that reads the whole table, with the fetch
+   * settings of the schema. */
+  private ResultSetEnumerable<Object[]> resultSetEnumerable(
+      JavaTypeFactory typeFactory) {
     final SqlString sql = generateSql();
-    return ResultSetEnumerable.of(jdbcSchema.getDataSource(), sql.getSql(),
-        JdbcUtils.ObjectArrayRowBuilder.factory(fieldClasses(typeFactory)));
+    final ResultSetEnumerable<Object[]> enumerable =
+        ResultSetEnumerable.of(jdbcSchema.getDataSource(), sql.getSql(),
+            JdbcUtils.ObjectArrayRowBuilder.factory(fieldClasses(typeFactory)));
+    enumerable.setFetchSize(jdbcSchema.fetchSize);
+    enumerable.setPrefetch(jdbcSchema.prefetch);
+    return enumerable;
   }
 
   @Override public Collection getModifiableCollection() {
@@ -217,12 +245,9 @@ public Enumerable<Object[]> scan(DataContext root) {
     public Enumerator<T> enumerator() {
       final JavaTypeFactory typeFactory =
           ((CalciteConnection) queryProvider).getTypeFactory();
-      final SqlString sql = generateSql();
       //noinspection unchecked
-      final Enumerable<T> enumerable = (Enumerable<T>) ResultSetEnumerable.of(
-          jdbcSchema.getDataSource(),
-          sql.getSql(),
-          JdbcUtils.ObjectArrayRowBuilder.factory(fieldClasses(typeFactory)));
+      final Enumerable<T> enumerable =
+          (Enumerable<T>) resultSetEnumerable(typeFactory);
       return enumerable.enumerator();
     }
   }
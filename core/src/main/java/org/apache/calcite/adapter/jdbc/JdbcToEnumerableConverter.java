@@ -37,17 +37,26 @@
 import org.apache.calcite.plan.RelOptPlanner;
 import org.apache.calcite.plan.RelTraitSet;
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelVisitor;
 import org.apache.calcite.rel.convert.ConverterImpl;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeField;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexOver;
 import org.apache.calcite.runtime.Hook;
 import org.apache.calcite.runtime.SqlFunctions;
 import org.apache.calcite.schema.Schemas;
 import org.apache.calcite.sql.SqlDialect;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
 import org.apache.calcite.sql.type.SqlTypeName;
 import org.apache.calcite.sql.util.SqlString;
 import org.apache.calcite.util.BuiltInMethod;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.sql.ResultSet;
@@ -160,7 +169,11 @@ public Result implement(EnumerableRelImplementor implementor, Prefer pref) {
 
     final Expression enumerable;
 
-    if (sqlString.getDynamicParameters() != null
+    final JdbcTableScan splitScan = splitScan(sqlString);
+    if (splitScan != null) {
+      enumerable = builder0.append("enumerable",
+          splitEnumerable(jdbcConvention, splitScan, rowBuilderFactory_));
+    } else if (sqlString.getDynamicParameters() != null
         && !sqlString.getDynamicParameters().isEmpty()) {
       final Expression preparedStatementConsumer_ =
           builder0.append("preparedStatementConsumer",
@@ -187,8 +200,28 @@ public Result implement(EnumerableRelImplementor implementor, Prefer pref) {
     builder0.add(
         Expressions.statement(
             Expressions.call(enumerable,
-                BuiltInMethod.RESULT_SET_ENUMERABLE_SET_TIMEOUT.method,
+                splitScan != null
+                    ? BuiltInMethod.JDBC_SPLIT_ENUMERABLE_SET_TIMEOUT.method
+                    : BuiltInMethod.RESULT_SET_ENUMERABLE_SET_TIMEOUT.method,
                 DataContext.ROOT)));
+    final JdbcSchema jdbcSchema = jdbcSchema();
+    if (jdbcSchema != null && jdbcSchema.fetchSize > 0) {
+      builder0.add(
+          Expressions.statement(
+              Expressions.call(enumerable,
+                  splitScan != null
+                      ? BuiltInMethod.JDBC_SPLIT_ENUMERABLE_SET_FETCH_SIZE.method
+                      : BuiltInMethod.RESULT_SET_ENUMERABLE_SET_FETCH_SIZE.method,
+                  Expressions.constant(jdbcSchema.fetchSize))));
+    }
+    // Split scans already read in background threads
+    if (jdbcSchema != null && jdbcSchema.prefetch && splitScan == null) {
+      builder0.add(
+          Expressions.statement(
+              Expressions.call(enumerable,
+                  BuiltInMethod.RESULT_SET_ENUMERABLE_SET_PREFETCH.method,
+                  Expressions.constant(true))));
+    }
     builder0.add(
         Expressions.return_(null, enumerable));
     return implementor.result(physType, builder0.toBlock());
@@ -326,11 +359,164 @@ private String jdbcGetMethod(Primitive primitive) {
   }
 
   private SqlString generateSql(SqlDialect dialect) {
+    return generateSql(dialect, getInput());
+  }
+
+  private SqlString generateSql(SqlDialect dialect, RelNode input) {
     final JdbcImplementor jdbcImplementor =
         new JdbcImplementor(dialect,
             (JavaTypeFactory) getCluster().getTypeFactory());
     final JdbcImplementor.Result result =
-        jdbcImplementor.visitChild(0, getInput());
+        jdbcImplementor.visitChild(0, input);
     return result.asStatement().toSqlString(dialect);
   }
+
+  /** Returns the scan read by the input if it is to be split into range
+   * scans, otherwise null.
+   *
+   * <p>A scan is split if the schema has a {@link JdbcSchema.Split} for its
+   * table, and the input applies only projections and filters without
+   * dynamic parameters to it; the rows of such an input are the union of the
+   * rows it returns for each range of the key. Windowed aggregates are not
+   * computed row by row, so a projection that contains one prevents the
+   * split. */
+  private JdbcTableScan splitScan(SqlString sqlString) {
+    if (sqlString.getDynamicParameters() != null
+        && !sqlString.getDynamicParameters().isEmpty()) {
+      return null;
+    }
+    return splitScan(getInput());
+  }
+
+  /** Returns the scan read by a JDBC relational expression if it is to be
+   * split into range scans, otherwise null. */
+  @VisibleForTesting
+  static JdbcTableScan splitScan(RelNode input) {
+    RelNode node = input;
+    for (;;) {
+      if (node instanceof JdbcRules.JdbcProject) {
+        if (RexOver.containsOver(((JdbcRules.JdbcProject) node).getProjects(),
+            null)) {
+          return null;
+        }
+      } else if (node instanceof JdbcRules.JdbcCalc) {
+        if (RexOver.containsOver(((JdbcRules.JdbcCalc) node).getProgram())) {
+          return null;
+        }
+      } else if (!(node instanceof JdbcRules.JdbcFilter)) {
+        break;
+      }
+      node = node.getInput(0);
+    }
+    if (!(node instanceof JdbcTableScan)) {
+      return null;
+    }
+    final JdbcTable jdbcTable = ((JdbcTableScan) node).jdbcTable;
+    if (jdbcTable.jdbcSchema.getSplit(jdbcTable.jdbcTableName) == null) {
+      return null;
+    }
+    return (JdbcTableScan) node;
+  }
+
+  /** Generates a call that creates a {@link JdbcSplitEnumerable}, with the
+   * query of the input restricted to each kind of range of the key. */
+  private Expression splitEnumerable(JdbcConvention jdbcConvention,
+      JdbcTableScan scan, Expression rowBuilderFactory_) {
+    final JdbcTable jdbcTable = scan.jdbcTable;
+    final JdbcSchema.Split split =
+        jdbcTable.jdbcSchema.getSplit(jdbcTable.jdbcTableName);
+    final RelDataTypeField field =
+        scan.getRowType().getField(split.column, true, false);
+    if (field == null) {
+      throw new IllegalArgumentException("cannot split scan of table '"
+          + jdbcTable.jdbcTableName + "': column '" + split.column
+          + "' not found");
+    }
+    final JdbcSplitEnumerable.KeyType keyType;
+    switch (field.getType().getSqlTypeName()) {
+    case TINYINT:
+    case SMALLINT:
+    case INTEGER:
+    case BIGINT:
+      keyType = JdbcSplitEnumerable.KeyType.INTEGER;
+      break;
+    case DATE:
+      keyType = JdbcSplitEnumerable.KeyType.DATE;
+      break;
+    case TIMESTAMP:
+      keyType = JdbcSplitEnumerable.KeyType.TIMESTAMP;
+      break;
+    default:
+      throw new IllegalArgumentException("cannot split scan of table '"
+          + jdbcTable.jdbcTableName + "': column '" + split.column
+          + "' has type " + field.getType());
+    }
+    final RexBuilder rexBuilder = getCluster().getRexBuilder();
+    final RexNode key = rexBuilder.makeInputRef(scan, field.getIndex());
+    final RexNode lower = rexBuilder.makeDynamicParam(field.getType(), 0);
+    final RexNode upper = rexBuilder.makeDynamicParam(field.getType(), 1);
+    final SqlDialect dialect = jdbcConvention.dialect;
+    final String boundsSql =
+        jdbcTable.generateBoundsSql(split.column).getSql();
+    final String firstSql = generateSplitSql(dialect, scan,
+        rexBuilder.makeCall(SqlStdOperatorTable.LESS_THAN, key, lower));
+    final String middleSql = generateSplitSql(dialect, scan,
+        rexBuilder.makeCall(SqlStdOperatorTable.AND,
+            rexBuilder.makeCall(SqlStdOperatorTable.GREATER_THAN_OR_EQUAL,
+                key, lower),
+            rexBuilder.makeCall(SqlStdOperatorTable.LESS_THAN, key, upper)));
+    final String lastSql = generateSplitSql(dialect, scan,
+        rexBuilder.makeCall(SqlStdOperatorTable.GREATER_THAN_OR_EQUAL, key,
+            lower));
+    final String nullSql = field.getType().isNullable()
+        ? generateSplitSql(dialect, scan,
+            rexBuilder.makeCall(SqlStdOperatorTable.IS_NULL, key))
+        : null;
+    return Expressions.call(BuiltInMethod.JDBC_SPLIT_ENUMERABLE_OF.method,
+        Schemas.unwrap(jdbcConvention.expression, DataSource.class),
+        rowBuilderFactory_,
+        Expressions.constant(boundsSql),
+        Expressions.constant(firstSql),
+        Expressions.constant(middleSql),
+        Expressions.constant(lastSql),
+        Expressions.constant(nullSql, String.class),
+        Expressions.constant(keyType),
+        Expressions.constant(split.count));
+  }
+
+  /** Generates the query of the input with a condition on the rows of a
+   * scan. */
+  private String generateSplitSql(SqlDialect dialect, JdbcTableScan scan,
+      RexNode condition) {
+    return generateSql(dialect, withFilter(getInput(), scan, condition))
+        .getSql();
+  }
+
+  /** Copies a tree of relational expressions, replacing a scan with a
+   * filter on the scan. */
+  private RelNode withFilter(RelNode node, JdbcTableScan scan,
+      RexNode condition) {
+    if (node == scan) {
+      return new JdbcRules.JdbcFilter(getCluster(), scan.getTraitSet(), scan,
+          condition);
+    }
+    return node.copy(node.getTraitSet(),
+        ImmutableList.of(withFilter(node.getInput(0), scan, condition)));
+  }
+
+  /** Returns the schema of the first JDBC table read by the input, whose
+   * settings determine how the results are fetched; or null if the input
+   * reads no table. */
+  private JdbcSchema jdbcSchema() {
+    final List<JdbcSchema> schemas = new ArrayList<>();
+    new RelVisitor() {
+      @Override public void visit(RelNode node, int ordinal, RelNode parent) {
+        if (node instanceof JdbcTableScan) {
+          schemas.add(((JdbcTableScan) node).jdbcTable.jdbcSchema);
+        }
+        super.visit(node, ordinal, parent);
+      }
+    }.go(getInput());
+    return schemas.isEmpty() ? null : schemas.get(0);
+  }
 }
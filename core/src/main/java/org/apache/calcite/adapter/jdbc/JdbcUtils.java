@@ -18,6 +18,7 @@
 
 import org.apache.calcite.avatica.ColumnMetaData;
 import org.apache.calcite.avatica.util.DateTimeUtils;
+import org.apache.calcite.config.CalciteSystemProperty;
 import org.apache.calcite.linq4j.function.Function0;
 import org.apache.calcite.linq4j.function.Function1;
 import org.apache.calcite.sql.SqlDialect;
@@ -205,7 +206,12 @@ private static Date shift(Date v) {
    * <p>This in turn makes it easier to cache
    * {@link org.apache.calcite.sql.SqlDialect} objects. Otherwise, each time we
    * see a new data source, we have to open a connection to find out what
-   * database product and version it is. */
+   * database product and version it is.
+   *
+   * <p>The data sources pool connections, and each connection keeps up to
+   * {@link CalciteSystemProperty#JDBC_STATEMENT_CACHE_MAX_SIZE} prepared
+   * statements open, so that a query that is executed again with different
+   * parameter values is not prepared again by the database. */
   static class DataSourcePool {
     public static final DataSourcePool INSTANCE = new DataSourcePool();
 
@@ -220,6 +226,12 @@ static class DataSourcePool {
       dataSource.setUsername(key.get(1));
       dataSource.setPassword(key.get(2));
       dataSource.setDriverClassName(key.get(3));
+      final int statementCacheSize =
+          CalciteSystemProperty.JDBC_STATEMENT_CACHE_MAX_SIZE.value();
+      if (statementCacheSize > 0) {
+        dataSource.setPoolPreparedStatements(true);
+        dataSource.setMaxOpenPreparedStatements(statementCacheSize);
+      }
       return dataSource;
     }
 
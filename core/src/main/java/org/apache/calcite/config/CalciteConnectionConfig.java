@@ -78,4 +78,20 @@ public interface CalciteConnectionConfig extends ConnectionConfig {
   boolean typeCoercion();
   /** @see CalciteConnectionProperty#LENIENT_OPERATOR_LOOKUP */
   boolean lenientOperatorLookup();
+  /** @see CalciteConnectionProperty#HASH_JOIN_PARALLELISM */
+  int hashJoinParallelism();
+  /** @see CalciteConnectionProperty#SORT_SPILL_THRESHOLD */
+  int sortSpillThreshold();
+  /** @see CalciteConnectionProperty#PLAN_CACHE_SIZE */
+  int planCacheSize();
+  /** @see CalciteConnectionProperty#PLANNING_TIME_LIMIT */
+  int planningTimeLimit();
+  /** @see CalciteConnectionProperty#PLANNING_RULE_CALL_LIMIT */
+  int planningRuleCallLimit();
+  /** @see CalciteConnectionProperty#INTERPRET_ROW_LIMIT */
+  int interpretRowLimit();
+  /** @see CalciteConnectionProperty#INTERPRET_EXECUTION_LIMIT */
+  int interpretExecutionLimit();
+  /** @see CalciteConnectionProperty#COMPILE_ASYNC */
+  boolean compileAsync();
 }
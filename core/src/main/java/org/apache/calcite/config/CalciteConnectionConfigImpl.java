@@ -199,4 +199,44 @@ public boolean lenientOperatorLookup() {
     return CalciteConnectionProperty.LENIENT_OPERATOR_LOOKUP.wrap(properties)
         .getBoolean();
   }
+
+  public int hashJoinParallelism() {
+    return CalciteConnectionProperty.HASH_JOIN_PARALLELISM.wrap(properties)
+        .getInt();
+  }
+
+  public int sortSpillThreshold() {
+    return CalciteConnectionProperty.SORT_SPILL_THRESHOLD.wrap(properties)
+        .getInt();
+  }
+
+  public int planCacheSize() {
+    return CalciteConnectionProperty.PLAN_CACHE_SIZE.wrap(properties)
+        .getInt();
+  }
+
+  public int planningTimeLimit() {
+    return CalciteConnectionProperty.PLANNING_TIME_LIMIT.wrap(properties)
+        .getInt();
+  }
+
+  public int planningRuleCallLimit() {
+    return CalciteConnectionProperty.PLANNING_RULE_CALL_LIMIT.wrap(properties)
+        .getInt();
+  }
+
+  public int interpretRowLimit() {
+    return CalciteConnectionProperty.INTERPRET_ROW_LIMIT.wrap(properties)
+        .getInt();
+  }
+
+  public int interpretExecutionLimit() {
+    return CalciteConnectionProperty.INTERPRET_EXECUTION_LIMIT.wrap(properties)
+        .getInt();
+  }
+
+  public boolean compileAsync() {
+    return CalciteConnectionProperty.COMPILE_ASYNC.wrap(properties)
+        .getBoolean();
+  }
 }
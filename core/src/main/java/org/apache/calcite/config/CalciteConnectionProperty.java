@@ -159,7 +159,57 @@ public enum CalciteConnectionProperty implements ConnectionProperty {
 
   /** Whether to make create implicit functions if functions do not exist
    * in the operator table, default false. */
-  LENIENT_OPERATOR_LOOKUP("lenientOperatorLookup", Type.BOOLEAN, false, false);
+  LENIENT_OPERATOR_LOOKUP("lenientOperatorLookup", Type.BOOLEAN, false, false),
+
+  /** Number of threads that an equi-join implemented by
+   * {@link org.apache.calcite.adapter.enumerable.EnumerableHashJoin} may use
+   * to build and probe its hash table. Applies to inner and left joins that
+   * have no non-equi condition. Values less than 2 (the default is 1) mean
+   * that the join runs single-threaded. Either way, the join returns rows in
+   * the same order. */
+  HASH_JOIN_PARALLELISM("hashJoinParallelism", Type.NUMBER, 1, false),
+
+  /** Number of rows that a sort implemented by
+   * {@link org.apache.calcite.adapter.enumerable.EnumerableSort} may hold in
+   * memory before it writes a sorted run to a temporary file; runs are merged
+   * when the input is exhausted. Values less than 1 (the default is 0) mean
+   * that sorts never spill. Rows are written using Java serialization, so a
+   * sort that spills fails if its rows are not serializable. Aggregates and
+   * hash joins do not spill. */
+  SORT_SPILL_THRESHOLD("sortSpillThreshold", Type.NUMBER, 0, false),
+
+  /** Maximum number of prepared SQL statements that a connection caches.
+   * A statement whose SQL text, default schema and maximum row count match a
+   * cached statement, and that is prepared while no objects have been added
+   * to or removed from the connection's schemas, reuses the cached plan and
+   * generated code. The default, 0, disables the cache. */
+  PLAN_CACHE_SIZE("planCacheSize", Type.NUMBER, 0, false),
+
+  /** Maximum time, in milliseconds, that the Volcano planner spends firing
+   * rules; when the limit is reached and the planner has found a plan, it
+   * returns the cheapest plan found so far. The default, 0, means no
+   * limit. */
+  PLANNING_TIME_LIMIT("planningTimeLimit", Type.NUMBER, 0, false),
+
+  /** Maximum number of rule calls that the Volcano planner fires; when the
+   * limit is reached and the planner has found a plan, it returns the
+   * cheapest plan found so far. The default, 0, means no limit. */
+  PLANNING_RULE_CALL_LIMIT("planningRuleCallLimit", Type.NUMBER, 0, false),
+
+  /** If positive, a query whose plan is estimated to process fewer rows than
+   * this is executed by the interpreter, rather than by compiling Java code,
+   * until it has been executed {@link #INTERPRET_EXECUTION_LIMIT} times.
+   * The default, 0, means that queries are always compiled. */
+  INTERPRET_ROW_LIMIT("interpretRowLimit", Type.NUMBER, 0, false),
+
+  /** Number of times that a statement is executed by the interpreter before
+   * it is compiled; see {@link #INTERPRET_ROW_LIMIT}. */
+  INTERPRET_EXECUTION_LIMIT("interpretExecutionLimit", Type.NUMBER, 3, false),
+
+  /** Whether to compile generated code in the background. If true, a
+   * statement whose plan the interpreter can execute is interpreted until its
+   * compiled code is ready; see also {@link #INTERPRET_ROW_LIMIT}. */
+  COMPILE_ASYNC("compileAsync", Type.BOOLEAN, false, false);
 
   private final String camelName;
   private final Type type;
@@ -130,6 +130,15 @@
   public static final CalciteSystemProperty<Boolean> TOPDOWN_OPT =
       booleanProperty("calcite.planner.topdown.opt", false);
 
+  /**
+   * Whether the Volcano planner matches the operands of rules in parallel.
+   *
+   * <p>See
+   * {@link org.apache.calcite.plan.volcano.VolcanoPlanner#setParallelRuleMatching(boolean)}.
+   */
+  public static final CalciteSystemProperty<Boolean> PARALLEL_RULE_MATCHING =
+      booleanProperty("calcite.planner.parallel.matching", false);
+
   /**
    * Whether to run integration tests.
    */
@@ -341,6 +350,64 @@
       intProperty("calcite.bindable.cache.concurrencyLevel", 1,
           v -> v >= 1 && v <= Integer.MAX_VALUE);
 
+  /**
+   * Directory in which to store the bytecode of dynamically generated Java classes, so that
+   * they do not need to be compiled again, even after the JVM restarts.
+   *
+   * <p>Classes are keyed by a hash of their source code and of the class path. The directory
+   * is created if it does not exist, and may be shared by several JVMs.</p>
+   *
+   * <p>The default value is null, which disables the cache.</p>
+   */
+  public static final CalciteSystemProperty<String> BYTECODE_CACHE_DIRECTORY =
+      stringProperty("calcite.bytecode.cache.directory", null);
+
+  /**
+   * The maximum total size, in bytes, of the files in the bytecode cache.
+   *
+   * <p>The default value is 64 MB. When the limit is exceeded, the least recently used files
+   * are deleted.</p>
+   *
+   * <p>This property has no effect if the cache is disabled (i.e.,
+   * {@link #BYTECODE_CACHE_DIRECTORY} is not set).</p>
+   */
+  public static final CalciteSystemProperty<Integer> BYTECODE_CACHE_MAX_SIZE =
+      intProperty("calcite.bytecode.cache.maxSize", 64 << 20, v -> v > 0);
+
+  /**
+   * Number of threads that compile generated code in the background.
+   *
+   * <p>Background compilation is used by connections that set the
+   * {@link org.apache.calcite.config.CalciteConnectionProperty#COMPILE_ASYNC}
+   * property; the threads are created when first needed.</p>
+   */
+  public static final CalciteSystemProperty<Integer> COMPILE_THREADS =
+      intProperty("calcite.compile.threads", 2, v -> v > 0);
+
+  /**
+   * Maximum number of regular expressions that a query's pattern cache
+   * holds.
+   *
+   * <p>Generated code compiles a literal {@code LIKE}, {@code SIMILAR TO} or
+   * regular expression pattern once; other patterns are compiled through a
+   * cache that is created once per query.</p>
+   */
+  public static final CalciteSystemProperty<Integer> FUNCTION_LEVEL_CACHE_MAX_SIZE =
+      intProperty("calcite.function.cache.maxSize", 1_000, v -> v >= 0);
+
+  /**
+   * Maximum number of prepared statements that each connection of a pooled
+   * JDBC data source keeps open for reuse.
+   *
+   * <p>Applies to data sources that the JDBC adapter creates from a URL,
+   * user and password. Queries with dynamic parameters are sent to the
+   * database as prepared statements, so an execution that differs from an
+   * earlier one only in its parameter values reuses the statement, and the
+   * database does not parse and plan it again. 0 disables reuse.</p>
+   */
+  public static final CalciteSystemProperty<Integer> JDBC_STATEMENT_CACHE_MAX_SIZE =
+      intProperty("calcite.jdbc.statementCache.maxSize", 100, v -> v >= 0);
+
   private static CalciteSystemProperty<Boolean> booleanProperty(String key,
       boolean defaultValue) {
     // Note that "" -> true (convenient for command-lines flags like '-Dflag')
@@ -24,6 +24,9 @@
  * @param <T> Type of relational expression
  */
 abstract class AbstractSingleNode<T extends SingleRel> implements Node {
+  /** Number of rows that a node reads from its source at a time. */
+  static final int BATCH_SIZE = 256;
+
   protected final Source source;
   protected final Sink sink;
   protected final T rel;
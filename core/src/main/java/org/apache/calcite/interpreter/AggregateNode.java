@@ -91,10 +91,13 @@ public AggregateNode(Compiler compiler, Aggregate rel) {
   }
 
   public void run() throws InterruptedException {
-    Row r;
-    while ((r = source.receive()) != null) {
+    final Row[] rows = new Row[BATCH_SIZE];
+    int count;
+    while ((count = source.receive(rows)) > 0) {
       for (Grouping group : groups) {
-        group.send(r);
+        for (int i = 0; i < count; i++) {
+          group.send(rows[i]);
+        }
       }
     }
 
@@ -37,13 +37,23 @@ public FilterNode(Compiler compiler, Filter rel) {
   }
 
   public void run() throws InterruptedException {
-    Row row;
-    while ((row = source.receive()) != null) {
-      context.values = row.getValues();
-      Boolean b = (Boolean) condition.execute(context);
-      if (b != null && b) {
-        sink.send(row);
+    final Row[] rows = new Row[BATCH_SIZE];
+    final Object[][] inputs = new Object[BATCH_SIZE][];
+    final Object[][] results = new Object[BATCH_SIZE][1];
+    int count;
+    while ((count = source.receive(rows)) > 0) {
+      for (int i = 0; i < count; i++) {
+        inputs[i] = rows[i].getValues();
       }
+      condition.execute(context, inputs, count, results);
+      int n = 0;
+      for (int i = 0; i < count; i++) {
+        Boolean b = (Boolean) results[i][0];
+        if (b != null && b) {
+          rows[n++] = rows[i];
+        }
+      }
+      sink.send(rows, n);
     }
   }
 }
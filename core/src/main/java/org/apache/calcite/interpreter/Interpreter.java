@@ -298,6 +298,12 @@ public void send(Row row) throws InterruptedException {
       list.add(row);
     }
 
+    @Override public void send(Row[] rows, int count) {
+      for (int i = 0; i < count; i++) {
+        list.add(rows[i]);
+      }
+    }
+
     public void end() throws InterruptedException {
     }
 
@@ -334,6 +340,20 @@ public Row receive() {
       }
     }
 
+    @Override public int receive(Row[] rows) {
+      if (iterator == null) {
+        iterator = list.iterator();
+      }
+      int n = 0;
+      while (n < rows.length && iterator.hasNext()) {
+        rows[n++] = iterator.next();
+      }
+      if (n == 0) {
+        iterator = null;
+      }
+      return n;
+    }
+
     @Override public void close() {
       // noop
     }
@@ -353,6 +373,14 @@ public void send(Row row) throws InterruptedException {
       }
     }
 
+    @Override public void send(Row[] rows, int count) {
+      for (ArrayDeque<Row> queue : queues) {
+        for (int i = 0; i < count; i++) {
+          queue.add(rows[i]);
+        }
+      }
+    }
+
     public void end() throws InterruptedException {
     }
 
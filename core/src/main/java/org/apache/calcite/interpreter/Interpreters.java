@@ -17,9 +17,28 @@
 package org.apache.calcite.interpreter;
 
 import org.apache.calcite.DataContext;
+import org.apache.calcite.adapter.enumerable.EnumerableTableScan;
 import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.plan.RelOptTable;
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Aggregate;
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.rel.core.Calc;
+import org.apache.calcite.rel.core.Filter;
+import org.apache.calcite.rel.core.Join;
+import org.apache.calcite.rel.core.Project;
+import org.apache.calcite.rel.core.Sort;
+import org.apache.calcite.rel.core.TableScan;
+import org.apache.calcite.rel.core.Union;
+import org.apache.calcite.rel.core.Values;
+import org.apache.calcite.rel.logical.LogicalTableScan;
 import org.apache.calcite.runtime.ArrayBindable;
+import org.apache.calcite.schema.FilterableTable;
+import org.apache.calcite.schema.ProjectableFilterableTable;
+import org.apache.calcite.schema.QueryableTable;
+import org.apache.calcite.schema.ScannableTable;
+import org.apache.calcite.sql.SqlAggFunction;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
 
 /**
  * Utilities relating to {@link org.apache.calcite.interpreter.Interpreter}
@@ -45,4 +64,82 @@ public Class<Object[]> getElementType() {
       }
     };
   }
+
+  /** Returns whether the interpreter can execute a tree of relational
+   * expressions, producing the same results as compiled code.
+   *
+   * <p>The check is conservative. It accepts table scans (but not
+   * adapter-specific scans), filters, projects, calcs, values, sorts,
+   * unions, joins without correlation and aggregates without
+   * {@code DISTINCT} or {@code FILTER}, regardless of calling convention;
+   * other expressions, such as windowed aggregates and adapter converters,
+   * must be compiled. {@code SUM}, {@code MIN} and {@code MAX} are accepted
+   * only for the numeric types that {@link AggregateNode} has accumulators
+   * for. */
+  public static boolean isInterpretable(RelNode rel) {
+    if (rel instanceof TableScan) {
+      if (!(rel instanceof EnumerableTableScan
+          || rel instanceof LogicalTableScan
+          || rel instanceof Bindables.BindableTableScan)) {
+        // An adapter's scan, such as one that reads only some columns, may
+        // have its own semantics
+        return false;
+      }
+      final RelOptTable table = ((TableScan) rel).getTable();
+      if (table.unwrap(ProjectableFilterableTable.class) == null
+          && table.unwrap(FilterableTable.class) == null
+          && table.unwrap(ScannableTable.class) == null
+          && table.unwrap(QueryableTable.class) == null) {
+        return false;
+      }
+    } else if (rel instanceof Aggregate) {
+      for (AggregateCall call : ((Aggregate) rel).getAggCallList()) {
+        if (call.isDistinct() || call.hasFilter() || !isInterpretable(call)) {
+          return false;
+        }
+      }
+    } else if (rel instanceof Join) {
+      if (!((Join) rel).getVariablesSet().isEmpty()) {
+        return false;
+      }
+    } else if (!(rel instanceof Filter
+        || rel instanceof Project
+        || rel instanceof Calc
+        || rel instanceof Values
+        || rel instanceof Sort
+        || rel instanceof Union)) {
+      return false;
+    }
+    for (RelNode input : rel.getInputs()) {
+      if (!isInterpretable(input)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns whether {@link AggregateNode} computes an aggregate call with the
+   * same result as compiled code. {@code SUM}, {@code MIN} and {@code MAX}
+   * fall back to {@code long} accumulators for types they do not know, such
+   * as {@code VARCHAR} and {@code DATE}. */
+  private static boolean isInterpretable(AggregateCall call) {
+    final SqlAggFunction aggregation = call.getAggregation();
+    if (aggregation != SqlStdOperatorTable.SUM
+        && aggregation != SqlStdOperatorTable.SUM0
+        && aggregation != SqlStdOperatorTable.MIN
+        && aggregation != SqlStdOperatorTable.MAX) {
+      return true;
+    }
+    switch (call.getType().getSqlTypeName()) {
+    case INTEGER:
+    case BIGINT:
+    case DOUBLE:
+    case DECIMAL:
+      return true;
+    case BOOLEAN:
+      return aggregation == SqlStdOperatorTable.MIN;
+    default:
+      return false;
+    }
+  }
 }
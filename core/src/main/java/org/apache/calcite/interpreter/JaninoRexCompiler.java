@@ -142,6 +142,39 @@ static Scalar baz(ParameterExpression context_,
             BuiltInMethod.SCALAR_EXECUTE1.method.getName(),
             ImmutableList.of(context_), builder.toBlock()));
 
+    // public void execute(Context, Object[][] inputs, int count,
+    //     Object[][] results)
+    // evaluates the block for each row of a batch, without a virtual call
+    // per row
+    final ParameterExpression inputs_ =
+        Expressions.parameter(Object[][].class, "inputs");
+    final ParameterExpression count_ =
+        Expressions.parameter(int.class, "count");
+    final ParameterExpression results_ =
+        Expressions.parameter(Object[][].class, "results");
+    final ParameterExpression i_ =
+        Expressions.parameter(int.class, "batchIndex");
+    final BlockStatement loopBody =
+        Expressions.block(
+            Expressions.statement(
+                Expressions.assign(
+                    Expressions.field(context_,
+                        BuiltInMethod.CONTEXT_VALUES.field),
+                    Expressions.arrayIndex(inputs_, i_))),
+            Expressions.declare(Modifier.FINAL, outputValues_,
+                Expressions.arrayIndex(results_, i_)),
+            block);
+    declarations.add(
+        Expressions.methodDecl(Modifier.PUBLIC, void.class,
+            BuiltInMethod.SCALAR_EXECUTE2.method.getName(),
+            ImmutableList.of(context_, inputs_, count_, results_),
+            Expressions.block(
+                Expressions.for_(
+                    Expressions.declare(0, i_, Expressions.constant(0)),
+                    Expressions.lessThan(i_, count_),
+                    Expressions.preIncrementAssign(i_),
+                    loopBody))));
+
     final ClassDeclaration classDeclaration =
         Expressions.classDecl(Modifier.PUBLIC, "Buzz", null,
             ImmutableList.of(Scalar.class), declarations);
@@ -37,6 +37,8 @@ public class JoinNode implements Node {
   private final Join rel;
   private final Scalar condition;
   private final Context context;
+  /** Holds the value of {@link #condition}; reused for each pair of rows. */
+  private final Object[] conditionValues = new Object[1];
 
   public JoinNode(Compiler compiler, Join rel) {
     this.leftSource = compiler.source(rel, 0);
@@ -80,6 +82,14 @@ public void run() throws InterruptedException {
       matchRowSet.addAll(doJoin(outerRow, innerRows, rel.getJoinType()));
     }
     if (rel.getJoinType() == JoinRelType.FULL) {
+      if (innerRows == null) {
+        // outer source is empty; every row of inner source is un-matched
+        innerRows = new ArrayList<Row>();
+        Row innerRow = null;
+        while ((innerRow = innerSource.receive()) != null) {
+          innerRows.add(innerRow);
+        }
+      }
       // send un-match rows for full join on right source
       List<Row> empty = new ArrayList<>();
       for (Row row: innerRows) {
@@ -101,7 +111,8 @@ private List<Row> doJoin(Row outerRow, List<Row> innerRows,
     List<Row> matchInnerRows = new ArrayList<>();
     for (Row innerRow: innerRows) {
       copyToContext(innerRow, !outerRowOnLeft);
-      final Boolean execute = (Boolean) condition.execute(context);
+      condition.execute(context, conditionValues);
+      final Boolean execute = (Boolean) conditionValues[0];
       if (execute != null && execute) {
         matchInnerRows.add(innerRow);
       }
@@ -36,12 +36,20 @@ public ProjectNode(Compiler compiler, Project rel) {
   }
 
   public void run() throws InterruptedException {
-    Row row;
-    while ((row = source.receive()) != null) {
-      context.values = row.getValues();
-      Object[] values = new Object[projectCount];
-      scalar.execute(context, values);
-      sink.send(new Row(values));
+    final Row[] rows = new Row[BATCH_SIZE];
+    final Object[][] inputs = new Object[BATCH_SIZE][];
+    final Object[][] results = new Object[BATCH_SIZE][];
+    int count;
+    while ((count = source.receive(rows)) > 0) {
+      for (int i = 0; i < count; i++) {
+        inputs[i] = rows[i].getValues();
+        results[i] = new Object[projectCount];
+      }
+      scalar.execute(context, inputs, count, results);
+      for (int i = 0; i < count; i++) {
+        rows[i] = new Row(results[i]);
+      }
+      sink.send(rows, count);
     }
   }
 }
@@ -22,4 +22,18 @@
 public interface Scalar {
   Object execute(Context context);
   void execute(Context context, Object[] results);
+
+  /** Evaluates this scalar for each of a batch of input rows, setting
+   * {@link Context#values} to {@code inputs[i]} in turn, and writing
+   * the results into {@code results[i]}.
+   *
+   * <p>Generated scalars evaluate the whole batch in one loop; this default
+   * implementation calls {@link #execute(Context, Object[])} for each row. */
+  default void execute(Context context, Object[][] inputs, int count,
+      Object[][] results) {
+    for (int i = 0; i < count; i++) {
+      context.values = inputs[i];
+      execute(context, results[i]);
+    }
+  }
 }
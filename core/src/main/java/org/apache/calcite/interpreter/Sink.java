@@ -26,6 +26,13 @@
 public interface Sink {
   void send(Row row) throws InterruptedException;
 
+  /** Sends the first {@code count} rows of an array. */
+  default void send(Row[] rows, int count) throws InterruptedException {
+    for (int i = 0; i < count; i++) {
+      send(rows[i]);
+    }
+  }
+
   void end() throws InterruptedException;
 
   /** This method is temporary. It will be removed without notice. */
@@ -25,5 +25,16 @@ public interface Source extends AutoCloseable {
   /** Reads a row. Null means end of data. */
   Row receive();
 
+  /** Reads up to {@code rows.length} rows into an array. Returns the number
+   * of rows read; 0 means end of data. */
+  default int receive(Row[] rows) {
+    int n = 0;
+    Row row;
+    while (n < rows.length && (row = receive()) != null) {
+      rows[n++] = row;
+    }
+    return n;
+  }
+
   void close();
 }
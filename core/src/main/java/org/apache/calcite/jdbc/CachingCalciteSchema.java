@@ -125,6 +125,7 @@ public CalciteSchema add(String name, Schema schema) {
     final CalciteSchema calciteSchema =
         new CachingCalciteSchema(this, schema, name);
     subSchemaMap.put(name, calciteSchema);
+    changed();
     return calciteSchema;
   }
 
@@ -22,6 +22,8 @@
 import org.apache.calcite.linq4j.QueryProvider;
 import org.apache.calcite.schema.SchemaPlus;
 
+import com.google.common.cache.CacheStats;
+
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Properties;
@@ -80,4 +82,32 @@ public interface CalciteConnection extends Connection, QueryProvider {
 
   /** Creates a context for preparing a statement for execution. */
   Context createPrepareContext();
+
+  /** Returns statistics about the cache of prepared statements; all zero if
+   * the cache is disabled.
+   *
+   * <p>The default implementation, for connections that have no cache,
+   * returns all zero.
+   *
+   * @see org.apache.calcite.config.CalciteConnectionProperty#PLAN_CACHE_SIZE */
+  default CacheStats getPlanCacheStats() {
+    return new CacheStats(0, 0, 0, 0, 0, 0);
+  }
+
+  /** Adds a listener that is notified of the time spent in each phase of
+   * preparing and executing statements on this connection.
+   *
+   * <p>The default implementation throws
+   * {@link UnsupportedOperationException}. */
+  default void addQueryListener(QueryListener listener) {
+    throw new UnsupportedOperationException("addQueryListener");
+  }
+
+  /** Removes a listener that was added by
+   * {@link #addQueryListener(QueryListener)}.
+   *
+   * <p>The default implementation does nothing, since no listener can have
+   * been added. */
+  default void removeQueryListener(QueryListener listener) {
+  }
 }
@@ -32,6 +32,7 @@
 import org.apache.calcite.config.CalciteConnectionConfig;
 import org.apache.calcite.config.CalciteConnectionConfigImpl;
 import org.apache.calcite.jdbc.CalcitePrepare.Context;
+import org.apache.calcite.linq4j.AbstractEnumerable;
 import org.apache.calcite.linq4j.BaseQueryable;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.Enumerator;
@@ -66,6 +67,9 @@
 import org.apache.calcite.util.Util;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
@@ -82,6 +86,7 @@
 import java.util.Objects;
 import java.util.Properties;
 import java.util.TimeZone;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -98,6 +103,12 @@
   final CalciteSchema rootSchema;
   final Function0<CalcitePrepare> prepareFactory;
   final CalciteServer server = new CalciteServerImpl();
+  /** Cache of prepared statements, or null if caching is disabled. */
+  private final Cache<PlanCacheKey, CalcitePrepare.CalciteSignature<?>>
+      planCache;
+  /** Listeners to notify when statements are prepared and executed. */
+  private final List<QueryListener> queryListeners =
+      new CopyOnWriteArrayList<>();
 
   // must be package-protected
   static final Trojan TROJAN = createTrojan();
@@ -145,6 +156,12 @@ protected CalciteConnectionImpl(Driver driver, AvaticaFactory factory,
     this.properties.put(InternalProperty.UNQUOTED_CASING, cfg.unquotedCasing());
     this.properties.put(InternalProperty.QUOTED_CASING, cfg.quotedCasing());
     this.properties.put(InternalProperty.QUOTING, cfg.quoting());
+    this.planCache = cfg.planCacheSize() > 0
+        ? CacheBuilder.newBuilder()
+            .maximumSize(cfg.planCacheSize())
+            .recordStats()
+            .build()
+        : null;
   }
 
   CalciteMetaImpl meta() {
@@ -228,13 +245,53 @@ <T> CalcitePrepare.CalciteSignature<T> parseQuery(
     CalcitePrepare.Dummy.push(prepareContext);
     try {
       final CalcitePrepare prepare = prepareFactory.apply();
-      return prepare.prepareSql(prepareContext, query, Object[].class,
-          maxRowCount);
+      if (planCache == null || query.sql == null) {
+        return prepare.prepareSql(prepareContext, query, Object[].class,
+            maxRowCount);
+      }
+      final PlanCacheKey key =
+          new PlanCacheKey(query.sql, prepareContext.getDefaultSchemaPath(),
+              maxRowCount, rootSchema.getModificationCount(), info);
+      @SuppressWarnings("unchecked")
+      final CalcitePrepare.CalciteSignature<T> cached =
+          (CalcitePrepare.CalciteSignature<T>) planCache.getIfPresent(key);
+      if (cached != null) {
+        return cached;
+      }
+      final CalcitePrepare.CalciteSignature<T> signature =
+          prepare.prepareSql(prepareContext, query, Object[].class,
+              maxRowCount);
+      switch (signature.statementType) {
+      case CREATE:
+      case DROP:
+      case ALTER:
+      case OTHER_DDL:
+        // DDL has changed the schema, so existing entries will never be
+        // used again
+        planCache.invalidateAll();
+        break;
+      default:
+        planCache.put(key, signature);
+      }
+      return signature;
     } finally {
       CalcitePrepare.Dummy.pop(prepareContext);
     }
   }
 
+  @Override public CacheStats getPlanCacheStats() {
+    return planCache == null ? CalciteConnection.super.getPlanCacheStats()
+        : planCache.stats();
+  }
+
+  @Override public void addQueryListener(QueryListener listener) {
+    queryListeners.add(Objects.requireNonNull(listener));
+  }
+
+  @Override public void removeQueryListener(QueryListener listener) {
+    queryListeners.remove(listener);
+  }
+
   @Override public AtomicBoolean getCancelFlag(Meta.StatementHandle handle)
       throws NoSuchStatementException {
     final CalciteServerStatement serverStatement = server.getStatement(handle);
@@ -312,7 +369,16 @@ public <T> Enumerable<T> enumerable(Meta.StatementHandle handle,
       map.put(DataContext.Variable.TIMEOUT.camelName, queryTimeout * 1000L);
     }
     final DataContext dataContext = createDataContext(map, signature.rootSchema);
-    return signature.enumerable(dataContext);
+    final Enumerable<T> enumerable = signature.enumerable(dataContext);
+    if (queryListeners.isEmpty() || signature.getMetrics() == null) {
+      return enumerable;
+    }
+    return new AbstractEnumerable<T>() {
+      public Enumerator<T> enumerator() {
+        return new MeasuringEnumerator<>(enumerable, signature.sql,
+            signature.getMetrics().copy(), queryListeners);
+      }
+    };
   }
 
   public DataContext createDataContext(Map<String, Object> parameterValues,
@@ -566,6 +632,73 @@ public CalcitePrepare.SparkHandler spark() {
       final boolean enable = config().spark();
       return CalcitePrepare.Dummy.getSparkHandler(enable);
     }
+
+    @Override public List<QueryListener> getQueryListeners() {
+      return connection.queryListeners;
+    }
+  }
+
+  /** Enumerator that measures the time spent reading rows from another
+   * enumerator, and notifies {@link QueryListener}s when it is exhausted or
+   * closed.
+   *
+   * @param <T> Element type */
+  private static class MeasuringEnumerator<T> implements Enumerator<T> {
+    private final Enumerator<T> enumerator;
+    private final String sql;
+    private final QueryMetrics metrics;
+    private final List<QueryListener> listeners;
+    private long rowCount;
+    private boolean done;
+
+    MeasuringEnumerator(Enumerable<T> enumerable, String sql,
+        QueryMetrics metrics, List<QueryListener> listeners) {
+      this.sql = sql;
+      this.metrics = metrics;
+      this.listeners = listeners;
+      final long start = System.nanoTime();
+      this.enumerator = enumerable.enumerator();
+      metrics.addNanos(QueryMetrics.Phase.EXECUTE, System.nanoTime() - start);
+    }
+
+    public T current() {
+      return enumerator.current();
+    }
+
+    public boolean moveNext() {
+      final long start = System.nanoTime();
+      final boolean hasNext = enumerator.moveNext();
+      metrics.addNanos(QueryMetrics.Phase.EXECUTE, System.nanoTime() - start);
+      if (hasNext) {
+        ++rowCount;
+      } else {
+        finish();
+      }
+      return hasNext;
+    }
+
+    public void reset() {
+      enumerator.reset();
+    }
+
+    public void close() {
+      try {
+        enumerator.close();
+      } finally {
+        finish();
+      }
+    }
+
+    private void finish() {
+      if (done) {
+        return;
+      }
+      done = true;
+      metrics.addRows(rowCount);
+      for (QueryListener listener : listeners) {
+        listener.executed(sql, metrics);
+      }
+    }
   }
 
   /** Implementation of {@link DataContext} that has few variables and is
@@ -625,4 +758,39 @@ public void setResultSet(Iterator<Object> iterator) {
     }
   }
 
+  /** Key of a prepared statement in the plan cache. */
+  private static class PlanCacheKey {
+    private final String sql;
+    private final List<String> defaultSchemaPath;
+    private final long maxRowCount;
+    private final long schemaModificationCount;
+    private final ImmutableMap<Object, Object> properties;
+
+    PlanCacheKey(String sql, List<String> defaultSchemaPath, long maxRowCount,
+        long schemaModificationCount, Properties properties) {
+      this.sql = Objects.requireNonNull(sql);
+      this.defaultSchemaPath = defaultSchemaPath == null
+          ? ImmutableList.of()
+          : ImmutableList.copyOf(defaultSchemaPath);
+      this.maxRowCount = maxRowCount;
+      this.schemaModificationCount = schemaModificationCount;
+      this.properties = ImmutableMap.copyOf(properties);
+    }
+
+    @Override public int hashCode() {
+      return Objects.hash(sql, defaultSchemaPath, maxRowCount,
+          schemaModificationCount, properties);
+    }
+
+    @Override public boolean equals(Object obj) {
+      return obj == this
+          || obj instanceof PlanCacheKey
+          && sql.equals(((PlanCacheKey) obj).sql)
+          && defaultSchemaPath.equals(((PlanCacheKey) obj).defaultSchemaPath)
+          && maxRowCount == ((PlanCacheKey) obj).maxRowCount
+          && schemaModificationCount
+              == ((PlanCacheKey) obj).schemaModificationCount
+          && properties.equals(((PlanCacheKey) obj).properties);
+    }
+  }
 }
@@ -127,6 +127,12 @@ interface Context {
 
     /** Gets a runner; it can execute a relational expression. */
     RelRunner getRelRunner();
+
+    /** Returns the listeners to notify when a statement has been prepared.
+     * Never null. */
+    default List<QueryListener> getQueryListeners() {
+      return ImmutableList.of();
+    }
   }
 
   /** Callback to register Spark as the main engine. */
@@ -319,6 +325,7 @@ public AnalyzeViewResult(CalcitePrepareImpl prepare,
     @JsonIgnore private final List<RelCollation> collationList;
     private final long maxRowCount;
     private final Bindable<T> bindable;
+    @JsonIgnore private QueryMetrics metrics;
 
     @Deprecated // to be removed before 2.0
     public CalciteSignature(String sql, List<AvaticaParameter> parameterList,
@@ -364,6 +371,15 @@ public Enumerable<T> enumerable(DataContext dataContext) {
     public List<RelCollation> getCollationList() {
       return collationList;
     }
+
+    /** Returns the metrics of preparing this statement, or null. */
+    public QueryMetrics getMetrics() {
+      return metrics;
+    }
+
+    public void setMetrics(QueryMetrics metrics) {
+      this.metrics = metrics;
+    }
   }
 
   /** A union type of the three possible ways of expressing a query: as a SQL
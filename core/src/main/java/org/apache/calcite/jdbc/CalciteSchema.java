@@ -51,6 +51,7 @@
 import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.sql.DataSource;
 
 /**
@@ -75,6 +76,9 @@ public abstract class CalciteSchema {
   protected final NameMap<FunctionEntry> nullaryFunctionMap;
   protected final NameMap<CalciteSchema> subSchemaMap;
   private List<? extends List<String>> path;
+  /** Number of modifications made to the tree of schemas of which this is
+   * the root; see {@link #getModificationCount()}. */
+  private final AtomicLong modificationCount = new AtomicLong();
 
   protected CalciteSchema(CalciteSchema parent, Schema schema,
       String name, NameMap<CalciteSchema> subSchemaMap,
@@ -199,6 +203,7 @@ public TableEntry add(String tableName, Table table,
     final TableEntryImpl entry =
         new TableEntryImpl(this, tableName, table, sqls);
     tableMap.put(tableName, entry);
+    changed();
     return entry;
   }
 
@@ -207,6 +212,7 @@ public TypeEntry add(String name, RelProtoDataType type) {
     final TypeEntry entry =
         new TypeEntryImpl(this, name, type);
     typeMap.put(name, entry);
+    changed();
     return entry;
   }
 
@@ -223,6 +229,7 @@ public FunctionEntry add(String name, Function function) {
     if (function.getParameters().isEmpty()) {
       nullaryFunctionMap.put(name, entry);
     }
+    changed();
     return entry;
   }
 
@@ -233,6 +240,7 @@ public FunctionEntry add(String name, Macro macro) {
           + " already exists");
     }
     macroMap.put(name, entry);
+    changed();
     return entry;
   }
 
@@ -243,6 +251,7 @@ public FunctionEntry add(String name, Procedure procedure) {
           + " already exists");
     }
     procedureMap.put(name, entry);
+    changed();
     return entry;
   }
 
@@ -252,6 +261,7 @@ private LatticeEntry add(String name, Lattice lattice) {
     }
     final LatticeEntryImpl entry = new LatticeEntryImpl(this, name, lattice);
     latticeMap.put(name, entry);
+    changed();
     return entry;
   }
 
@@ -272,6 +282,22 @@ public boolean isRoot() {
     return parent == null;
   }
 
+  /** Returns the number of times that objects have been added to or removed
+   * from this schema's tree of schemas (starting at its root) via methods
+   * such as {@link #add(String, Table)} and {@link #removeTable(String)}.
+   *
+   * <p>Changes to the contents of the underlying {@link Schema} objects are
+   * not counted. */
+  public long getModificationCount() {
+    return root().modificationCount.get();
+  }
+
+  /** Records that this schema has been modified. Sub-classes that add
+   * objects must call this method. */
+  protected void changed() {
+    root().modificationCount.incrementAndGet();
+  }
+
   /** Returns the path of an object in this schema. */
   public List<String> path(String name) {
     final List<String> list = new ArrayList<>();
@@ -585,11 +611,13 @@ public static CalciteSchema createRootSchema(boolean addMetadataSchema,
 
   @Experimental
   public boolean removeSubSchema(String name) {
+    changed();
     return subSchemaMap.remove(name) != null;
   }
 
   @Experimental
   public boolean removeTable(String name) {
+    changed();
     return tableMap.remove(name) != null;
   }
 
@@ -600,11 +628,13 @@ public boolean removeFunction(String name) {
       return false;
     }
     functionMap.remove(name, remove);
+    changed();
     return true;
   }
 
   @Experimental
   public boolean removeType(String name) {
+    changed();
     return typeMap.remove(name) != null;
   }
 
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.jdbc;
+
+/**
+ * Listener that is notified, with {@link QueryMetrics}, when a statement
+ * has been prepared and when it has been executed.
+ *
+ * <p>Register a listener by calling
+ * {@link CalciteConnection#addQueryListener(QueryListener)}. Methods are
+ * called on the thread that prepares or executes the statement, so they
+ * should return quickly.
+ *
+ * <p>If the statement's plan came from the plan cache (see
+ * {@link org.apache.calcite.config.CalciteConnectionProperty#PLAN_CACHE_SIZE}),
+ * {@link #prepared} is not called, and the preparation figures passed to
+ * {@link #executed} are those of the statement that was originally prepared.
+ */
+public interface QueryListener {
+  /** Called after a statement has been prepared.
+   *
+   * @param sql SQL text, or null if the statement was not prepared from SQL
+   * @param metrics Time spent in each phase of preparation, and planner
+   *                counters
+   */
+  void prepared(String sql, QueryMetrics metrics);
+
+  /** Called after the rows of a statement have been read to the end, or when
+   * the result set is closed.
+   *
+   * @param sql SQL text, or null if the statement was not prepared from SQL
+   * @param metrics Metrics of preparation, plus execution time and the
+   *                number of rows read
+   */
+  void executed(String sql, QueryMetrics metrics);
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.jdbc;
+
+import org.apache.calcite.plan.RelOptListener;
+
+import java.util.Locale;
+
+/**
+ * Measurements of the preparation and execution of a statement.
+ *
+ * <p>Calcite populates an instance while it prepares and executes a
+ * statement, and passes it to each {@link QueryListener}; listeners should
+ * only read it.
+ */
+public class QueryMetrics {
+  private final long[] nanos;
+  private long ruleAttemptCount;
+  private long ruleProductionCount;
+  private long relCount;
+  private int setCount;
+  private int subsetCount;
+  private long rowCount;
+
+  public QueryMetrics() {
+    this.nanos = new long[Phase.values().length];
+  }
+
+  private QueryMetrics(QueryMetrics metrics) {
+    this.nanos = metrics.nanos.clone();
+    this.ruleAttemptCount = metrics.ruleAttemptCount;
+    this.ruleProductionCount = metrics.ruleProductionCount;
+    this.relCount = metrics.relCount;
+    this.setCount = metrics.setCount;
+    this.subsetCount = metrics.subsetCount;
+    this.rowCount = metrics.rowCount;
+  }
+
+  /** Returns a copy of this metrics object. */
+  public QueryMetrics copy() {
+    return new QueryMetrics(this);
+  }
+
+  /** Adds to the time spent in a phase. */
+  public void addNanos(Phase phase, long nanos) {
+    this.nanos[phase.ordinal()] += nanos;
+  }
+
+  /** Returns the time, in nanoseconds, spent in a phase. */
+  public long getNanos(Phase phase) {
+    return nanos[phase.ordinal()];
+  }
+
+  /** Returns the number of rule calls that the planner fired. */
+  public long getRuleAttemptCount() {
+    return ruleAttemptCount;
+  }
+
+  /** Returns the number of relational expressions that rules produced. */
+  public long getRuleProductionCount() {
+    return ruleProductionCount;
+  }
+
+  /** Returns the number of relational expressions that were registered with
+   * the planner, including those produced by rules. */
+  public long getRelCount() {
+    return relCount;
+  }
+
+  /** Returns the number of equivalence sets in the planner at the end of
+   * optimization; 0 if the planner is not a
+   * {@link org.apache.calcite.plan.volcano.VolcanoPlanner}. */
+  public int getSetCount() {
+    return setCount;
+  }
+
+  /** Returns the number of subsets in the planner at the end of
+   * optimization; 0 if the planner is not a
+   * {@link org.apache.calcite.plan.volcano.VolcanoPlanner}. */
+  public int getSubsetCount() {
+    return subsetCount;
+  }
+
+  /** Records the number of sets and subsets in the planner. */
+  public void setSetCounts(int setCount, int subsetCount) {
+    this.setCount = setCount;
+    this.subsetCount = subsetCount;
+  }
+
+  /** Returns the number of rows returned by the statement. */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /** Adds to the number of rows returned by the statement. */
+  public void addRows(long rowCount) {
+    this.rowCount += rowCount;
+  }
+
+  /** Creates a planner listener that counts rule calls and relational
+   * expressions into this metrics object. */
+  public RelOptListener plannerListener() {
+    return new RelOptListener() {
+      public void relEquivalenceFound(RelEquivalenceEvent event) {
+        ++relCount;
+      }
+
+      public void ruleAttempted(RuleAttemptedEvent event) {
+        if (!event.isBefore()) {
+          ++ruleAttemptCount;
+        }
+      }
+
+      public void ruleProductionSucceeded(RuleProductionEvent event) {
+        if (!event.isBefore()) {
+          ++ruleProductionCount;
+        }
+      }
+
+      public void relDiscarded(RelDiscardedEvent event) {
+      }
+
+      public void relChosen(RelChosenEvent event) {
+      }
+    };
+  }
+
+  @Override public String toString() {
+    final StringBuilder buf = new StringBuilder("{");
+    for (Phase phase : Phase.values()) {
+      buf.append(phase.name().toLowerCase(Locale.ROOT))
+          .append('=')
+          .append(nanos[phase.ordinal()] / 1_000)
+          .append("us, ");
+    }
+    return buf.append("ruleAttempts=").append(ruleAttemptCount)
+        .append(", ruleProductions=").append(ruleProductionCount)
+        .append(", rels=").append(relCount)
+        .append(", sets=").append(setCount)
+        .append(", subsets=").append(subsetCount)
+        .append(", rows=").append(rowCount)
+        .append('}')
+        .toString();
+  }
+
+  /** Phase of the preparation or execution of a statement. */
+  public enum Phase {
+    /** Parsing SQL into a parse tree. */
+    PARSE,
+    /** Validating the parse tree. */
+    VALIDATE,
+    /** Converting the parse tree to relational algebra, including
+     * decorrelation and field trimming. */
+    CONVERT,
+    /** Running the planner program. */
+    OPTIMIZE,
+    /** Generating and compiling code for the plan. */
+    IMPLEMENT,
+    /** Reading rows from the plan, excluding time spent by the consumer of
+     * the rows. */
+    EXECUTE
+  }
+}
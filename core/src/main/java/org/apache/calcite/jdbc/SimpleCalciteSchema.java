@@ -64,6 +64,7 @@ public CalciteSchema add(String name, Schema schema) {
     final CalciteSchema calciteSchema =
         new SimpleCalciteSchema(this, schema, name);
     subSchemaMap.put(name, calciteSchema);
+    changed();
     return calciteSchema;
   }
 
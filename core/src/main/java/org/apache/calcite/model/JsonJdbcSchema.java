@@ -16,6 +16,8 @@
  */
 package org.apache.calcite.model;
 
+import java.util.List;
+
 /**
  * JSON object representing a schema that maps to a JDBC database.
  *
@@ -69,6 +71,25 @@ public class JsonJdbcSchema extends JsonSchema {
    */
   public String jdbcSchema;
 
+  /** Number of rows to fetch from the database in each round trip.
+   *
+   * <p>Optional. If not specified, or 0, uses the driver's default.
+   */
+  public Integer fetchSize;
+
+  /** Whether to read query results in a background thread, one batch of
+   * {@link #fetchSize} rows ahead of the consumer.
+   *
+   * <p>Optional. Default false.
+   */
+  public Boolean prefetch;
+
+  /** Tables whose scans are split into range scans that run concurrently.
+   *
+   * <p>Optional. By default, each scan is a single query.
+   */
+  public List<JsonJdbcSplit> splits;
+
   @Override public void accept(ModelHandler handler) {
     handler.visit(this);
   }
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.model;
+
+/**
+ * How to split scans of a table in a JDBC schema into range scans that run
+ * concurrently.
+ *
+ * <p>Occurs within {@link JsonJdbcSchema#splits}.
+ *
+ * @see JsonRoot Description of schema elements
+ */
+public class JsonJdbcSplit {
+  /** Name of the table in the JDBC data source.
+   *
+   * <p>Required.
+   */
+  public String table;
+
+  /** Name of the column whose values are divided into ranges. It must have an
+   * integer, DATE or TIMESTAMP type.
+   *
+   * <p>Required.
+   */
+  public String column;
+
+  /** Number of ranges.
+   *
+   * <p>Optional. Default 4.
+   */
+  public Integer count;
+}
@@ -40,6 +40,7 @@
 import org.apache.calcite.schema.impl.TableMacroImpl;
 import org.apache.calcite.schema.impl.ViewTable;
 import org.apache.calcite.sql.SqlDialectFactory;
+import org.apache.calcite.sql.SqlDialectFactoryImpl;
 import org.apache.calcite.sql.type.SqlTypeName;
 import org.apache.calcite.util.Pair;
 import org.apache.calcite.util.Util;
@@ -333,18 +334,28 @@ public void visit(JsonJdbcSchema jsonSchema) {
             jsonSchema.jdbcDriver,
             jsonSchema.jdbcUser,
             jsonSchema.jdbcPassword);
-    final JdbcSchema schema;
+    final SqlDialectFactory factory;
     if (jsonSchema.sqlDialectFactory == null || jsonSchema.sqlDialectFactory.isEmpty()) {
-      schema =
-          JdbcSchema.create(parentSchema, jsonSchema.name, dataSource,
-              jsonSchema.jdbcCatalog, jsonSchema.jdbcSchema);
+      factory = SqlDialectFactoryImpl.INSTANCE;
     } else {
-      SqlDialectFactory factory = AvaticaUtils.instantiatePlugin(
+      factory = AvaticaUtils.instantiatePlugin(
           SqlDialectFactory.class, jsonSchema.sqlDialectFactory);
-      schema =
-          JdbcSchema.create(parentSchema, jsonSchema.name, dataSource,
-              factory, jsonSchema.jdbcCatalog, jsonSchema.jdbcSchema);
     }
+    final ImmutableMap.Builder<String, JdbcSchema.Split> splits =
+        ImmutableMap.builder();
+    if (jsonSchema.splits != null) {
+      for (JsonJdbcSplit jsonSplit : jsonSchema.splits) {
+        checkRequiredAttributes(jsonSplit, "table", "column");
+        splits.put(jsonSplit.table,
+            new JdbcSchema.Split(jsonSplit.column,
+                Util.first(jsonSplit.count, JdbcSchema.Split.DEFAULT_COUNT)));
+      }
+    }
+    final JdbcSchema schema =
+        JdbcSchema.create(parentSchema, jsonSchema.name, dataSource,
+            factory, jsonSchema.jdbcCatalog, jsonSchema.jdbcSchema,
+            jsonSchema.fetchSize == null ? 0 : jsonSchema.fetchSize,
+            Boolean.TRUE.equals(jsonSchema.prefetch), splits.build());
     final SchemaPlus schemaPlus = parentSchema.add(jsonSchema.name, schema);
     populateSchema(jsonSchema, schemaPlus);
   }
@@ -399,13 +399,13 @@ void propagateCostImprovements0(VolcanoPlanner planner, RelMetadataQuery mq,
 
         bestCost = cost;
         best = rel;
-        // since best was changed, cached metadata for this subset should be removed
+        // Since best was changed, cached metadata for this subset, and for
+        // parents and other rels whose metadata was derived from it, should
+        // be removed
         mq.clearCache(this);
 
         // Propagate cost change to parents
         for (RelNode parent : getParents()) {
-          // removes parent cached metadata since its input was changed
-          mq.clearCache(parent);
           final RelSubset parentSubset = planner.getSubset(parent);
 
           // parent subset will clear its cache in propagateCostImprovements0 method itself
@@ -18,6 +18,7 @@
 
 import org.apache.calcite.plan.RelOptRuleOperand;
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.convert.ConverterRule;
 import org.apache.calcite.rel.rules.SubstitutionRule;
 import org.apache.calcite.util.Util;
 import org.apache.calcite.util.trace.CalciteTrace;
@@ -143,7 +144,7 @@ void addMatch(VolcanoRuleMatch match) {
 
       LOGGER.trace("{} Rule-match queued: {}", matchList.phase.toString(), matchName);
 
-      matchList.offer(match);
+      matchList.offer(match, planner.hasPlanningBudget());
 
       matchList.matchMap.put(
           planner.getSubset(match.rels[0]), match);
@@ -211,6 +212,10 @@ private void dumpRuleQueue(PhaseMatchList phaseMatchList) {
         b.append("\n");
         b.append(rule);
       }
+      for (VolcanoRuleMatch rule : phaseMatchList.converterQueue) {
+        b.append("\n");
+        b.append(rule);
+      }
       for (VolcanoRuleMatch rule : phaseMatchList.queue) {
         b.append("\n");
         b.append(rule);
@@ -311,6 +316,12 @@ private static class PhaseMatchList {
      */
     private final Queue<VolcanoRuleMatch> preQueue = new LinkedList<>();
 
+    /**
+     * Rule match queue for ConverterRule, used only while the planner has a
+     * budget; fired after {@link #preQueue} and before {@link #queue}.
+     */
+    private final Queue<VolcanoRuleMatch> converterQueue = new LinkedList<>();
+
     /**
      * Current list of VolcanoRuleMatches for this phase. New rule-matches
      * are appended to the end of this queue.
@@ -335,20 +346,31 @@ private static class PhaseMatchList {
     }
 
     int size() {
-      return preQueue.size() + queue.size();
+      return preQueue.size() + converterQueue.size() + queue.size();
     }
 
     VolcanoRuleMatch poll() {
       VolcanoRuleMatch match = preQueue.poll();
+      if (match == null) {
+        match = converterQueue.poll();
+      }
       if (match == null) {
         match = queue.poll();
       }
       return match;
     }
 
-    void offer(VolcanoRuleMatch match) {
+    /** Adds a rule match.
+     *
+     * @param match Rule match
+     * @param convertersFirst Whether to fire matches of converter rules,
+     *                        which produce implementations, before matches
+     *                        of other rules */
+    void offer(VolcanoRuleMatch match, boolean convertersFirst) {
       if (match.getRule() instanceof SubstitutionRule) {
         preQueue.offer(match);
+      } else if (convertersFirst && match.getRule() instanceof ConverterRule) {
+        converterQueue.offer(match);
       } else {
         queue.offer(match);
       }
@@ -356,6 +378,7 @@ void offer(VolcanoRuleMatch match) {
 
     void clear() {
       preQueue.clear();
+      converterQueue.clear();
       queue.clear();
       names.clear();
       matchMap.clear();
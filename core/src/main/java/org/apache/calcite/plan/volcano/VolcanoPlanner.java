@@ -197,6 +197,25 @@ public class VolcanoPlanner extends AbstractRelOptPlanner {
    */
   boolean topDownOpt = CalciteSystemProperty.TOPDOWN_OPT.value();
 
+  /**
+   * Whether to match the operands of rules in parallel.
+   */
+  private boolean parallelRuleMatching =
+      CalciteSystemProperty.PARALLEL_RULE_MATCHING.value();
+
+  /**
+   * Time, in milliseconds since {@link #findBestExp()} started, after which
+   * it stops firing rules as soon as it has found a plan; 0 means no limit.
+   */
+  private long planningTimeLimitMillis;
+
+  /**
+   * Number of rule calls, counted since {@link #findBestExp()} started, after
+   * which it stops firing rules as soon as it has found a plan; 0 means no
+   * limit.
+   */
+  private long ruleCallLimit;
+
   //~ Constructors -----------------------------------------------------------
 
   /**
@@ -252,6 +271,56 @@ public void setTopDownOpt(boolean value) {
     topDownOpt = value;
   }
 
+  /**
+   * Enables or disables parallel rule matching.
+   *
+   * <p>When enabled, the rules whose first operand matches a newly
+   * registered relational expression search the memo for the rest of their
+   * operands in parallel, in the common
+   * {@link java.util.concurrent.ForkJoinPool}. The search only reads the
+   * memo, so operand predicates must be thread-safe. Each rule's
+   * {@link RelOptRule#matches(RelOptRuleCall) side-conditions}, which may
+   * use metadata, are then checked on the planner's thread, and matches are
+   * queued in the same order as in sequential mode; the plan is the same
+   * either way.
+   *
+   * <p>The default is the value of
+   * {@link CalciteSystemProperty#PARALLEL_RULE_MATCHING}.
+   *
+   * @param value Whether to match operands in parallel
+   */
+  public void setParallelRuleMatching(boolean value) {
+    parallelRuleMatching = value;
+  }
+
+  /**
+   * Sets a budget for {@link #findBestExp()}.
+   *
+   * <p>When the planner has been running for longer than
+   * {@code timeLimitMillis} or has fired more than {@code ruleCallLimit}
+   * rule calls, and it has found a plan of finite cost for the root, it
+   * stops firing rules and returns the cheapest plan found so far. If it has
+   * not yet found such a plan, it continues until it does.
+   *
+   * <p>While a budget is set, rule calls of converter rules, which produce
+   * implementations, are fired before other rule calls, so that a plan of
+   * finite cost is found early. The budget should therefore be set before
+   * {@link #setRoot(RelNode)}.
+   *
+   * @param timeLimitMillis Time limit in milliseconds, or 0 for no limit
+   * @param ruleCallLimit Maximum number of rule calls, or 0 for no limit
+   */
+  public void setPlanningBudget(long timeLimitMillis, long ruleCallLimit) {
+    this.planningTimeLimitMillis = Math.max(timeLimitMillis, 0);
+    this.ruleCallLimit = Math.max(ruleCallLimit, 0);
+  }
+
+  /** Returns whether a budget has been set by
+   * {@link #setPlanningBudget(long, long)}. */
+  boolean hasPlanningBudget() {
+    return planningTimeLimitMillis > 0 || ruleCallLimit > 0;
+  }
+
   // implement RelOptPlanner
   public boolean isRegistered(RelNode rel) {
     return mapRel2Subset.get(rel) != null;
@@ -357,6 +426,21 @@ public RelSet getSet(RelNode rel) {
     return null;
   }
 
+  /** Returns the number of equivalence sets in this planner. */
+  public int getSetCount() {
+    return allSets.size();
+  }
+
+  /** Returns the number of subsets, over all equivalence sets, in this
+   * planner. */
+  public int getSubsetCount() {
+    int count = 0;
+    for (RelSet set : allSets) {
+      count += set.subsets.size();
+    }
+    return count;
+  }
+
   @Override public boolean addRelTraitDef(RelTraitDef relTraitDef) {
     return !traitDefs.contains(relTraitDef) && traitDefs.add(relTraitDef);
   }
@@ -513,6 +597,8 @@ public RelNode findBestExp() {
     ensureRootConverters();
     registerMaterializations();
 
+    final long start = System.nanoTime();
+    long ruleCallCount = 0;
     PLANNING:
     for (VolcanoPlannerPhase phase : VolcanoPlannerPhase.values()) {
       while (true) {
@@ -536,6 +622,14 @@ public RelNode findBestExp() {
         // The root may have been merged with another
         // subset. Find the new root subset.
         root = canonize(root);
+
+        if (isBudgetExhausted(start, ++ruleCallCount)) {
+          LOGGER.debug("Planning budget exhausted after {} rule calls and {} ms;"
+                  + " returning plan of cost {}", ruleCallCount,
+              (System.nanoTime() - start) / 1_000_000, root.bestCost);
+          ruleQueue.phaseCompleted(phase);
+          break PLANNING;
+        }
       }
 
       ruleQueue.phaseCompleted(phase);
@@ -574,6 +668,19 @@ public RelNode findBestExp() {
     return cheapest;
   }
 
+  /** Returns whether the budget set by {@link #setPlanningBudget} has been
+   * used up and the root has a plan of finite cost. */
+  private boolean isBudgetExhausted(long start, long ruleCallCount) {
+    if (!hasPlanningBudget()) {
+      return false;
+    }
+    final boolean exhausted =
+        ruleCallLimit > 0 && ruleCallCount >= ruleCallLimit
+        || planningTimeLimitMillis > 0
+        && System.nanoTime() - start >= planningTimeLimitMillis * 1_000_000L;
+    return exhausted && !root.bestCost.isInfinite();
+  }
+
   @Override public void checkCancel() {
     if (cancelFlag.get()) {
       throw new VolcanoTimeoutException();
@@ -1042,15 +1149,39 @@ private RelSubset canonize(final RelSubset subset) {
    *                 from the queue)
    */
   void fireRules(RelNode rel) {
+    if (parallelRuleMatching) {
+      fireRulesInParallel(rel);
+      return;
+    }
     for (RelOptRuleOperand operand : classOperands.get(rel.getClass())) {
       if (operand.matches(rel)) {
         final VolcanoRuleCall ruleCall;
-        ruleCall = new DeferringRuleCall(this, operand);
+        ruleCall = new DeferringRuleCall(this, operand, false);
         ruleCall.match(rel);
       }
     }
   }
 
+  /**
+   * As {@link #fireRules(RelNode)}, but searches for the operands of each
+   * rule in a separate task; see {@link #setParallelRuleMatching(boolean)}.
+   */
+  private void fireRulesInParallel(RelNode rel) {
+    final List<DeferringRuleCall> ruleCalls = new ArrayList<>();
+    for (RelOptRuleOperand operand : classOperands.get(rel.getClass())) {
+      if (operand.matches(rel)) {
+        ruleCalls.add(new DeferringRuleCall(this, operand, true));
+      }
+    }
+    if (ruleCalls.size() > 1) {
+      ruleCalls.parallelStream().forEach(ruleCall -> ruleCall.match(rel));
+    } else {
+      ruleCalls.forEach(ruleCall -> ruleCall.match(rel));
+    }
+    // Check side-conditions and queue matches on this thread, in order.
+    ruleCalls.forEach(DeferringRuleCall::queueCandidates);
+  }
+
   private boolean fixUpInputs(RelNode rel) {
     List<RelNode> inputs = rel.getInputs();
     int i = -1;
@@ -1429,10 +1560,38 @@ public void setLocked(boolean locked) {
    * creates a {@link VolcanoRuleMatch} which can be invoked later.
    */
   private static class DeferringRuleCall extends VolcanoRuleCall {
+    /** If not null, operand matches are collected here rather than checked
+     * immediately, so that {@link #queueCandidates()} can check them later
+     * on the planner's thread. */
+    private final List<Pair<RelNode[], Map<RelNode, List<RelNode>>>> candidates;
+
     DeferringRuleCall(
         VolcanoPlanner planner,
-        RelOptRuleOperand operand) {
+        RelOptRuleOperand operand,
+        boolean deferSideConditions) {
       super(planner, operand);
+      this.candidates = deferSideConditions ? new ArrayList<>() : null;
+    }
+
+    @Override protected void onOperandsMatched() {
+      if (candidates == null) {
+        super.onOperandsMatched();
+      } else {
+        candidates.add(
+            Pair.of(rels.clone(),
+                nodeInputs.isEmpty() ? nodeInputs : new HashMap<>(nodeInputs)));
+      }
+    }
+
+    /** Checks the side-conditions of the collected operand matches, and
+     * queues those that pass. */
+    void queueCandidates() {
+      for (Pair<RelNode[], Map<RelNode, List<RelNode>>> candidate
+          : candidates) {
+        System.arraycopy(candidate.left, 0, rels, 0, rels.length);
+        nodeInputs = candidate.right;
+        super.onOperandsMatched();
+      }
     }
 
     /**
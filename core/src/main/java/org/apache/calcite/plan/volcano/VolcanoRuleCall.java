@@ -249,6 +249,17 @@ protected void onMatch() {
     }
   }
 
+  /**
+   * Called when every operand has matched a relational expression. Asks the
+   * rule whether it matches, which gives the rule chance to apply
+   * side-conditions, and if so, calls {@link #onMatch()}.
+   */
+  protected void onOperandsMatched() {
+    if (getRule().matches(this)) {
+      onMatch();
+    }
+  }
+
   /**
    * Applies this rule, with a given relational expression in the first slot.
    */
@@ -273,9 +284,7 @@ private void matchRecurse(int solve) {
       // We have matched all operands. Now ask the rule whether it
       // matches; this gives the rule chance to apply side-conditions.
       // If the side-conditions are satisfied, we have a match.
-      if (getRule().matches(this)) {
-        onMatch();
-      }
+      onOperandsMatched();
     } else {
       final int operandOrdinal = operand0.solveOrder[solve];
       final int previousOperandOrdinal = operand0.solveOrder[solve - 1];
@@ -33,6 +33,8 @@
 import org.apache.calcite.jdbc.CalcitePrepare;
 import org.apache.calcite.jdbc.CalciteSchema;
 import org.apache.calcite.jdbc.CalciteSchema.LatticeEntry;
+import org.apache.calcite.jdbc.QueryListener;
+import org.apache.calcite.jdbc.QueryMetrics;
 import org.apache.calcite.linq4j.Linq4j;
 import org.apache.calcite.linq4j.Ord;
 import org.apache.calcite.linq4j.Queryable;
@@ -52,6 +54,7 @@
 import org.apache.calcite.plan.Convention;
 import org.apache.calcite.plan.ConventionTraitDef;
 import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
 import org.apache.calcite.plan.RelOptCostFactory;
 import org.apache.calcite.plan.RelOptPlanner;
 import org.apache.calcite.plan.RelOptRule;
@@ -67,6 +70,7 @@
 import org.apache.calcite.rel.core.Project;
 import org.apache.calcite.rel.core.Sort;
 import org.apache.calcite.rel.core.TableScan;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeFactory;
 import org.apache.calcite.rel.type.RelDataTypeField;
@@ -123,6 +127,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static org.apache.calcite.util.Static.RESOURCE;
 
@@ -427,6 +432,8 @@ protected RelOptPlanner createPlanner(
     }
     final VolcanoPlanner planner =
         new VolcanoPlanner(costFactory, externalContext);
+    planner.setPlanningBudget(prepareContext.config().planningTimeLimit(),
+        prepareContext.config().planningRuleCallLimit());
     planner.addRelTraitDef(ConventionTraitDef.INSTANCE);
     if (CalciteSystemProperty.ENABLE_COLLATION_TRAIT.value()) {
       planner.addRelTraitDef(RelCollationTraitDef.INSTANCE);
@@ -586,6 +593,11 @@ <T> CalciteSignature<T> prepare2_(
         new CalcitePreparingStmt(this, context, catalogReader, typeFactory,
             context.getRootSchema(), prefer, createCluster(planner, new RexBuilder(typeFactory)),
             resultConvention, createConvertletTable());
+    final QueryMetrics metrics = preparingStmt.getMetrics();
+    final List<QueryListener> listeners = context.getQueryListeners();
+    if (!listeners.isEmpty()) {
+      planner.addListener(metrics.plannerListener());
+    }
 
     final RelDataType x;
     final Prepare.PreparedResult preparedResult;
@@ -605,6 +617,7 @@ <T> CalciteSignature<T> prepare2_(
       }
       SqlParser parser = createParser(query.sql,  parserConfig);
       SqlNode sqlNode;
+      final long start = System.nanoTime();
       try {
         sqlNode = parser.parseStmt();
         statementType = getStatementType(sqlNode.getKind());
@@ -612,6 +625,7 @@ <T> CalciteSignature<T> prepare2_(
         throw new RuntimeException(
             "parse failed: " + e.getMessage(), e);
       }
+      metrics.addNanos(QueryMetrics.Phase.PARSE, System.nanoTime() - start);
 
       Hook.PARSE_TREE.run(new Object[] {query.sql, sqlNode});
 
@@ -683,7 +697,7 @@ <T> CalciteSignature<T> prepare2_(
             : Meta.CursorFactory.deduce(columns, resultClazz);
     //noinspection unchecked
     final Bindable<T> bindable = preparedResult.getBindable(cursorFactory);
-    return new CalciteSignature<>(
+    final CalciteSignature<T> signature = new CalciteSignature<>(
         query.sql,
         parameters,
         preparingStmt.internalParameters,
@@ -697,6 +711,11 @@ <T> CalciteSignature<T> prepare2_(
         maxRowCount,
         bindable,
         statementType);
+    signature.setMetrics(metrics);
+    for (QueryListener listener : listeners) {
+      listener.prepared(query.sql, metrics);
+    }
+    return signature;
   }
 
   private SqlValidator createSqlValidator(Context context,
@@ -1086,6 +1105,7 @@ protected SqlValidator createSqlValidator(CatalogReader catalogReader) {
 
     @Override protected PreparedResult implement(RelRoot root) {
       Hook.PLAN_BEFORE_IMPLEMENTATION.run(root);
+      final long start = System.nanoTime();
       RelDataType resultType = root.rel.getRowType();
       boolean isDml = root.kind.belongsTo(SqlKind.DML);
       final Bindable bindable;
@@ -1104,14 +1124,23 @@ protected SqlValidator createSqlValidator(CatalogReader catalogReader) {
           enumerable = EnumerableCalc.create(enumerable, program);
         }
 
-        try {
-          CatalogReader.THREAD_LOCAL.set(catalogReader);
-          final SqlConformance conformance = context.config().conformance();
-          internalParameters.put("_conformance", conformance);
-          bindable = EnumerableInterpretable.toBindable(internalParameters,
-              context.spark(), enumerable, prefer);
-        } finally {
-          CatalogReader.THREAD_LOCAL.remove();
+        final int executionLimit = interpretExecutionLimit(enumerable);
+        if (executionLimit >= 0) {
+          final EnumerableRel rel = enumerable;
+          final boolean async = context.config().compileAsync();
+          final TieredBindable tieredBindable =
+              new TieredBindable(Interpreters.bindable(rel),
+                  parameters -> async
+                      ? compileAsync(rel, parameters)
+                      : CompletableFuture.completedFuture(
+                          compile(rel, parameters, EnumerableRel.Prefer.ARRAY)),
+                  rel.getRowType().getFieldCount(), executionLimit, async);
+          if (executionLimit == 0) {
+            tieredBindable.startCompile();
+          }
+          bindable = tieredBindable;
+        } else {
+          bindable = compile(enumerable, internalParameters, prefer);
         }
       }
 
@@ -1122,6 +1151,8 @@ protected SqlValidator createSqlValidator(CatalogReader catalogReader) {
       if (timingTracer != null) {
         timingTracer.traceTime("end compilation");
       }
+      metrics.addNanos(QueryMetrics.Phase.IMPLEMENT,
+          System.nanoTime() - start);
 
       return new PreparedResultImpl(
           resultType,
@@ -1147,6 +1178,61 @@ public Type getElementType() {
       };
     }
 
+    /** Returns the number of times to execute a plan in the interpreter
+     * before compiling it, or -1 to compile it now.
+     *
+     * <p>A plan that is estimated to process few rows is interpreted until it
+     * has been executed repeatedly. If compilation is asynchronous, any other
+     * plan that the interpreter can execute is interpreted until its compiled
+     * code is ready. The interpreter produces only arrays, so a statement that
+     * prefers another row format is always compiled. */
+    private int interpretExecutionLimit(EnumerableRel rel) {
+      final CalciteConnectionConfig config = context.config();
+      final int rowLimit = config.interpretRowLimit();
+      if (rowLimit <= 0 && !config.compileAsync()
+          || prefer != EnumerableRel.Prefer.ARRAY
+          || context.spark().enabled()
+          || !Interpreters.isInterpretable(rel)) {
+        return -1;
+      }
+      if (rowLimit > 0) {
+        final RelMetadataQuery mq = rel.getCluster().getMetadataQuery();
+        final RelOptCost cost = mq.getCumulativeCost(rel);
+        if (cost != null && cost.getRows() < rowLimit) {
+          return config.interpretExecutionLimit();
+        }
+      }
+      return config.compileAsync() ? 0 : -1;
+    }
+
+    /** Generates and compiles Java code for a plan. */
+    private Bindable compile(EnumerableRel rel, Map<String, Object> parameters,
+        EnumerableRel.Prefer prefer) {
+      try {
+        CatalogReader.THREAD_LOCAL.set(catalogReader);
+        final SqlConformance conformance = context.config().conformance();
+        parameters.put("_conformance", conformance);
+        return EnumerableInterpretable.toBindable(parameters,
+            context.spark(), rel, prefer);
+      } finally {
+        CatalogReader.THREAD_LOCAL.remove();
+      }
+    }
+
+    /** Generates Java code for a plan, and compiles it in the background. */
+    private CompletableFuture<Bindable> compileAsync(EnumerableRel rel,
+        Map<String, Object> parameters) {
+      try {
+        CatalogReader.THREAD_LOCAL.set(catalogReader);
+        final SqlConformance conformance = context.config().conformance();
+        parameters.put("_conformance", conformance);
+        return EnumerableInterpretable.toBindableAsync(parameters, rel,
+            EnumerableRel.Prefer.ARRAY);
+      } finally {
+        CatalogReader.THREAD_LOCAL.remove();
+      }
+    }
+
     @Override protected List<Materialization> getMaterializations() {
       final List<Prepare.Materialization> materializations =
           context.config().materializationsEnabled()
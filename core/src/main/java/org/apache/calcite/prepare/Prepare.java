@@ -22,6 +22,7 @@
 import org.apache.calcite.jdbc.CalcitePrepare;
 import org.apache.calcite.jdbc.CalciteSchema;
 import org.apache.calcite.jdbc.CalciteSchema.LatticeEntry;
+import org.apache.calcite.jdbc.QueryMetrics;
 import org.apache.calcite.plan.Convention;
 import org.apache.calcite.plan.RelOptLattice;
 import org.apache.calcite.plan.RelOptMaterialization;
@@ -30,6 +31,7 @@
 import org.apache.calcite.plan.RelOptTable;
 import org.apache.calcite.plan.RelOptUtil;
 import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.plan.volcano.VolcanoPlanner;
 import org.apache.calcite.rel.RelCollation;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.RelRoot;
@@ -90,6 +92,8 @@ public abstract class Prepare {
    */
   protected final Convention resultConvention;
   protected CalciteTimingTracer timingTracer;
+  /** Time spent in each phase of preparation, and planner counters. */
+  protected final QueryMetrics metrics = new QueryMetrics();
   protected List<List<String>> fieldOrigins;
   protected RelDataType parameterRowType;
 
@@ -163,8 +167,15 @@ protected RelRoot optimize(RelRoot root,
     final RelTraitSet desiredTraits = getDesiredRootTraitSet(root);
 
     final Program program = getProgram();
+    final long start = System.nanoTime();
     final RelNode rootRel4 = program.run(
         planner, root.rel, desiredTraits, materializationList, latticeList);
+    metrics.addNanos(QueryMetrics.Phase.OPTIMIZE, System.nanoTime() - start);
+    if (planner instanceof VolcanoPlanner) {
+      final VolcanoPlanner volcanoPlanner = (VolcanoPlanner) planner;
+      metrics.setSetCounts(volcanoPlanner.getSetCount(),
+          volcanoPlanner.getSubsetCount());
+    }
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("Plan after physical tweaks: {}",
           RelOptUtil.toString(rootRel4, SqlExplainLevel.ALL_ATTRIBUTES));
@@ -192,6 +203,12 @@ protected RelTraitSet getDesiredRootTraitSet(RelRoot root) {
         .simplify();
   }
 
+  /** Returns the time spent in each phase of preparation so far, and planner
+   * counters. */
+  public QueryMetrics getMetrics() {
+    return metrics;
+  }
+
   /**
    * Implements a physical query plan.
    *
@@ -238,8 +255,17 @@ public PreparedResult prepareSql(
           sqlExplain.getDynamicParamCount());
     }
 
+    // Validate separately from conversion, so that each can be timed
+    long start = System.nanoTime();
+    SqlNode validatedQuery = sqlQuery;
+    if (needsValidation) {
+      validatedQuery = validator.validate(sqlQuery);
+      final long end = System.nanoTime();
+      metrics.addNanos(QueryMetrics.Phase.VALIDATE, end - start);
+      start = end;
+    }
     RelRoot root =
-        sqlToRelConverter.convertQuery(sqlQuery, needsValidation, true);
+        sqlToRelConverter.convertQuery(validatedQuery, false, true);
     Hook.CONVERTED.run(root.rel);
 
     if (timingTracer != null) {
@@ -282,6 +308,7 @@ public PreparedResult prepareSql(
     root = trimUnusedFields(root);
 
     Hook.TRIMMED.run(root.rel);
+    metrics.addNanos(QueryMetrics.Phase.CONVERT, System.nanoTime() - start);
 
     // Display physical plan after decorrelation.
     if (sqlExplain != null) {
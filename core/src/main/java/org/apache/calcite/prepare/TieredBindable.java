@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.prepare;
+
+import org.apache.calcite.DataContext;
+import org.apache.calcite.adapter.java.JavaTypeFactory;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.QueryProvider;
+import org.apache.calcite.runtime.ArrayBindable;
+import org.apache.calcite.runtime.Bindable;
+import org.apache.calcite.runtime.Typed;
+import org.apache.calcite.schema.SchemaPlus;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Bindable that executes a plan in the interpreter until the plan has been
+ * executed a given number of times, and then compiles it.
+ *
+ * <p>For a query that reads few rows, generating and compiling Java code
+ * takes much longer than interpreting the plan; a statement that is executed
+ * repeatedly is worth compiling.
+ *
+ * <p>If compilation is asynchronous, executions continue to use the
+ * interpreter until the compiled code is ready, or for good if compilation
+ * fails.
+ *
+ * <p>Both tiers return rows in the format of
+ * {@link org.apache.calcite.adapter.enumerable.EnumerableRel.Prefer#ARRAY}:
+ * an {@code Object[]} per row, or the value itself if there is one field.
+ */
+class TieredBindable implements Bindable<Object>, Typed {
+  private final ArrayBindable interpreted;
+  private final Function<Map<String, Object>, CompletableFuture<Bindable>>
+      compiler;
+  private final int fieldCount;
+  private final int executionLimit;
+  private final boolean async;
+  private final AtomicInteger executionCount = new AtomicInteger();
+  private volatile CompletableFuture<Bindable> compilation;
+  private Map<String, Object> compiledParameters;
+
+  /** Creates a TieredBindable.
+   *
+   * @param interpreted Bindable that interprets the plan
+   * @param compiler Function that starts compiling the plan, putting the
+   *                 internal parameters of the generated code into a given
+   *                 map
+   * @param fieldCount Number of fields in each row
+   * @param executionLimit Number of executions before compiling
+   * @param async Whether the future returned by the compiler may not be
+   *              complete
+   */
+  TieredBindable(ArrayBindable interpreted,
+      Function<Map<String, Object>, CompletableFuture<Bindable>> compiler,
+      int fieldCount, int executionLimit, boolean async) {
+    this.interpreted = interpreted;
+    this.compiler = compiler;
+    this.fieldCount = fieldCount;
+    this.executionLimit = executionLimit;
+    this.async = async;
+  }
+
+  @SuppressWarnings("unchecked")
+  public Enumerable<Object> bind(DataContext dataContext) {
+    final Bindable bindable = compiled();
+    if (bindable != null) {
+      return bindable.bind(
+          new ParameterDataContext(dataContext, compiledParameters));
+    }
+    final Enumerable<Object[]> rows = interpreted.bind(dataContext);
+    if (fieldCount == 1) {
+      return rows.select(row -> row[0]);
+    }
+    return (Enumerable) rows;
+  }
+
+  public Type getElementType() {
+    return fieldCount == 1 ? Object.class : Object[].class;
+  }
+
+  /** Starts compiling the plan, if it has not been started already. */
+  synchronized CompletableFuture<Bindable> startCompile() {
+    if (compilation == null) {
+      final Map<String, Object> parameters = new HashMap<>();
+      final CompletableFuture<Bindable> future = compiler.apply(parameters);
+      compiledParameters = parameters;
+      compilation = future;
+    }
+    return compilation;
+  }
+
+  /** Returns the compiled plan, starting to compile it if this execution is
+   * over the limit, or null if the plan is to be interpreted. */
+  private Bindable compiled() {
+    CompletableFuture<Bindable> future = compilation;
+    if (future == null) {
+      if (executionCount.incrementAndGet() <= executionLimit) {
+        return null;
+      }
+      future = startCompile();
+    }
+    if (async && (!future.isDone() || future.isCompletedExceptionally())) {
+      return null;
+    }
+    return future.join();
+  }
+
+  /** Data context that adds the internal parameters of the compiled code to
+   * those of the statement. */
+  private static class ParameterDataContext implements DataContext {
+    private final DataContext dataContext;
+    private final Map<String, Object> parameters;
+
+    ParameterDataContext(DataContext dataContext,
+        Map<String, Object> parameters) {
+      this.dataContext = dataContext;
+      this.parameters = parameters;
+    }
+
+    public SchemaPlus getRootSchema() {
+      return dataContext.getRootSchema();
+    }
+
+    public JavaTypeFactory getTypeFactory() {
+      return dataContext.getTypeFactory();
+    }
+
+    public QueryProvider getQueryProvider() {
+      return dataContext.getQueryProvider();
+    }
+
+    public Object get(String name) {
+      final Object value = parameters.get(name);
+      return value != null ? value : dataContext.get(name);
+    }
+  }
+}
@@ -53,6 +53,7 @@
 import org.apache.calcite.util.ControlFlowException;
 import org.apache.calcite.util.Pair;
 import org.apache.calcite.util.Util;
+import org.apache.calcite.util.javac.BytecodeCache;
 
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
@@ -237,6 +238,19 @@ private static <M extends Metadata> MetadataHandler<M> load3(
         .append(def.metadataClass.getName())
         .append(".DEF;\n")
         .append("  }\n");
+    for (Ord<Method> method : Ord.zip(def.methods)) {
+      if (method.e.getParameterTypes().length == 0) {
+        buff.append("  private static final int ")
+            .append(method.e.getName())
+            .append("Id = ")
+            .append(RelMetadataCache.class.getName())
+            .append(".methodId(")
+            .append(def.metadataClass.getName())
+            .append(".DEF.methods.get(")
+            .append(method.i)
+            .append("));\n");
+      }
+    }
     for (Ord<Method> method : Ord.zip(def.methods)) {
       buff.append("  public ")
           .append(method.e.getReturnType().getName())
@@ -251,23 +265,32 @@ private static <M extends Metadata> MetadataHandler<M> load3(
           .append(" mq");
       paramList(buff, method.e)
           .append(") {\n");
-      buff.append("    final java.util.List key = ")
-          .append(
-              (method.e.getParameterTypes().length < 4
-              ? org.apache.calcite.runtime.FlatLists.class
-              : ImmutableList.class).getName())
-          .append(".of(")
-          .append(def.metadataClass.getName());
-      if (method.i == 0) {
-        buff.append(".DEF");
+      // A method without arguments is cached in a slot indexed by the
+      // method's id, so that the lookup does not allocate a key.
+      final String key;
+      if (method.e.getParameterTypes().length == 0) {
+        key = method.e.getName() + "Id";
       } else {
-        buff.append(".DEF.methods.get(")
-            .append(method.i)
-            .append(")");
+        key = "key";
+        buff.append("    final java.util.List key = ")
+            .append(
+                (method.e.getParameterTypes().length < 4
+                ? org.apache.calcite.runtime.FlatLists.class
+                : ImmutableList.class).getName())
+            .append(".of(")
+            .append(def.metadataClass.getName());
+        if (method.i == 0) {
+          buff.append(".DEF");
+        } else {
+          buff.append(".DEF.methods.get(")
+              .append(method.i)
+              .append(")");
+        }
+        safeArgList(buff, method.e)
+            .append(");\n");
       }
-      safeArgList(buff, method.e)
+      buff.append("    final Object v = mq.cache.get(r, ").append(key)
           .append(");\n")
-          .append("    final Object v = mq.map.get(r, key);\n")
           .append("    if (v != null) {\n")
           .append("      if (v == ")
           .append(NullSentinel.class.getName())
@@ -285,7 +308,7 @@ private static <M extends Metadata> MetadataHandler<M> load3(
           .append(method.e.getReturnType().getName())
           .append(") v;\n")
           .append("    }\n")
-          .append("    mq.map.put(r, key,")
+          .append("    mq.cache.put(r, ").append(key).append(", ")
           .append(NullSentinel.class.getName())
           .append(".ACTIVE);\n")
           .append("    try {\n")
@@ -296,14 +319,14 @@ private static <M extends Metadata> MetadataHandler<M> load3(
           .append("_(r, mq");
       argList(buff, method.e)
           .append(");\n")
-          .append("      mq.map.put(r, key, ")
+          .append("      mq.cache.put(r, ").append(key).append(", ")
           .append(NullSentinel.class.getName())
           .append(".mask(x));\n")
           .append("      return x;\n")
           .append("    } catch (")
           .append(Exception.class.getName())
           .append(" e) {\n")
-          .append("      mq.map.row(r).clear();\n")
+          .append("      mq.cache.clear(r);\n")
           .append("      throw e;\n")
           .append("    }\n")
           .append("  }\n")
@@ -449,12 +472,18 @@ static <M extends Metadata> MetadataHandler<M> compile(String className,
       System.out.println(s);
     }
 
-    compiler.cook(s);
     final Constructor constructor;
     final Object o;
     try {
-      constructor = compiler.getClassLoader().loadClass(className)
-              .getDeclaredConstructors()[0];
+      final Class<?> clazz;
+      if (BytecodeCache.isEnabled()) {
+        clazz = BytecodeCache.loadClass(className, s,
+            JaninoRexCompiler.class.getClassLoader());
+      } else {
+        compiler.cook(s);
+        clazz = compiler.getClassLoader().loadClass(className);
+      }
+      constructor = clazz.getDeclaredConstructors()[0];
       o = constructor.newInstance(argList.toArray());
     } catch (InstantiationException
         | IllegalAccessException
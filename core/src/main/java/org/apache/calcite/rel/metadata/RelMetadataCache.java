@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.rel.metadata;
+
+import org.apache.calcite.rel.RelNode;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cache of metadata values, used by the handlers that
+ * {@link JaninoRelMetadataProvider} generates.
+ *
+ * <p>Entries are found by the id of the relational expression, in a hash
+ * table with primitive {@code int} keys. A metadata method that has no
+ * arguments besides the relational expression, such as
+ * {@link RelMetadataQuery#getRowCount(RelNode)}, has a small integer id
+ * (see {@link #methodId(Method)}), and its value is held in an array slot, so
+ * that looking it up allocates nothing. Values of methods with arguments are
+ * held in a map keyed by a list of the method and its arguments.
+ *
+ * <p>Values are masked by {@link NullSentinel#mask}; {@code null} means
+ * that there is no value. Like {@link RelMetadataQuery}, this class is not
+ * thread-safe.
+ *
+ * <p>The cache tracks dependencies. While a value of relational expression
+ * R is being computed (between the {@link NullSentinel#ACTIVE} marker and
+ * the value being put), each lookup of another relational expression X
+ * records that R depends on X. {@link #invalidate(RelNode)} removes the
+ * values of X and, transitively, of the expressions that depend on it, and
+ * leaves other values alone.
+ */
+public final class RelMetadataCache {
+  private static final Map<Method, Integer> METHOD_IDS =
+      new ConcurrentHashMap<>();
+  private static final AtomicInteger NEXT_METHOD_ID = new AtomicInteger();
+
+  private static final Object[] EMPTY = {};
+  private static final int[] NO_IDS = {};
+
+  private Entry[] table = new Entry[64];
+  private int size;
+
+  /** Ids of the relational expressions whose values are being computed,
+   * innermost last. */
+  private int[] stack = new int[16];
+  private int depth;
+
+  /** Returns the id of a metadata method. Ids are small, dense and unique
+   * within the JVM. */
+  public static int methodId(Method method) {
+    return METHOD_IDS.computeIfAbsent(method,
+        m -> NEXT_METHOD_ID.getAndIncrement());
+  }
+
+  /** Returns the cached value of a method without arguments, or null. */
+  public Object get(RelNode rel, int methodId) {
+    final Entry entry = lookup(rel);
+    if (entry == null || methodId >= entry.values.length) {
+      return null;
+    }
+    return entry.values[methodId];
+  }
+
+  /** Caches the value of a method without arguments. */
+  public void put(RelNode rel, int methodId, Object value) {
+    final Entry entry = findOrCreate(rel);
+    if (methodId >= entry.values.length) {
+      entry.values = Arrays.copyOf(entry.values,
+          Math.max(methodId + 1, NEXT_METHOD_ID.get()));
+    }
+    entry.values[methodId] = value;
+    onPut(entry.id, value);
+  }
+
+  /** Returns the cached value of a method with arguments, or null. */
+  public Object get(RelNode rel, List key) {
+    final Entry entry = lookup(rel);
+    if (entry == null || entry.map == null) {
+      return null;
+    }
+    return entry.map.get(key);
+  }
+
+  /** Caches the value of a method with arguments. */
+  public void put(RelNode rel, List key, Object value) {
+    final Entry entry = findOrCreate(rel);
+    if (entry.map == null) {
+      entry.map = new HashMap<>();
+    }
+    entry.map.put(key, value);
+    onPut(entry.id, value);
+  }
+
+  /** Removes all cached values of a relational expression, but not of the
+   * expressions that depend on it. Called when computing a value fails.
+   *
+   * @return whether there were any cached values */
+  public boolean clear(RelNode rel) {
+    final int id = rel.getId();
+    for (int i = depth - 1; i >= 0; i--) {
+      if (stack[i] == id) {
+        depth = i;
+        break;
+      }
+    }
+    final Entry entry = find(id);
+    return entry != null && entry.clearValues();
+  }
+
+  /** Removes all cached values of a relational expression and,
+   * transitively, of the expressions whose values were computed from them.
+   * Must not be called while a value is being computed.
+   *
+   * @return whether the relational expression had any cached values */
+  public boolean invalidate(RelNode rel) {
+    final Entry entry = find(rel.getId());
+    if (entry == null) {
+      return false;
+    }
+    final boolean cleared = entry.clearValues();
+    final Deque<Entry> queue = new ArrayDeque<>();
+    queue.add(entry);
+    for (Entry e; (e = queue.poll()) != null;) {
+      for (int i = 0; i < e.dependentCount; i++) {
+        final Entry dependent = find(e.dependents[i]);
+        if (dependent != null) {
+          dependent.clearValues();
+          if (dependent.dependentCount > 0) {
+            queue.add(dependent);
+          }
+        }
+      }
+      e.dependentCount = 0;
+    }
+    return cleared;
+  }
+
+  /** Removes all cached values. */
+  public void clear() {
+    Arrays.fill(table, null);
+    size = 0;
+    depth = 0;
+  }
+
+  /** Finds the entry of a relational expression, and if a value is being
+   * computed, records that the value depends on it. */
+  private Entry lookup(RelNode rel) {
+    if (depth == 0) {
+      return find(rel.getId());
+    }
+    final Entry entry = findOrCreate(rel);
+    final int dependent = stack[depth - 1];
+    if (dependent != entry.id) {
+      entry.addDependent(dependent);
+    }
+    return entry;
+  }
+
+  /** Maintains the stack of values being computed. */
+  private void onPut(int id, Object value) {
+    if (value == NullSentinel.ACTIVE) {
+      if (depth == stack.length) {
+        stack = Arrays.copyOf(stack, depth * 2);
+      }
+      stack[depth++] = id;
+    } else if (depth > 0 && stack[depth - 1] == id) {
+      --depth;
+    }
+  }
+
+  private Entry find(int id) {
+    for (Entry e = table[index(id, table.length)]; e != null; e = e.next) {
+      if (e.id == id) {
+        return e;
+      }
+    }
+    return null;
+  }
+
+  private Entry findOrCreate(RelNode rel) {
+    Entry entry = find(rel.getId());
+    if (entry == null) {
+      if (size >= table.length * 3 / 4) {
+        resize();
+      }
+      final int i = index(rel.getId(), table.length);
+      entry = new Entry(rel.getId(), table[i]);
+      table[i] = entry;
+      ++size;
+    }
+    return entry;
+  }
+
+  private void resize() {
+    final Entry[] newTable = new Entry[table.length * 2];
+    for (Entry e : table) {
+      while (e != null) {
+        final Entry next = e.next;
+        final int i = index(e.id, newTable.length);
+        e.next = newTable[i];
+        newTable[i] = e;
+        e = next;
+      }
+    }
+    table = newTable;
+  }
+
+  private static int index(int id, int length) {
+    // Ids are assigned sequentially; spread them so that neighbors do not
+    // cluster.
+    final int h = id * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & (length - 1);
+  }
+
+  /** Cached values of one relational expression. */
+  private static class Entry {
+    final int id;
+    Entry next;
+    Object[] values = EMPTY;
+    Map<List, Object> map;
+    /** Ids of the relational expressions whose values were computed from
+     * this expression's values. */
+    int[] dependents = NO_IDS;
+    int dependentCount;
+
+    Entry(int id, Entry next) {
+      this.id = id;
+      this.next = next;
+    }
+
+    void addDependent(int dependent) {
+      for (int i = dependentCount - 1; i >= 0; i--) {
+        if (dependents[i] == dependent) {
+          return;
+        }
+      }
+      if (dependentCount == dependents.length) {
+        dependents = Arrays.copyOf(dependents, Math.max(4, dependentCount * 2));
+      }
+      dependents[dependentCount++] = dependent;
+    }
+
+    /** Removes the values; returns whether there were any. */
+    boolean clearValues() {
+      boolean cleared = map != null && !map.isEmpty();
+      map = null;
+      for (Object value : values) {
+        if (value != null) {
+          cleared = true;
+          break;
+        }
+      }
+      values = EMPTY;
+      return cleared;
+    }
+  }
+}
@@ -61,9 +61,14 @@
 public class RelMetadataQueryBase {
   //~ Instance fields --------------------------------------------------------
 
-  /** Set of active metadata queries, and cache of previous results. */
+  /** Set of active metadata queries, and cache of previous results, used by
+   * {@link ReflectiveRelMetadataProvider}. */
   public final Table<RelNode, List, Object> map = HashBasedTable.create();
 
+  /** Set of active metadata queries, and cache of previous results, used by
+   * the handlers that {@link JaninoRelMetadataProvider} generates. */
+  public final RelMetadataCache cache = new RelMetadataCache();
+
   public final JaninoRelMetadataProvider metadataProvider;
 
   //~ Static fields/initializers ---------------------------------------------
@@ -96,15 +101,17 @@ protected static <H> H initialHandler(Class<H> handlerClass) {
   }
 
   /**
-   * Removes cached metadata values for specified RelNode.
+   * Removes cached metadata values for specified RelNode, and for the
+   * RelNodes whose cached metadata values were computed from them.
    *
    * @param rel RelNode whose cached metadata should be removed
    * @return true if cache for the provided RelNode was not empty
    */
   public boolean clearCache(RelNode rel) {
+    final boolean cleared = cache.invalidate(rel);
     Map<List, Object> row = map.row(rel);
     if (row.isEmpty()) {
-      return false;
+      return cleared;
     }
 
     row.clear();
@@ -64,6 +64,10 @@ public enum Hook {
    * Janino. */
   JAVA_PLAN,
 
+  /** Called on a background thread, with the future that will hold the
+   * result, just before generated code is compiled asynchronously. */
+  ASYNC_COMPILE,
+
   /** Called with the output of sql-to-rel-converter. */
   CONVERTED,
 
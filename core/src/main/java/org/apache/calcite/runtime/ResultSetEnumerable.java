@@ -26,6 +26,7 @@
 import org.apache.calcite.linq4j.function.Function1;
 import org.apache.calcite.linq4j.tree.Primitive;
 import org.apache.calcite.util.Static;
+import org.apache.calcite.util.Util;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,6 +53,10 @@
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.sql.DataSource;
 
 /**
@@ -68,9 +73,18 @@
   private static final Logger LOGGER = LoggerFactory.getLogger(
       ResultSetEnumerable.class);
 
+  /** Number of rows in each batch read by a prefetching enumerator if the
+   * fetch size is not set. */
+  private static final int DEFAULT_PREFETCH_BATCH_SIZE = 100;
+
   private Long queryStart;
   private long timeout;
   private boolean timeoutSetFailed;
+  private int fetchSize;
+  private boolean prefetch;
+  /** Statement most recently created by {@link #enumerator()}. */
+  private volatile Statement statement;
+  private volatile boolean cancelled;
 
   private static final Function1<ResultSet, Function0<Object>> AUTO_ROW_BUILDER_FACTORY =
       resultSet -> {
@@ -180,6 +194,34 @@ public void setTimeout(DataContext context) {
     }
   }
 
+  /** Sets the number of rows to fetch from the database in each round trip;
+   * 0 means use the driver's default. */
+  public void setFetchSize(int fetchSize) {
+    this.fetchSize = fetchSize;
+  }
+
+  /** Sets whether to read rows in a background thread, one batch (of
+   * {@link #setFetchSize fetch size} rows) ahead of the consumer, so that
+   * waiting for the database overlaps with processing rows. */
+  public void setPrefetch(boolean prefetch) {
+    this.prefetch = prefetch;
+  }
+
+  /** Cancels the statement that an enumerator of this enumerable is
+   * executing or reading, so that a thread waiting for the database returns.
+   * An enumerator created after this call returns no rows. */
+  public void cancel() {
+    cancelled = true;
+    final Statement statement = this.statement;
+    if (statement != null) {
+      try {
+        statement.cancel();
+      } catch (SQLException e) {
+        // ignore; the statement may already be closed
+      }
+    }
+  }
+
   /** Called from generated code that proposes to create a
    * {@code ResultSetEnumerable} over a prepared statement. */
   public static PreparedStatementEnricher createEnricher(Integer[] indexes,
@@ -260,12 +302,17 @@ private Enumerator<T> enumeratorBasedOnStatement() {
     try {
       connection = dataSource.getConnection();
       statement = connection.createStatement();
+      this.statement = statement;
+      if (cancelled) {
+        return Linq4j.emptyEnumerator();
+      }
       setTimeoutIfPossible(statement);
+      setFetchSizeIfPossible(statement);
       if (statement.execute(sql)) {
         final ResultSet resultSet = statement.getResultSet();
         statement = null;
         connection = null;
-        return new ResultSetEnumerator<>(resultSet, rowBuilderFactory);
+        return enumerator(resultSet);
       } else {
         Integer updateCount = statement.getUpdateCount();
         return Linq4j.singletonEnumerator((T) updateCount);
@@ -284,13 +331,18 @@ private Enumerator<T> enumeratorBasedOnPreparedStatement() {
     try {
       connection = dataSource.getConnection();
       preparedStatement = connection.prepareStatement(sql);
+      this.statement = preparedStatement;
+      if (cancelled) {
+        return Linq4j.emptyEnumerator();
+      }
       setTimeoutIfPossible(preparedStatement);
+      setFetchSizeIfPossible(preparedStatement);
       preparedStatementEnricher.enrich(preparedStatement);
       if (preparedStatement.execute()) {
         final ResultSet resultSet = preparedStatement.getResultSet();
         preparedStatement = null;
         connection = null;
-        return new ResultSetEnumerator<>(resultSet, rowBuilderFactory);
+        return enumerator(resultSet);
       } else {
         Integer updateCount = preparedStatement.getUpdateCount();
         return Linq4j.singletonEnumerator((T) updateCount);
@@ -303,6 +355,30 @@ private Enumerator<T> enumeratorBasedOnPreparedStatement() {
     }
   }
 
+  /** Creates an enumerator over the rows of a result set, and takes
+   * ownership of the result set and its statement and connection. */
+  private Enumerator<T> enumerator(ResultSet resultSet) {
+    final ResultSetEnumerator<T> enumerator =
+        new ResultSetEnumerator<>(resultSet, rowBuilderFactory);
+    if (!prefetch) {
+      return enumerator;
+    }
+    return new PrefetchEnumerator<>(enumerator,
+        fetchSize > 0 ? fetchSize : DEFAULT_PREFETCH_BATCH_SIZE);
+  }
+
+  private void setFetchSizeIfPossible(Statement statement)
+      throws SQLException {
+    if (fetchSize == 0) {
+      return;
+    }
+    try {
+      statement.setFetchSize(fetchSize);
+    } catch (SQLFeatureNotSupportedException e) {
+      LOGGER.debug("Failed to set fetch size " + fetchSize, e);
+    }
+  }
+
   private void setTimeoutIfPossible(Statement statement) throws SQLException {
     if (timeout == 0) {
       return;
@@ -381,6 +457,22 @@ public void reset() {
       }
     }
 
+    /** Cancels the statement that is producing the result set, so that a
+     * thread blocked in {@link #moveNext()} returns. */
+    void cancel() {
+      final ResultSet savedResultSet = resultSet;
+      if (savedResultSet != null) {
+        try {
+          final Statement statement = savedResultSet.getStatement();
+          if (statement != null) {
+            statement.cancel();
+          }
+        } catch (SQLException e) {
+          // ignore
+        }
+      }
+    }
+
     public void close() {
       ResultSet savedResultSet = resultSet;
       if (savedResultSet != null) {
@@ -402,6 +494,129 @@ public void close() {
     }
   }
 
+  /** Implementation of {@link Enumerator} that reads rows from another
+   * enumerator in a background thread, and hands them over in batches.
+   *
+   * <p>At most two batches are waiting at any time, so the thread reads
+   * ahead while the consumer is busy with the current batch, without holding
+   * the whole result in memory.
+   *
+   * @param <T> element type */
+  private static class PrefetchEnumerator<T> implements Enumerator<T> {
+    private final ResultSetEnumerator<T> enumerator;
+    private final int batchSize;
+    private final BlockingQueue<List<T>> queue = new ArrayBlockingQueue<>(2);
+    /** Put into the queue after the last batch. */
+    private final List<T> end = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    private List<T> batch;
+    private int index;
+    private T current;
+    private boolean done;
+
+    PrefetchEnumerator(ResultSetEnumerator<T> enumerator, int batchSize) {
+      this.enumerator = enumerator;
+      this.batchSize = batchSize;
+      this.thread = new Thread(this::fetch, "calcite-jdbc-prefetch");
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    /** Body of the background thread. */
+    private void fetch() {
+      try {
+        List<T> rows = new ArrayList<>(batchSize);
+        while (!closed && enumerator.moveNext()) {
+          rows.add(enumerator.current());
+          if (rows.size() == batchSize) {
+            put(rows);
+            rows = new ArrayList<>(batchSize);
+          }
+        }
+        if (!rows.isEmpty()) {
+          put(rows);
+        }
+      } catch (Throwable e) {
+        failure.set(e);
+      }
+      put(end);
+    }
+
+    /** Puts a batch into the queue, waiting for space unless the enumerator
+     * is closed. */
+    private void put(List<T> rows) {
+      try {
+        while (!closed) {
+          if (queue.offer(rows, 100, TimeUnit.MILLISECONDS)) {
+            return;
+          }
+        }
+      } catch (InterruptedException e) {
+        // closed by the consumer
+      }
+    }
+
+    public T current() {
+      return current;
+    }
+
+    public boolean moveNext() {
+      for (;;) {
+        if (batch != null && index < batch.size()) {
+          current = batch.get(index++);
+          return true;
+        }
+        if (done) {
+          return false;
+        }
+        final List<T> next;
+        try {
+          next = queue.take();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException(e);
+        }
+        if (next == end) {
+          done = true;
+          batch = null;
+          final Throwable e = failure.get();
+          if (e != null) {
+            Util.throwIfUnchecked(e);
+            throw new RuntimeException(e);
+          }
+          return false;
+        }
+        batch = next;
+        index = 0;
+      }
+    }
+
+    public void reset() {
+      throw new UnsupportedOperationException();
+    }
+
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      queue.clear();
+      if (thread.isAlive()) {
+        // The thread may be waiting for the database; make it return
+        enumerator.cancel();
+      }
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      enumerator.close();
+    }
+  }
+
   private static Function1<ResultSet, Function0<Object>>
       primitiveRowBuilderFactory(final Primitive[] primitives) {
     return resultSet -> {
@@ -21,6 +21,7 @@
 import org.apache.calcite.avatica.util.DateTimeUtils;
 import org.apache.calcite.avatica.util.Spaces;
 import org.apache.calcite.avatica.util.TimeUnitRange;
+import org.apache.calcite.config.CalciteSystemProperty;
 import org.apache.calcite.interpreter.Row;
 import org.apache.calcite.linq4j.AbstractEnumerable;
 import org.apache.calcite.linq4j.CartesianProductEnumerator;
@@ -45,6 +46,10 @@
 
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
@@ -220,13 +225,24 @@ public static String regexpReplace(String s, String regex, String replacement,
     if (pos < 1 || pos > s.length()) {
       throw RESOURCE.invalidInputForRegexpReplace(Integer.toString(pos)).ex();
     }
+    return regexpReplace(s, regexpReplacePattern(regex, matchType),
+        replacement, pos, occurrence);
+  }
 
-    final int flags = makeRegexpFlags(matchType);
-    final Pattern pattern = Pattern.compile(regex, flags);
-
+  /** SQL {@code REGEXP_REPLACE} function with a compiled pattern. */
+  public static String regexpReplace(String s, Pattern pattern,
+      String replacement, int pos, int occurrence) {
+    if (pos < 1 || pos > s.length()) {
+      throw RESOURCE.invalidInputForRegexpReplace(Integer.toString(pos)).ex();
+    }
     return Unsafe.regexpReplace(s, pattern, replacement, pos, occurrence);
   }
 
+  /** Compiles the pattern of a {@code REGEXP_REPLACE} call. */
+  public static Pattern regexpReplacePattern(String regex, String matchType) {
+    return Pattern.compile(regex, makeRegexpFlags(matchType));
+  }
+
   private static int makeRegexpFlags(String stringFlags) {
     int flags = 0;
     if (stringFlags != null) {
@@ -583,29 +599,40 @@ public static ByteString overlay(ByteString s, ByteString r, int start,
 
   /** SQL {@code LIKE} function. */
   public static boolean like(String s, String pattern) {
-    final String regex = Like.sqlToRegexLike(pattern, null);
-    return Pattern.matches(regex, s);
+    return matches(s, likePattern(pattern, null));
   }
 
   /** SQL {@code LIKE} function with escape. */
   public static boolean like(String s, String pattern, String escape) {
-    final String regex = Like.sqlToRegexLike(pattern, escape);
-    return Pattern.matches(regex, s);
+    return matches(s, likePattern(pattern, escape));
   }
 
   /** SQL {@code SIMILAR} function. */
   public static boolean similar(String s, String pattern) {
-    final String regex = Like.sqlToRegexSimilar(pattern, null);
-    return Pattern.matches(regex, s);
+    return matches(s, similarPattern(pattern, null));
   }
 
   /** SQL {@code SIMILAR} function with escape. */
   public static boolean similar(String s, String pattern, String escape) {
-    final String regex = Like.sqlToRegexSimilar(pattern, escape);
-    return Pattern.matches(regex, s);
+    return matches(s, similarPattern(pattern, escape));
   }
 
   public static boolean posixRegex(String s, String regex, Boolean caseSensitive) {
+    return find(s, posixRegexPattern(regex, caseSensitive));
+  }
+
+  /** Compiles a {@code LIKE} pattern, with an optional escape. */
+  public static Pattern likePattern(String pattern, String escape) {
+    return Pattern.compile(Like.sqlToRegexLike(pattern, escape));
+  }
+
+  /** Compiles a {@code SIMILAR TO} pattern, with an optional escape. */
+  public static Pattern similarPattern(String pattern, String escape) {
+    return Pattern.compile(Like.sqlToRegexSimilar(pattern, escape));
+  }
+
+  /** Compiles a POSIX regular expression. */
+  public static Pattern posixRegexPattern(String regex, Boolean caseSensitive) {
     // Replace existing character classes with java equivalent ones
     String originalRegex = regex;
     String[] existingExpressions = Arrays.stream(POSIX_CHARACTER_CLASSES)
@@ -615,7 +642,101 @@ public static boolean posixRegex(String s, String regex, Boolean caseSensitive)
     }
 
     int flags = caseSensitive ? 0 : Pattern.CASE_INSENSITIVE;
-    return Pattern.compile(regex, flags).matcher(s).find();
+    return Pattern.compile(regex, flags);
+  }
+
+  /** Returns whether a compiled {@code LIKE} or {@code SIMILAR TO} pattern
+   * matches the whole of a string. */
+  public static boolean matches(String s, Pattern pattern) {
+    return pattern.matcher(s).matches();
+  }
+
+  /** Returns whether a compiled POSIX regular expression matches part of a
+   * string. */
+  public static boolean find(String s, Pattern pattern) {
+    return pattern.matcher(s).find();
+  }
+
+  /** Compiles patterns that are not literals, remembering those used
+   * recently.
+   *
+   * <p>Marked deterministic so that the code generator creates one instance
+   * per query, not once per row. Generated code may use the instance from
+   * several threads. */
+  public static class PatternCache {
+    private final LoadingCache<List<Object>, Pattern> cache =
+        CacheBuilder.newBuilder()
+            .maximumSize(CalciteSystemProperty.FUNCTION_LEVEL_CACHE_MAX_SIZE.value())
+            .build(CacheLoader.from(PatternCache::compile));
+
+    @Deterministic public PatternCache() {
+    }
+
+    private static Pattern compile(List<Object> key) {
+      final String pattern = (String) key.get(1);
+      switch ((Kind) key.get(0)) {
+      case LIKE:
+        return likePattern(pattern, (String) key.get(2));
+      case SIMILAR:
+        return similarPattern(pattern, (String) key.get(2));
+      case POSIX_CASE_SENSITIVE:
+        return posixRegexPattern(pattern, true);
+      case POSIX_CASE_INSENSITIVE:
+        return posixRegexPattern(pattern, false);
+      default:
+        return regexpReplacePattern(pattern, (String) key.get(2));
+      }
+    }
+
+    private Pattern get(Kind kind, String pattern, String extra) {
+      try {
+        return cache.getUnchecked(Arrays.asList(kind, pattern, extra));
+      } catch (UncheckedExecutionException e) {
+        Util.throwIfUnchecked(e.getCause());
+        throw e;
+      }
+    }
+
+    /** SQL {@code LIKE} function. */
+    public boolean like(String s, String pattern) {
+      return matches(s, get(Kind.LIKE, pattern, null));
+    }
+
+    /** SQL {@code LIKE} function with escape. */
+    public boolean like(String s, String pattern, String escape) {
+      return matches(s, get(Kind.LIKE, pattern, escape));
+    }
+
+    /** SQL {@code SIMILAR} function. */
+    public boolean similar(String s, String pattern) {
+      return matches(s, get(Kind.SIMILAR, pattern, null));
+    }
+
+    /** SQL {@code SIMILAR} function with escape. */
+    public boolean similar(String s, String pattern, String escape) {
+      return matches(s, get(Kind.SIMILAR, pattern, escape));
+    }
+
+    public boolean posixRegex(String s, String regex, Boolean caseSensitive) {
+      return find(s,
+          get(caseSensitive
+              ? Kind.POSIX_CASE_SENSITIVE
+              : Kind.POSIX_CASE_INSENSITIVE, regex, null));
+    }
+
+    /** SQL {@code REGEXP_REPLACE} function with 6 arguments. */
+    public String regexpReplace(String s, String regex, String replacement,
+        int pos, int occurrence, String matchType) {
+      return SqlFunctions.regexpReplace(s,
+          get(Kind.REGEXP_REPLACE, regex, matchType), replacement, pos,
+          occurrence);
+    }
+
+    /** Kind of pattern. */
+    private enum Kind {
+      LIKE, SIMILAR, POSIX_CASE_SENSITIVE, POSIX_CASE_INSENSITIVE,
+      REGEXP_REPLACE
+    }
   }
 
   // =
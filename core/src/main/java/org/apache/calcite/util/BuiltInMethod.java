@@ -26,6 +26,7 @@
 import org.apache.calcite.adapter.enumerable.SourceSorter;
 import org.apache.calcite.adapter.java.ReflectiveSchema;
 import org.apache.calcite.adapter.jdbc.JdbcSchema;
+import org.apache.calcite.adapter.jdbc.JdbcSplitEnumerable;
 import org.apache.calcite.avatica.util.DateTimeUtils;
 import org.apache.calcite.avatica.util.TimeUnitRange;
 import org.apache.calcite.interpreter.Context;
@@ -46,6 +47,7 @@
 import org.apache.calcite.linq4j.function.Function1;
 import org.apache.calcite.linq4j.function.Function2;
 import org.apache.calcite.linq4j.function.Functions;
+import org.apache.calcite.linq4j.function.LongFunction1;
 import org.apache.calcite.linq4j.function.Predicate1;
 import org.apache.calcite.linq4j.function.Predicate2;
 import org.apache.calcite.linq4j.tree.FunctionExpression;
@@ -162,6 +164,10 @@ public enum BuiltInMethod {
   ROW_AS_COPY(Row.class, "asCopy", Object[].class),
   RESULT_SET_ENUMERABLE_SET_TIMEOUT(ResultSetEnumerable.class, "setTimeout",
       DataContext.class),
+  RESULT_SET_ENUMERABLE_SET_FETCH_SIZE(ResultSetEnumerable.class,
+      "setFetchSize", int.class),
+  RESULT_SET_ENUMERABLE_SET_PREFETCH(ResultSetEnumerable.class, "setPrefetch",
+      boolean.class),
   RESULT_SET_ENUMERABLE_OF(ResultSetEnumerable.class, "of", DataSource.class,
       String.class, Function1.class),
   RESULT_SET_ENUMERABLE_OF_PREPARED(ResultSetEnumerable.class, "of",
@@ -169,10 +175,23 @@ public enum BuiltInMethod {
       ResultSetEnumerable.PreparedStatementEnricher.class),
   CREATE_ENRICHER(ResultSetEnumerable.class, "createEnricher", Integer[].class,
       DataContext.class),
+  JDBC_SPLIT_ENUMERABLE_OF(JdbcSplitEnumerable.class, "of", DataSource.class,
+      Function1.class, String.class, String.class, String.class, String.class,
+      String.class, JdbcSplitEnumerable.KeyType.class, int.class),
+  JDBC_SPLIT_ENUMERABLE_SET_TIMEOUT(JdbcSplitEnumerable.class, "setTimeout",
+      DataContext.class),
+  JDBC_SPLIT_ENUMERABLE_SET_FETCH_SIZE(JdbcSplitEnumerable.class,
+      "setFetchSize", int.class),
   HASH_JOIN(ExtendedEnumerable.class, "hashJoin", Enumerable.class,
       Function1.class,
       Function1.class, Function2.class, EqualityComparer.class,
       boolean.class, boolean.class, Predicate2.class),
+  LONG_KEY_HASH_JOIN(EnumerableDefaults.class, "longKeyHashJoin",
+      Enumerable.class, Enumerable.class, LongFunction1.class,
+      LongFunction1.class, Function2.class, boolean.class),
+  PARALLEL_HASH_JOIN(EnumerableDefaults.class, "parallelHashJoin",
+      Enumerable.class, Enumerable.class, Function1.class, Function1.class,
+      Function2.class, EqualityComparer.class, boolean.class, int.class),
   MATCH(Enumerables.class, "match", Enumerable.class, Function1.class,
       Matcher.class, Enumerables.Emitter.class, int.class, int.class),
   PATTERN_BUILDER(Utilities.class, "patternBuilder"),
@@ -218,10 +237,15 @@ public enum BuiltInMethod {
   GROUP_BY_MULTIPLE(EnumerableDefaults.class, "groupByMultiple",
       Enumerable.class, List.class, Function0.class, Function2.class,
       Function2.class),
+  GROUP_BY_RUNS(EnumerableDefaults.class, "groupByRuns", Enumerable.class,
+      Function1.class, Function1.class, Function0.class, Function2.class,
+      Function2.class),
   AGGREGATE(ExtendedEnumerable.class, "aggregate", Object.class,
       Function2.class, Function1.class),
   ORDER_BY(ExtendedEnumerable.class, "orderBy", Function1.class,
       Comparator.class),
+  ORDER_BY_SPILLING(EnumerableDefaults.class, "orderBy", Enumerable.class,
+      Function1.class, Comparator.class, int.class),
   UNION(ExtendedEnumerable.class, "union", Enumerable.class),
   CONCAT(ExtendedEnumerable.class, "concat", Enumerable.class),
   REPEAT_UNION(EnumerableDefaults.class, "repeatUnion", Enumerable.class,
@@ -0,0 +1,388 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.util.javac;
+
+import org.apache.calcite.config.CalciteSystemProperty;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+import org.codehaus.janino.JavaSourceClassLoader;
+import org.codehaus.janino.util.ClassFile;
+import org.codehaus.janino.util.resource.MapResourceFinder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Cache, on disk, of the bytecode of classes compiled by
+ * <a href="http://www.janino.net">Janino</a>.
+ *
+ * <p>The cache is enabled by setting
+ * {@link CalciteSystemProperty#BYTECODE_CACHE_DIRECTORY}. Each compilation
+ * unit is stored as a jar file whose name is a hash of the source code and
+ * of the class path, so a JVM that generates the same code as a previous JVM,
+ * with the same classes available, loads the classes rather than compiling
+ * them again.
+ *
+ * <p>The cache is best-effort: if a file cannot be read or written, or its
+ * classes cannot be linked, the source is compiled as if the cache were
+ * disabled. When the total size of the files exceeds
+ * {@link CalciteSystemProperty#BYTECODE_CACHE_MAX_SIZE}, the least recently
+ * used files are deleted.
+ */
+public final class BytecodeCache {
+  private static final String SUFFIX = ".jar";
+
+  private static final BytecodeCache INSTANCE = create();
+
+  /** Fingerprints of the URLs of class loaders that generated code has been
+   * compiled against. */
+  private static final Map<ClassLoader, String> LOADER_FINGERPRINTS =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  private final File directory;
+  private final long maxSize;
+
+  /** Fingerprint of the class path of the JVM; see
+   * {@link #fingerprint(List)}. */
+  private final String classPathFingerprint;
+
+  /** Estimated total size of the files in the directory, or -1 if the
+   * directory has not been listed yet. The estimate includes files written
+   * by this JVM since the directory was last listed, but not files written
+   * by other JVMs. */
+  private final AtomicLong size = new AtomicLong(-1);
+
+  BytecodeCache(File directory, long maxSize) {
+    this.directory = Objects.requireNonNull(directory, "directory");
+    this.maxSize = maxSize;
+    this.classPathFingerprint =
+        fingerprint(
+            Arrays.asList(
+                System.getProperty("java.class.path", "")
+                    .split(File.pathSeparator)));
+  }
+
+  private static BytecodeCache create() {
+    final String path = CalciteSystemProperty.BYTECODE_CACHE_DIRECTORY.value();
+    if (path == null || path.isEmpty()) {
+      return null;
+    }
+    final File directory = new File(path);
+    //noinspection ResultOfMethodCallIgnored
+    directory.mkdirs();
+    if (!directory.isDirectory()) {
+      return null;
+    }
+    return new BytecodeCache(directory,
+        CalciteSystemProperty.BYTECODE_CACHE_MAX_SIZE.value());
+  }
+
+  /** Returns whether the cache is enabled. */
+  public static boolean isEnabled() {
+    return INSTANCE != null;
+  }
+
+  /** Returns the class that results from compiling a compilation unit,
+   * reading its bytecode from the cache if possible.
+   *
+   * <p>Each call returns a class in a new class loader, so static fields of
+   * the class are never shared between calls.
+   *
+   * @param className Name of the class to load
+   * @param source Source code of the compilation unit that declares the class
+   * @param parentClassLoader Class loader for classes that the source
+   *                          references
+   */
+  public static Class<?> loadClass(String className, String source,
+      ClassLoader parentClassLoader) throws ClassNotFoundException {
+    if (INSTANCE == null) {
+      throw new IllegalStateException("bytecode cache is not enabled");
+    }
+    return INSTANCE.load(className, source, parentClassLoader);
+  }
+
+  /** Loads a class from this cache; see
+   * {@link #loadClass(String, String, ClassLoader)}. */
+  Class<?> load(String className, String source,
+      ClassLoader parentClassLoader) throws ClassNotFoundException {
+    final boolean debug = CalciteSystemProperty.DEBUG.value();
+    final File file =
+        new File(directory,
+            key(className, source, parentClassLoader, debug) + SUFFIX);
+    final Map<String, byte[]> cached = read(file);
+    if (cached != null) {
+      try {
+        return link(className, cached, parentClassLoader);
+      } catch (LinkageError | ClassNotFoundException e) {
+        // Corrupt, or compiled against classes that have changed in a way
+        // that the key did not catch; compile again
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+      }
+    }
+    final Map<String, byte[]> classes =
+        compile(className, source, parentClassLoader, debug);
+    final long length = write(file, classes);
+    if (length >= 0) {
+      added(length);
+    }
+    return link(className, classes, parentClassLoader);
+  }
+
+  /** Defines the classes of a compilation unit in a new class loader, and
+   * initializes the requested class, so that a class that is corrupt or
+   * refers to a class that does not exist fails while it can still be
+   * compiled again. */
+  private static Class<?> link(String className, Map<String, byte[]> classes,
+      ClassLoader parentClassLoader) throws ClassNotFoundException {
+    final ClassLoader classLoader =
+        new BytecodeClassLoader(parentClassLoader, classes);
+    for (String name : classes.keySet()) {
+      classLoader.loadClass(name);
+    }
+    return Class.forName(className, true, classLoader);
+  }
+
+  /** Computes the name of the file that holds a compilation unit.
+   *
+   * <p>Classes compiled against a different version of Calcite, or against
+   * different user classes, may refer to methods that no longer exist, so
+   * the key includes a fingerprint of the class path and of the class loader
+   * that the code references. */
+  private String key(String className, String source,
+      ClassLoader parentClassLoader, boolean debug) {
+    final String version =
+        BytecodeCache.class.getPackage().getImplementationVersion();
+    return Hashing.sha256()
+        .hashString(version + "\n" + classPathFingerprint
+                + "\n" + fingerprint(parentClassLoader)
+                + "\n" + debug + "\n" + className + "\n" + source,
+            StandardCharsets.UTF_8)
+        .toString();
+  }
+
+  /** Returns a fingerprint of the URLs of a class loader and its ancestors,
+   * or an empty string if they have none (for example, if they load only
+   * classes of the class path). */
+  private static String fingerprint(ClassLoader classLoader) {
+    if (classLoader == null) {
+      return "";
+    }
+    return LOADER_FINGERPRINTS.computeIfAbsent(classLoader, loader -> {
+      final List<String> paths = new ArrayList<>();
+      for (ClassLoader c = loader; c != null; c = c.getParent()) {
+        if (c instanceof URLClassLoader) {
+          for (URL url : ((URLClassLoader) c).getURLs()) {
+            paths.add(
+                "file".equals(url.getProtocol()) ? url.getPath() : url.toString());
+          }
+        }
+      }
+      return paths.isEmpty() ? "" : fingerprint(paths);
+    });
+  }
+
+  /** Returns a fingerprint of a list of class path entries: the name, size
+   * and modification time of each file, and of each file under each
+   * directory. */
+  private static String fingerprint(List<String> paths) {
+    final StringBuilder buf = new StringBuilder();
+    for (String path : paths) {
+      if (path.isEmpty()) {
+        continue;
+      }
+      final File file = new File(path);
+      buf.append(path).append('\n');
+      if (file.isFile()) {
+        buf.append(file.length()).append(' ').append(file.lastModified())
+            .append('\n');
+      } else if (file.isDirectory()) {
+        try (Stream<Path> stream = Files.walk(file.toPath())) {
+          stream.filter(Files::isRegularFile)
+              .sorted()
+              .forEach(p -> {
+                final File f = p.toFile();
+                buf.append(p).append(' ').append(f.length()).append(' ')
+                    .append(f.lastModified()).append('\n');
+              });
+        } catch (IOException | UncheckedIOException e) {
+          // Can't tell whether the directory has changed; make sure that
+          // nothing is shared with another JVM
+          buf.append(System.nanoTime()).append('\n');
+        }
+      }
+    }
+    return Hashing.sha256().hashString(buf, StandardCharsets.UTF_8).toString();
+  }
+
+  private static Map<String, byte[]> compile(String className, String source,
+      ClassLoader parentClassLoader, boolean debug)
+      throws ClassNotFoundException {
+    final Map<String, byte[]> sourceMap = new HashMap<>();
+    sourceMap.put(ClassFile.getSourceResourceName(className),
+        source.getBytes(StandardCharsets.UTF_8));
+    final JavaSourceClassLoader compiler =
+        new JavaSourceClassLoader(parentClassLoader,
+            new MapResourceFinder(sourceMap), null);
+    if (debug) {
+      // Add line numbers to the generated janino class
+      compiler.setDebuggingInfo(true, true, true);
+    }
+    final Map<String, byte[]> classes = compiler.generateBytecodes(className);
+    if (classes == null) {
+      throw new ClassNotFoundException(className);
+    }
+    return classes;
+  }
+
+  /** Reads the classes in a cache file, or returns null if the file does not
+   * exist or cannot be read. */
+  private static Map<String, byte[]> read(File file) {
+    if (!file.isFile()) {
+      return null;
+    }
+    final Map<String, byte[]> classes = new HashMap<>();
+    try (ZipInputStream in =
+             new ZipInputStream(Files.newInputStream(file.toPath()))) {
+      ZipEntry entry;
+      while ((entry = in.getNextEntry()) != null) {
+        classes.put(entry.getName(), ByteStreams.toByteArray(in));
+      }
+    } catch (IOException e) {
+      // Probably deleted by another JVM; compile instead
+      return null;
+    }
+    // Record the use, so that eviction deletes least recently used files
+    //noinspection ResultOfMethodCallIgnored
+    file.setLastModified(System.currentTimeMillis());
+    return classes.isEmpty() ? null : classes;
+  }
+
+  /** Writes classes to a cache file, and returns its size, or -1 if it could
+   * not be written. Writes to a temporary file first, so that other JVMs
+   * never read a partially written file. */
+  private long write(File file, Map<String, byte[]> classes) {
+    Path tmp = null;
+    try {
+      tmp = Files.createTempFile(directory.toPath(), "tmp", ".part");
+      try (OutputStream out = Files.newOutputStream(tmp);
+           ZipOutputStream zip = new ZipOutputStream(out)) {
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+          zip.putNextEntry(new ZipEntry(entry.getKey()));
+          zip.write(entry.getValue());
+          zip.closeEntry();
+        }
+      }
+      final long length = Files.size(tmp);
+      try {
+        Files.move(tmp, file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+      tmp = null;
+      return length;
+    } catch (IOException e) {
+      // The cache is best-effort; the classes have been compiled anyway
+      return -1;
+    } finally {
+      if (tmp != null) {
+        //noinspection ResultOfMethodCallIgnored
+        tmp.toFile().delete();
+      }
+    }
+  }
+
+  /** Records that a file has been added to the cache, and evicts files if
+   * the estimated size of the cache exceeds its limit. Lists the directory
+   * only the first time, and when the limit is exceeded. */
+  private void added(long length) {
+    if (size.get() < 0 || size.addAndGet(length) > maxSize) {
+      evict();
+    }
+  }
+
+  /** Deletes least recently used files until the total size of the cache is
+   * within its limit. */
+  void evict() {
+    final File[] files =
+        directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+    if (files == null) {
+      return;
+    }
+    long total = 0;
+    for (File f : files) {
+      total += f.length();
+    }
+    if (total > maxSize) {
+      Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+      for (File f : files) {
+        if (total <= maxSize) {
+          break;
+        }
+        final long length = f.length();
+        if (f.delete()) {
+          total -= length;
+        }
+      }
+    }
+    size.set(total);
+  }
+
+  /** Class loader that defines classes from bytecode held in memory. */
+  private static class BytecodeClassLoader extends ClassLoader {
+    private final Map<String, byte[]> classes;
+
+    BytecodeClassLoader(ClassLoader parent, Map<String, byte[]> classes) {
+      super(parent);
+      this.classes = classes;
+    }
+
+    @Override protected Class<?> findClass(String name)
+        throws ClassNotFoundException {
+      final byte[] bytes = classes.get(name);
+      if (bytes == null) {
+        throw new ClassNotFoundException(name);
+      }
+      return defineClass(name, bytes, 0, bytes.length);
+    }
+  }
+}
@@ -18,14 +18,19 @@
 
 import org.apache.calcite.jdbc.JavaTypeFactoryImpl;
 import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
 import org.apache.calcite.linq4j.Linq4j;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeImpl;
 import org.apache.calcite.rel.type.RelDataTypeSystem;
 
+import com.google.common.collect.ImmutableList;
+
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -353,6 +358,82 @@ class ArrayTableTest {
         "Column(representation=ObjectArray(ordinal=2), value=[Bill, Sebastian, Theodore, Eric])");
   }
 
+  /** Tests that the enumerator over a multi-column table, which decodes
+   * rows a batch at a time, returns every row when the row count is not a
+   * multiple of the batch size. */
+  @Test void testArrayEnumeratorBatches() {
+    final JavaTypeFactoryImpl typeFactory =
+        new JavaTypeFactoryImpl(RelDataTypeSystem.DEFAULT);
+    final RelDataType rowType =
+        typeFactory.builder()
+            .add("id", typeFactory.createType(int.class))
+            .add("k", typeFactory.createType(long.class))
+            .add("name", typeFactory.createType(String.class))
+            .build();
+    final int n = 2500;
+    final List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      rows.add(new Object[]{i, i * 1_000_000_007L, "name" + (i % 7)});
+    }
+    final ColumnLoader<Object[]> loader =
+        new ColumnLoader<>(typeFactory, Linq4j.asEnumerable(rows),
+            RelDataTypeImpl.proto(rowType), null);
+    final ArrayTable.Content content =
+        new ArrayTable.Content(loader.representationValues, loader.size(),
+            ImmutableList.of());
+    final Enumerator<Object[]> enumerator = content.arrayEnumerator();
+    for (int pass = 0; pass < 2; pass++) {
+      int count = 0;
+      while (enumerator.moveNext()) {
+        final Object[] row = enumerator.current();
+        final int id = (Integer) row[0];
+        assertEquals(id * 1_000_000_007L, row[1]);
+        assertEquals("name" + (id % 7), row[2]);
+        ++count;
+      }
+      assertEquals(n, count);
+      enumerator.reset();
+    }
+  }
+
+  /** Tests that the enumerator decodes columns whose values are stored in
+   * an array narrower than their type: INT values in a byte[], and LONG
+   * values in an int[]. */
+  @Test void testArrayEnumeratorNarrowStorage() {
+    final JavaTypeFactoryImpl typeFactory =
+        new JavaTypeFactoryImpl(RelDataTypeSystem.DEFAULT);
+    final RelDataType rowType =
+        typeFactory.builder()
+            .add("small", typeFactory.createType(int.class))
+            .add("big", typeFactory.createType(long.class))
+            .build();
+    final int n = 201;
+    final List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      rows.add(new Object[]{i - 100, (i - 100) * 10_000_000L});
+    }
+    final ColumnLoader<Object[]> loader =
+        new ColumnLoader<>(typeFactory, Linq4j.asEnumerable(rows),
+            RelDataTypeImpl.proto(rowType), null);
+    assertEquals("PrimitiveArray(ordinal=0, primitive=BYTE, p=INT)",
+        loader.representationValues.get(0).representation.toString());
+    assertEquals("PrimitiveArray(ordinal=1, primitive=INT, p=LONG)",
+        loader.representationValues.get(1).representation.toString());
+    final ArrayTable.Content content =
+        new ArrayTable.Content(loader.representationValues, loader.size(),
+            ImmutableList.of());
+    final Enumerator<Object[]> enumerator = content.arrayEnumerator();
+    int count = 0;
+    while (enumerator.moveNext()) {
+      final Object[] row = enumerator.current();
+      final int small = (Integer) row[0];
+      assertTrue(small >= -100 && small <= 100);
+      assertEquals(small * 10_000_000L, row[1]);
+      ++count;
+    }
+    assertEquals(n, count);
+  }
+
   private void checkColumn(ArrayTable.Column x,
       ArrayTable.RepresentationType expectedRepresentationType,
       String expectedString) {
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.jdbc;
+
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexFieldCollation;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexWindowBounds;
+import org.apache.calcite.schema.SchemaPlus;
+import org.apache.calcite.sql.dialect.HsqldbSqlDialect;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.test.CalciteAssert;
+import org.apache.calcite.test.ConnectionSpec;
+import org.apache.calcite.tools.Frameworks;
+import org.apache.calcite.tools.RelBuilder;
+import org.apache.calcite.util.Util;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import javax.sql.DataSource;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit test for {@link JdbcToEnumerableConverter}.
+ */
+class JdbcToEnumerableConverterTest {
+  /** Tests that a projection containing a windowed aggregate prevents a
+   * split scan, because each range would number its rows separately.
+   *
+   * <p>Unlike {@code JdbcAdapterTest.testSplitScanOver}, runs against
+   * Hsqldb; Hsqldb does not support OVER, so the planner would never push
+   * the window into the database, and the test builds the
+   * {@link JdbcRules.JdbcProject} itself. */
+  @Test void testSplitScanOver() {
+    final ConnectionSpec cs =
+        CalciteAssert.DatabaseInstance.HSQLDB.scott;
+    final DataSource dataSource =
+        JdbcSchema.dataSource(cs.url, cs.driver, cs.username, cs.password);
+    final SchemaPlus rootSchema = Frameworks.createRootSchema(true);
+    final SchemaPlus scott = rootSchema.add("SCOTT",
+        new JdbcSchema(dataSource, HsqldbSqlDialect.DEFAULT,
+            JdbcConvention.of(HsqldbSqlDialect.DEFAULT, null, "SCOTT"),
+            cs.catalog, cs.schema, 0, false,
+            ImmutableMap.of("EMP", new JdbcSchema.Split("EMPNO", 3))));
+    final RelBuilder b = RelBuilder.create(
+        Frameworks.newConfigBuilder().defaultSchema(scott).build());
+
+    final RelNode scan = b.scan("EMP").build();
+    assertThat(scan, instanceOf(JdbcTableScan.class));
+
+    final RexBuilder rexBuilder = scan.getCluster().getRexBuilder();
+    final RelDataType intType =
+        rexBuilder.getTypeFactory().createSqlType(SqlTypeName.INTEGER);
+    final RexNode empno = rexBuilder.makeInputRef(scan, 0);
+    final RexNode rowNumber =
+        rexBuilder.makeOver(intType, SqlStdOperatorTable.ROW_NUMBER,
+            ImmutableList.of(), ImmutableList.of(),
+            ImmutableList.of(new RexFieldCollation(empno, ImmutableSet.of())),
+            RexWindowBounds.UNBOUNDED_PRECEDING, RexWindowBounds.CURRENT_ROW,
+            true, true, false, false, false);
+
+    assertThat(JdbcToEnumerableConverter.splitScan(scan),
+        sameInstance(scan));
+    assertThat(
+        JdbcToEnumerableConverter.splitScan(
+            project(scan, ImmutableList.of(empno), "EMPNO")),
+        sameInstance(scan));
+    assertThat(
+        JdbcToEnumerableConverter.splitScan(
+            project(scan, ImmutableList.of(empno, rowNumber), "EMPNO", "R")),
+        nullValue());
+  }
+
+  private static RelNode project(RelNode input, List<RexNode> projects,
+      String... names) {
+    final RelDataType rowType = input.getCluster().getTypeFactory()
+        .createStructType(
+            projects.stream().map(RexNode::getType)
+                .collect(Util.toImmutableList()),
+            ImmutableList.copyOf(names));
+    return new JdbcRules.JdbcProject(input.getCluster(), input.getTraitSet(),
+        input, projects, rowType);
+  }
+}
@@ -209,7 +209,18 @@ public void onMatch(RelOptRuleCall call) {
    * once per rel in a set or rel in a subset)
    */
   @Test void testSubsetRule() {
+    checkSubsetRule(false);
+  }
+
+  /** As {@link #testSubsetRule()}, but the planner matches rule operands in
+   * parallel, and should fire the same rules. */
+  @Test void testSubsetRuleParallelMatching() {
+    checkSubsetRule(true);
+  }
+
+  private void checkSubsetRule(boolean parallelRuleMatching) {
     VolcanoPlanner planner = new VolcanoPlanner();
+    planner.setParallelRuleMatching(parallelRuleMatching);
     planner.addRelTraitDef(ConventionTraitDef.INSTANCE);
     planner.addRelTraitDef(RelCollationTraitDef.INSTANCE);
 
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.prepare;
+
+import org.apache.calcite.DataContext;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Linq4j;
+import org.apache.calcite.runtime.ArrayBindable;
+import org.apache.calcite.runtime.Bindable;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit test for {@link TieredBindable}.
+ */
+class TieredBindableTest {
+  private static final ArrayBindable INTERPRETED = new ArrayBindable() {
+    public Enumerable<Object[]> bind(DataContext dataContext) {
+      return Linq4j.asEnumerable(
+          ImmutableList.of(new Object[] {"interpreted", 1}));
+    }
+
+    public Class<Object[]> getElementType() {
+      return Object[].class;
+    }
+  };
+
+  private static final Bindable<Object[]> COMPILED = dataContext ->
+      Linq4j.asEnumerable(ImmutableList.of(new Object[] {"compiled", 1}));
+
+  /** Returns which tier executed the plan. */
+  private static String tier(TieredBindable bindable) {
+    final Object[] row = (Object[]) bindable.bind(null).first();
+    return (String) row[0];
+  }
+
+  /** Tests that the plan is interpreted until it has been executed a given
+   * number of times, and then compiled, once. */
+  @Test void testExecutionLimit() {
+    final AtomicInteger compileCount = new AtomicInteger();
+    final TieredBindable bindable =
+        new TieredBindable(INTERPRETED, parameters -> {
+          compileCount.incrementAndGet();
+          return CompletableFuture.completedFuture(COMPILED);
+        }, 2, 2, false);
+    assertThat(tier(bindable), is("interpreted"));
+    assertThat(tier(bindable), is("interpreted"));
+    assertThat(compileCount.get(), is(0));
+    assertThat(tier(bindable), is("compiled"));
+    assertThat(tier(bindable), is("compiled"));
+    assertThat(compileCount.get(), is(1));
+  }
+
+  /** Tests that, if compilation is asynchronous, the plan is interpreted
+   * until the compiled code is ready, and then uses the compiled code. */
+  @Test void testAsync() {
+    final CompletableFuture<Bindable> future = new CompletableFuture<>();
+    final TieredBindable bindable =
+        new TieredBindable(INTERPRETED, parameters -> future, 2, 0, true);
+    bindable.startCompile();
+    assertThat(tier(bindable), is("interpreted"));
+    future.complete(COMPILED);
+    assertThat(tier(bindable), is("compiled"));
+  }
+
+  /** Tests that, if asynchronous compilation fails, the plan continues to be
+   * interpreted. */
+  @Test void testAsyncFailure() {
+    final CompletableFuture<Bindable> future = new CompletableFuture<>();
+    final TieredBindable bindable =
+        new TieredBindable(INTERPRETED, parameters -> future, 2, 0, true);
+    bindable.startCompile();
+    future.completeExceptionally(new IllegalStateException("cannot compile"));
+    assertThat(tier(bindable), is("interpreted"));
+    assertThat(tier(bindable), is("interpreted"));
+  }
+}
@@ -158,6 +158,20 @@ private void reset() {
     sql(sql).returnsRows("[b, 2]", "[c, 3]");
   }
 
+  /** Tests filter, project and aggregate over more rows than fit in one of
+   * the batches that nodes exchange. */
+  @Test void testInterpretSeveralBatches() throws Exception {
+    final String digits = "(values 0, 1, 2, 3, 4, 5, 6, 7, 8, 9)";
+    final String sql = "select count(*), sum(n)\n"
+        + "from (\n"
+        + "  select a.x * 100 + b.x * 10 + c.x as n\n"
+        + "  from " + digits + " as a(x),\n"
+        + "    " + digits + " as b(x),\n"
+        + "    " + digits + " as c(x))\n"
+        + "where n < 500";
+    sql(sql).returnsRows("[500, 124750]");
+  }
+
   /** Tests a plan where the sort field is projected away. */
   @Test void testInterpretOrder() throws Exception {
     final String sql = "select y\n"
@@ -16,22 +16,26 @@
  */
 package org.apache.calcite.test;
 
+import org.apache.calcite.adapter.jdbc.JdbcSchema;
 import org.apache.calcite.config.Lex;
 import org.apache.calcite.test.CalciteAssert.AssertThat;
 import org.apache.calcite.test.CalciteAssert.DatabaseInstance;
 import org.apache.calcite.util.TestUtil;
 
+import org.apache.commons.dbcp2.BasicDataSource;
 import org.hsqldb.jdbcDriver;
 import org.junit.jupiter.api.Test;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import javax.sql.DataSource;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
@@ -193,6 +197,75 @@ class JdbcAdapterTest {
             + "ORDER BY \"EMPNO\" NULLS LAST");
   }
 
+  /** Tests a JDBC schema that sets a fetch size and reads results in a
+   * background thread; with a fetch size of 2, the rows arrive in several
+   * batches. */
+  @Test void testFetchSizeAndPrefetch() {
+    final String model = JdbcTest.SCOTT_MODEL
+        .replace("type: 'jdbc',\n",
+            "type: 'jdbc',\n       fetchSize: 2,\n       prefetch: true,\n");
+    CalciteAssert.model(model)
+        .query("select ename\n"
+            + "from scott.emp\n"
+            + "where deptno = 20\n"
+            + "order by empno")
+        .planContains(".setFetchSize(2)")
+        .planContains(".setPrefetch(true)")
+        .returnsOrdered("ENAME=SMITH",
+            "ENAME=JONES",
+            "ENAME=SCOTT",
+            "ENAME=ADAMS",
+            "ENAME=FORD");
+  }
+
+  /** Tests a table whose scans are split into range scans on a key. A sorted
+   * query is not split, because the union of the ranges is not sorted. */
+  @Test void testSplitScan() {
+    final String model = JdbcTest.SCOTT_MODEL
+        .replace("type: 'jdbc',\n",
+            "type: 'jdbc',\n"
+                + "       splits: [ {table: 'EMP', column: 'EMPNO', count: 3} ],\n");
+    CalciteAssert.model(model)
+        .query("select empno, ename\n"
+            + "from scott.emp\n"
+            + "where deptno = 20")
+        .planContains("JdbcSplitEnumerable.of(")
+        .returnsUnordered("EMPNO=7369; ENAME=SMITH",
+            "EMPNO=7566; ENAME=JONES",
+            "EMPNO=7788; ENAME=SCOTT",
+            "EMPNO=7876; ENAME=ADAMS",
+            "EMPNO=7902; ENAME=FORD");
+    CalciteAssert.model(model)
+        .query("select count(*) as c from scott.emp")
+        .returns("C=14\n");
+    CalciteAssert.model(model)
+        .query("select ename from scott.emp where deptno = 10 order by empno")
+        .planContains("ResultSetEnumerable.of(")
+        .returnsOrdered("ENAME=CLARK", "ENAME=KING", "ENAME=MILLER");
+  }
+
+  /** Tests that a query with a windowed aggregate pushed down to the database
+   * is not split into range scans, because each range would number its rows
+   * separately.
+   *
+   * <p>Test runs only on Postgres; the default database, Hsqldb, does not
+   * support OVER, so Calcite computes the window above the split scan. */
+  @Test void testSplitScanOver() {
+    final String model = JdbcTest.SCOTT_MODEL
+        .replace("type: 'jdbc',\n",
+            "type: 'jdbc',\n"
+                + "       splits: [ {table: 'EMP', column: 'EMPNO', count: 3} ],\n");
+    CalciteAssert.model(model)
+        .enable(CalciteAssert.DB == DatabaseInstance.POSTGRESQL)
+        .query("select empno, row_number() over (order by empno) as r\n"
+            + "from scott.emp\n"
+            + "where deptno = 10")
+        .planContains("ResultSetEnumerable.of(")
+        .returnsUnordered("EMPNO=7782; R=1",
+            "EMPNO=7839; R=2",
+            "EMPNO=7934; R=3");
+  }
+
   /** Test case for
    * <a href="https://issues.apache.org/jira/browse/CALCITE-3751">[CALCITE-3751]
    * JDBC adapter wrongly pushes ORDER BY into sub-query</a>. */
@@ -980,6 +1053,32 @@ private LockWrapper exclusiveCleanDb(Connection c) throws SQLException {
         .planHasSql("SELECT \"EMPNO\", \"ENAME\"\nFROM \"SCOTT\".\"EMP\"\nWHERE \"EMPNO\" = ?");
   }
 
+  /** Tests that a data source created from a URL keeps prepared statements
+   * open for reuse, and that a query with a dynamic parameter can be executed
+   * repeatedly with different values. */
+  @Test void testPreparedStatementReuse() throws Exception {
+    final DataSource dataSource =
+        JdbcSchema.dataSource(JdbcTest.SCOTT.url, JdbcTest.SCOTT.driver,
+            JdbcTest.SCOTT.username, JdbcTest.SCOTT.password);
+    assertThat(((BasicDataSource) dataSource).isPoolPreparedStatements(),
+        is(true));
+    final String sql = "select ename from emp where empno = ?";
+    try (Connection connection =
+             CalciteAssert.model(JdbcTest.SCOTT_MODEL).connect();
+         PreparedStatement p = connection.prepareStatement(sql)) {
+      final int[] empnos = {7369, 7566, 7369, 7902};
+      final String[] enames = {"SMITH", "JONES", "SMITH", "FORD"};
+      for (int i = 0; i < empnos.length; i++) {
+        p.setInt(1, empnos[i]);
+        try (ResultSet resultSet = p.executeQuery()) {
+          assertThat(resultSet.next(), is(true));
+          assertThat(resultSet.getString(1), is(enames[i]));
+          assertFalse(resultSet.next());
+        }
+      }
+    }
+  }
+
   /** Acquires a lock, and releases it when closed. */
   static class LockWrapper implements AutoCloseable {
     private final Lock lock;
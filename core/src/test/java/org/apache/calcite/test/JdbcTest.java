@@ -40,6 +40,8 @@
 import org.apache.calcite.jdbc.CalcitePrepare;
 import org.apache.calcite.jdbc.CalciteSchema;
 import org.apache.calcite.jdbc.Driver;
+import org.apache.calcite.jdbc.QueryListener;
+import org.apache.calcite.jdbc.QueryMetrics;
 import org.apache.calcite.linq4j.Enumerator;
 import org.apache.calcite.linq4j.Linq4j;
 import org.apache.calcite.linq4j.Ord;
@@ -95,6 +97,7 @@
 import org.apache.calcite.util.TryThreadLocal;
 import org.apache.calcite.util.Util;
 
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.Multimap;
@@ -137,6 +140,9 @@
 import java.util.Properties;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -791,6 +797,264 @@ private void checkTableFunctionInModel(Class<?> clazz) {
     connection.close();
   }
 
+  /** Tests that a connection with a plan cache reuses the prepared plan of a
+   * repeated query, and prepares it again after the schema changes. */
+  @Test void testPlanCache() throws SQLException {
+    try (Connection connection = CalciteAssert.hr()
+        .with(Lex.JAVA)
+        .with(CalciteConnectionProperty.PLAN_CACHE_SIZE, 10)
+        .connect()) {
+      final CalciteConnection calciteConnection =
+          connection.unwrap(CalciteConnection.class);
+      final SchemaPlus rootSchema = calciteConnection.getRootSchema();
+      final String sql = "select count(*) from hr.emps";
+      for (int i = 0; i < 3; i++) {
+        checkCount(connection, sql, 4);
+      }
+      CacheStats stats = calciteConnection.getPlanCacheStats();
+      assertThat(stats.missCount(), is(1L));
+      assertThat(stats.hitCount(), is(2L));
+
+      // Adding a schema invalidates cached plans.
+      rootSchema.add("hr2", new ReflectiveSchema(new HrSchema()));
+      checkCount(connection, sql, 4);
+      stats = calciteConnection.getPlanCacheStats();
+      assertThat(stats.missCount(), is(2L));
+      assertThat(stats.hitCount(), is(2L));
+    }
+  }
+
+  /** Test case for {@link QueryListener}. */
+  @Test void testQueryListener() throws SQLException {
+    final List<String> events = new ArrayList<>();
+    final List<QueryMetrics> metricsList = new ArrayList<>();
+    final QueryListener listener = new QueryListener() {
+      public void prepared(String sql, QueryMetrics metrics) {
+        events.add("prepared: " + sql);
+        metricsList.add(metrics);
+      }
+
+      public void executed(String sql, QueryMetrics metrics) {
+        events.add("executed: " + sql);
+        metricsList.add(metrics);
+      }
+    };
+    try (Connection connection = CalciteAssert.hr().with(Lex.JAVA).connect()) {
+      final CalciteConnection calciteConnection =
+          connection.unwrap(CalciteConnection.class);
+      calciteConnection.addQueryListener(listener);
+      final String sql = "select * from hr.emps where deptno = 10";
+      try (Statement statement = connection.createStatement();
+           ResultSet resultSet = statement.executeQuery(sql)) {
+        int n = 0;
+        while (resultSet.next()) {
+          ++n;
+        }
+        assertThat(n, is(3));
+      }
+      assertThat(events,
+          is(Arrays.asList("prepared: " + sql, "executed: " + sql)));
+      final QueryMetrics prepared = metricsList.get(0);
+      assertTrue(prepared.getNanos(QueryMetrics.Phase.PARSE) > 0);
+      assertTrue(prepared.getNanos(QueryMetrics.Phase.VALIDATE) > 0);
+      assertTrue(prepared.getNanos(QueryMetrics.Phase.OPTIMIZE) > 0);
+      assertTrue(prepared.getNanos(QueryMetrics.Phase.IMPLEMENT) > 0);
+      assertTrue(prepared.getRuleAttemptCount() > 0);
+      assertTrue(prepared.getSetCount() > 0);
+      final QueryMetrics executed = metricsList.get(1);
+      assertThat(executed.getRowCount(), is(3L));
+      assertThat(executed.getNanos(QueryMetrics.Phase.PARSE),
+          is(prepared.getNanos(QueryMetrics.Phase.PARSE)));
+
+      // After the listener is removed, it is not notified
+      calciteConnection.removeQueryListener(listener);
+      checkCount(connection, "select count(*) from hr.emps", 4);
+      assertThat(events.size(), is(2));
+    }
+  }
+
+  /** Tests that a query still gets a plan, and the right answer, when the
+   * planner's budget allows only one rule call, and that the planner stops
+   * firing rules as soon as it has found a plan.
+   *
+   * @see CalciteConnectionProperty#PLANNING_RULE_CALL_LIMIT */
+  @Test void testPlanningRuleCallLimit() throws SQLException {
+    final String sql = "select count(*) from hr.emps as e\n"
+        + "join hr.depts as d on e.deptno = d.deptno\n"
+        + "where e.salary > 1000";
+    final long unlimited = countRuleAttempts(sql, 0);
+    final long limited = countRuleAttempts(sql, 1);
+    assertTrue(limited < unlimited,
+        () -> "limited " + limited + ", unlimited " + unlimited);
+  }
+
+  private static long countRuleAttempts(String sql, int ruleCallLimit)
+      throws SQLException {
+    final List<QueryMetrics> metricsList = new ArrayList<>();
+    try (Connection connection = CalciteAssert.hr()
+        .with(Lex.JAVA)
+        .with(CalciteConnectionProperty.PLANNING_RULE_CALL_LIMIT, ruleCallLimit)
+        .connect()) {
+      connection.unwrap(CalciteConnection.class).addQueryListener(new QueryListener() {
+        public void prepared(String s, QueryMetrics metrics) {
+          metricsList.add(metrics);
+        }
+
+        public void executed(String s, QueryMetrics metrics) {
+        }
+      });
+      checkCount(connection, sql, 3);
+    }
+    assertThat(metricsList.size(), is(1));
+    return metricsList.get(0).getRuleAttemptCount();
+  }
+
+  private static void checkCount(Connection connection, String sql,
+      int expected) throws SQLException {
+    try (Statement statement = connection.createStatement();
+         ResultSet resultSet = statement.executeQuery(sql)) {
+      assertTrue(resultSet.next());
+      assertThat(resultSet.getInt(1), is(expected));
+    }
+  }
+
+  /** Tests that a query that is estimated to read few rows is interpreted
+   * until it has been executed {@code interpretExecutionLimit} times, and is
+   * then compiled.
+   *
+   * @see CalciteConnectionProperty#INTERPRET_ROW_LIMIT */
+  @Test void testInterpretThenCompile() throws SQLException {
+    final List<String> javaPlans = new ArrayList<>();
+    try (Connection connection = CalciteAssert.hr()
+             .with(Lex.JAVA)
+             .with(CalciteConnectionProperty.INTERPRET_ROW_LIMIT, 1000)
+             .with(CalciteConnectionProperty.INTERPRET_EXECUTION_LIMIT, 2)
+             .connect();
+         Hook.Closeable ignored =
+             Hook.JAVA_PLAN.<String>addThread(javaPlans::add)) {
+      final String sql = "select name from hr.emps\n"
+          + "where deptno = 10 order by name";
+      try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        for (int i = 0; i < 3; i++) {
+          try (ResultSet resultSet = statement.executeQuery()) {
+            assertThat(CalciteAssert.toString(resultSet),
+                is("name=Bill\nname=Sebastian\nname=Theodore\n"));
+          }
+          assertThat(javaPlans.size(), is(i < 2 ? 0 : 1));
+        }
+      }
+    }
+  }
+
+  /** Tests that a query with an aggregate that the interpreter cannot
+   * evaluate, {@code MAX} of a string, is compiled at once even if it is
+   * estimated to read few rows.
+   *
+   * @see CalciteConnectionProperty#INTERPRET_ROW_LIMIT */
+  @Test void testInterpretRowLimitStringMinMax() throws SQLException {
+    final List<String> javaPlans = new ArrayList<>();
+    try (Connection connection = CalciteAssert.hr()
+             .with(Lex.JAVA)
+             .with(CalciteConnectionProperty.INTERPRET_ROW_LIMIT, 1000)
+             .connect();
+         Hook.Closeable ignored =
+             Hook.JAVA_PLAN.<String>addThread(javaPlans::add)) {
+      final String sql = "select min(name) as n1, max(name) as n2\n"
+          + "from hr.emps where deptno = 10";
+      try (Statement statement = connection.createStatement();
+           ResultSet resultSet = statement.executeQuery(sql)) {
+        assertThat(CalciteAssert.toString(resultSet),
+            is("n1=Bill; n2=Theodore\n"));
+      }
+      assertThat(javaPlans.size(), is(1));
+    }
+  }
+
+  /** Tests that the interpreter executes a FULL join whose left input is
+   * empty, returning each row of the right input once.
+   *
+   * @see CalciteConnectionProperty#INTERPRET_ROW_LIMIT */
+  @Test void testInterpretFullJoinEmptyLeft() {
+    final List<String> javaPlans = new ArrayList<>();
+    try (Hook.Closeable ignored =
+             Hook.JAVA_PLAN.<String>addThread(javaPlans::add)) {
+      CalciteAssert.hr()
+          .with(Lex.JAVA)
+          .with(CalciteConnectionProperty.INTERPRET_ROW_LIMIT, 1000)
+          .query("select e.empid, d.deptno\n"
+              + "from (select * from hr.emps where empid < 0) as e\n"
+              + "full join hr.depts as d on e.deptno = d.deptno")
+          .returnsUnordered("empid=null; deptno=10",
+              "empid=null; deptno=30",
+              "empid=null; deptno=40");
+    }
+    assertThat(javaPlans.size(), is(0));
+  }
+
+  /** Tests that a statement whose code is compiled in the background gives
+   * the right answer whether it is executed by the interpreter or by the
+   * compiled code, and that two statements with the same code share one
+   * compilation.
+   *
+   * @see CalciteConnectionProperty#COMPILE_ASYNC */
+  @Test void testCompileAsync() throws Exception {
+    final List<String> javaPlans = new ArrayList<>();
+    final List<CompletableFuture<?>> compilations =
+        Collections.synchronizedList(new ArrayList<>());
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final String sql = "select deptno, count(*) as c from hr.emps\n"
+        + "group by deptno order by deptno";
+    final String expected = "deptno=10; c=3\ndeptno=20; c=1\n";
+    try (Connection connection = CalciteAssert.hr()
+             .with(Lex.JAVA)
+             .with(CalciteConnectionProperty.COMPILE_ASYNC, true)
+             .connect();
+         Hook.Closeable ignored =
+             Hook.JAVA_PLAN.<String>addThread(javaPlans::add);
+         // Holds compilation until both statements have been prepared
+         Hook.Closeable ignored2 =
+             Hook.ASYNC_COMPILE.<CompletableFuture<?>>add(future -> {
+               compilations.add(future);
+               started.countDown();
+               try {
+                 release.await(1, TimeUnit.MINUTES);
+               } catch (InterruptedException e) {
+                 Thread.currentThread().interrupt();
+               }
+             })) {
+      try (PreparedStatement statement = connection.prepareStatement(sql);
+           PreparedStatement statement2 = connection.prepareStatement(sql)) {
+        // Code is generated while preparing, and compiled in the background
+        assertThat(javaPlans.size(), is(2));
+
+        // While the code is being compiled, statements are interpreted
+        for (PreparedStatement s : Arrays.asList(statement, statement2)) {
+          try (ResultSet resultSet = s.executeQuery()) {
+            assertThat(CalciteAssert.toString(resultSet), is(expected));
+          }
+        }
+
+        // The statements generated the same code, so there is one
+        // compilation
+        release.countDown();
+        assertTrue(started.await(1, TimeUnit.MINUTES));
+        assertThat(compilations.size(), is(1));
+        assertThat(compilations.get(0).get(1, TimeUnit.MINUTES),
+            notNullValue());
+        assertThat(compilations.get(0).isCompletedExceptionally(), is(false));
+
+        // Now that it is compiled, statements use the compiled code
+        for (PreparedStatement s : Arrays.asList(statement, statement2)) {
+          try (ResultSet resultSet = s.executeQuery()) {
+            assertThat(CalciteAssert.toString(resultSet), is(expected));
+          }
+        }
+        assertThat(compilations.size(), is(1));
+      }
+    }
+  }
+
   /** Test for {@link Driver#getPropertyInfo(String, Properties)}. */
   @Test void testConnectionProperties() throws ClassNotFoundException,
       SQLException {
@@ -2492,6 +2756,30 @@ private void checkNullableTimestamp(CalciteAssert.Config config) {
             "hire_date=1994-12-01; end_date=null; birth_date=1961-08-26\n");
   }
 
+  /** Tests that a literal {@code LIKE} pattern becomes a call to a String
+   * method or is compiled once, and that a pattern that is not a literal goes
+   * through a pattern cache. */
+  @Test void testLikePatterns() {
+    CalciteAssert.hr()
+        .query("select \"name\" from \"hr\".\"emps\"\n"
+            + "where \"name\" like 'B%' or \"name\" like '%dore'")
+        .planContains(".startsWith(\"B\")")
+        .planContains(".endsWith(\"dore\")")
+        .returnsUnordered("name=Bill", "name=Theodore");
+    CalciteAssert.hr()
+        .query("select \"name\" from \"hr\".\"emps\"\n"
+            + "where \"name\" like '_ric' or \"name\" similar to 'Seb%'")
+        .planContains("static final ")
+        .planContains("SqlFunctions.likePattern(\"_ric\"")
+        .planContains("SqlFunctions.similarPattern(\"Seb%\"")
+        .returnsUnordered("name=Eric", "name=Sebastian");
+    CalciteAssert.hr()
+        .query("select \"name\" from \"hr\".\"emps\"\n"
+            + "where \"name\" like substring(\"name\", 1, 1) || '%l'")
+        .planContains("PatternCache()")
+        .returnsUnordered("name=Bill");
+  }
+
   @Test void testReuseExpressionWhenNullChecking() {
     CalciteAssert.hr()
         .query(
@@ -75,6 +75,7 @@
 import org.apache.calcite.rel.metadata.RelMdCollation;
 import org.apache.calcite.rel.metadata.RelMdColumnUniqueness;
 import org.apache.calcite.rel.metadata.RelMdUtil;
+import org.apache.calcite.rel.metadata.RelMetadataCache;
 import org.apache.calcite.rel.metadata.RelMetadataProvider;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rel.rules.ProjectToCalcRule;
@@ -554,6 +555,48 @@ private void checkExchangeRowCount(RelNode rel, double expected, double expected
     checkRowCount(sql, DEPT_SIZE, 0D, Double.POSITIVE_INFINITY);
   }
 
+  /** Tests that metadata values are cached in {@link RelMetadataCache}, and
+   * that {@link RelMetadataQuery#clearCache(RelNode)} removes them. */
+  @Test void testMetadataCache() {
+    final RelNode rel = convertSql("select * from emp");
+    final RelMetadataQuery mq = rel.getCluster().getMetadataQuery();
+    final int rowCountId =
+        RelMetadataCache.methodId(BuiltInMetadata.RowCount.DEF.methods.get(0));
+    assertThat(mq.cache.get(rel, rowCountId), nullValue());
+    assertThat(mq.getRowCount(rel), is(EMP_SIZE));
+    assertThat(mq.cache.get(rel, rowCountId), is((Object) EMP_SIZE));
+    assertTrue(mq.clearCache(rel));
+    assertThat(mq.cache.get(rel, rowCountId), nullValue());
+    assertThat(mq.clearCache(rel), is(false));
+    assertThat(mq.getRowCount(rel), is(EMP_SIZE));
+  }
+
+  /** Tests that clearing the cached metadata of a relational expression
+   * also clears the cached metadata that was computed from it, and leaves
+   * other cached metadata alone. */
+  @Test void testMetadataCacheInvalidation() {
+    final RelNode union = convertSql("select empno from emp\n"
+        + "union all\n"
+        + "select deptno from dept");
+    final RelNode empProject = union.getInput(0);
+    final RelNode empScan = empProject.getInput(0);
+    final RelNode deptProject = union.getInput(1);
+    final RelMetadataQuery mq = union.getCluster().getMetadataQuery();
+    final int rowCountId =
+        RelMetadataCache.methodId(BuiltInMetadata.RowCount.DEF.methods.get(0));
+    assertThat(mq.getRowCount(union), is(EMP_SIZE + DEPT_SIZE));
+    assertThat(mq.cache.get(empScan, rowCountId), notNullValue());
+
+    // The row counts of the union and of the project above the scan of EMP
+    // were computed from the row count of the scan; that of DEPT was not
+    assertTrue(mq.clearCache(empScan));
+    assertThat(mq.cache.get(empScan, rowCountId), nullValue());
+    assertThat(mq.cache.get(empProject, rowCountId), nullValue());
+    assertThat(mq.cache.get(union, rowCountId), nullValue());
+    assertThat(mq.cache.get(deptProject, rowCountId), is((Object) DEPT_SIZE));
+    assertThat(mq.getRowCount(union), is(EMP_SIZE + DEPT_SIZE));
+  }
+
   @Test void testRowCountValues() {
     final String sql = "select * from (values (1), (2)) as t(c)";
     checkRowCount(sql, 2, 2, 2);
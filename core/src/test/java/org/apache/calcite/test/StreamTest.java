@@ -64,6 +64,7 @@
 public class StreamTest {
   public static final String STREAM_SCHEMA_NAME = "STREAMS";
   public static final String INFINITE_STREAM_SCHEMA_NAME = "INFINITE_STREAMS";
+  public static final String HOURLY_STREAM_SCHEMA_NAME = "HOURLY_STREAMS";
   public static final String STREAM_JOINS_SCHEMA_NAME = "STREAM_JOINS";
 
   private static String schemaFor(String name, Class<? extends TableFactory> clazz) {
@@ -108,6 +109,8 @@ private static String schemaFor(String name, Class<? extends TableFactory> clazz
       + schemaFor(STREAM_SCHEMA_NAME, OrdersStreamTableFactory.class)
       + ",\n"
       + schemaFor(INFINITE_STREAM_SCHEMA_NAME, InfiniteOrdersStreamTableFactory.class)
+      + ",\n"
+      + schemaFor(HOURLY_STREAM_SCHEMA_NAME, HourlyOrdersStreamTableFactory.class)
       + "\n"
       + "   ]\n"
       + "}";
@@ -239,6 +242,37 @@ private static String schemaFor(String name, Class<? extends TableFactory> clazz
         .returnsCount(100);
   }
 
+  /** Tests that an aggregate over an infinite stream, grouped by a window
+   * of the rowtime column, returns each window as soon as a row of the next
+   * window arrives, rather than waiting for the end of the input. */
+  @Test @Timeout(10) public void testInfiniteStreamGroupByRuns() {
+    CalciteAssert.model(STREAM_MODEL)
+        .withDefaultSchema(HOURLY_STREAM_SCHEMA_NAME)
+        .query("select stream floor(rowtime to hour) as rowtime,\n"
+            + "  count(*) as c\n"
+            + "from orders\n"
+            + "group by floor(rowtime to hour)")
+        .limit(3)
+        .planContains("groupByRuns(")
+        .returns("ROWTIME=2015-02-15 10:00:00; C=4\n"
+            + "ROWTIME=2015-02-15 11:00:00; C=4\n"
+            + "ROWTIME=2015-02-15 12:00:00; C=4\n");
+  }
+
+  /** Tests that an aggregate whose input is not sorted on any of its group
+   * keys still hashes the whole input. */
+  @Test void testStreamGroupByUnsorted() {
+    CalciteAssert.model(STREAM_MODEL)
+        .withDefaultSchema("STREAMS")
+        .query("select product, count(*) as c\n"
+            + "from orders\n"
+            + "group by product")
+        .planContains(".groupBy(")
+        .returnsUnordered("PRODUCT=paint; C=3",
+            "PRODUCT=paper; C=1",
+            "PRODUCT=brush; C=1");
+  }
+
   @Test @Timeout(10) public void testStreamCancel() {
     final String explain = "EnumerableInterpreter\n"
         + "  BindableTableScan(table=[[INFINITE_STREAMS, ORDERS, (STREAM)]])";
@@ -483,6 +517,53 @@ public Table stream() {
     }
   }
 
+  /** Mock table that returns an infinite stream of orders, four per hour. */
+  @SuppressWarnings("UnusedDeclaration")
+  public static class HourlyOrdersStreamTableFactory
+      implements TableFactory<Table> {
+    // public constructor, per factory contract
+    public HourlyOrdersStreamTableFactory() {
+    }
+
+    public Table create(SchemaPlus schema, String name,
+        Map<String, Object> operand, RelDataType rowType) {
+      return new HourlyOrdersTable();
+    }
+  }
+
+  /** Table representing an infinite ORDERS stream whose rowtime advances
+   * 15 minutes per row, starting at 2015-02-15 10:00:00. */
+  public static class HourlyOrdersTable extends BaseOrderStreamTable
+      implements StreamableTable {
+    public Enumerable<Object[]> scan(DataContext root) {
+      return Linq4j.asEnumerable(() -> new Iterator<Object[]>() {
+        private final String[] items = {"paint", "paper", "brush"};
+        private final long start =
+            DateTimeUtils.unixTimestamp(2015, 2, 15, 10, 0, 0);
+        private int counter = 0;
+
+        public boolean hasNext() {
+          return true;
+        }
+
+        public Object[] next() {
+          final int index = counter++;
+          return new Object[]{
+              start + index * 15 * DateTimeUtils.MILLIS_PER_MINUTE, index,
+              items[index % items.length], 10};
+        }
+
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+      });
+    }
+
+    public Table stream() {
+      return this;
+    }
+  }
+
   /** Table representing the history of the ORDERS stream. */
   public static class OrdersHistoryTable extends BaseOrderStreamTable {
     private final ImmutableList<Object[]> rows;
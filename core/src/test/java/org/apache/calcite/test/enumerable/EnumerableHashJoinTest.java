@@ -134,6 +134,25 @@ class EnumerableHashJoinTest {
             "empid=200; name=Eric; dept=null");
   }
 
+  /** Tests a left join that builds and probes its hash table on several
+   * threads. */
+  @Test void leftOuterJoinParallel() {
+    tester(false, new JdbcTest.HrSchema())
+        .with(CalciteConnectionProperty.HASH_JOIN_PARALLELISM, 4)
+        .query(
+            "select e.empid, e.name, d.name as dept from emps e  left outer "
+                + "join depts d on e.deptno=d.deptno")
+        .withHook(Hook.PLANNER, (Consumer<RelOptPlanner>) planner ->
+            planner.removeRule(EnumerableRules.ENUMERABLE_MERGE_JOIN_RULE))
+        .explainContains("EnumerableHashJoin(condition=[=($1, $3)], "
+            + "joinType=[left])")
+        .returnsUnordered(
+            "empid=100; name=Bill; dept=Sales",
+            "empid=110; name=Theodore; dept=Sales",
+            "empid=150; name=Sebastian; dept=Sales",
+            "empid=200; name=Eric; dept=null");
+  }
+
   @Test void rightOuterJoinWithPredicate() {
     tester(false, new JdbcTest.HrSchema())
         .query(
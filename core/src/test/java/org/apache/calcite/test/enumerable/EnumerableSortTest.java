@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.test.enumerable;
+
+import org.apache.calcite.adapter.java.ReflectiveSchema;
+import org.apache.calcite.config.CalciteConnectionProperty;
+import org.apache.calcite.config.Lex;
+import org.apache.calcite.test.CalciteAssert;
+import org.apache.calcite.test.JdbcTest;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for
+ * {@link org.apache.calcite.adapter.enumerable.EnumerableSort}.
+ */
+class EnumerableSortTest {
+  /** Tests a sort that spills sorted runs to temporary files, because the
+   * spill threshold is smaller than its input. */
+  @Test void sortSpilling() {
+    tester()
+        .with(CalciteConnectionProperty.SORT_SPILL_THRESHOLD, 2)
+        .query(
+            "select e.empid, e.deptno, e.name from emps e "
+                + "order by e.deptno desc, e.name")
+        .explainContains("EnumerableSort")
+        .returnsOrdered(
+            "empid=200; deptno=20; name=Eric",
+            "empid=100; deptno=10; name=Bill",
+            "empid=150; deptno=10; name=Sebastian",
+            "empid=110; deptno=10; name=Theodore");
+  }
+
+  private CalciteAssert.AssertThat tester() {
+    return CalciteAssert.that()
+        .with(CalciteConnectionProperty.LEX, Lex.JAVA)
+        .withSchema("s", new ReflectiveSchema(new JdbcTest.HrSchema()));
+  }
+}
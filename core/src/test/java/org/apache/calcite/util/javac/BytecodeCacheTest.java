@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.util.javac;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit test for {@link BytecodeCache}.
+ */
+class BytecodeCacheTest {
+  private static final ClassLoader LOADER =
+      BytecodeCacheTest.class.getClassLoader();
+
+  private static String source(String className, int value) {
+    return "public class " + className + " {\n"
+        + "  public static int f() { return " + value + "; }\n"
+        + "}\n";
+  }
+
+  private static int call(Class<?> clazz) throws Exception {
+    return (Integer) clazz.getMethod("f").invoke(null);
+  }
+
+  private static Set<File> jars(File directory) {
+    final File[] files =
+        directory.listFiles((dir, name) -> name.endsWith(".jar"));
+    return new HashSet<>(Arrays.asList(files));
+  }
+
+  /** Loads a class, and returns the cache file that it was written to. */
+  private static File loadNew(BytecodeCache cache, File directory,
+      String className, int value) throws Exception {
+    final Set<File> before = jars(directory);
+    assertThat(call(cache.load(className, source(className, value), LOADER)),
+        is(value));
+    final Set<File> after = jars(directory);
+    after.removeAll(before);
+    assertThat(after.size(), is(1));
+    return after.iterator().next();
+  }
+
+  /** Tests that a class that is not in the cache is compiled and written to
+   * the cache. */
+  @Test void testMiss(@TempDir File directory) throws Exception {
+    final BytecodeCache cache = new BytecodeCache(directory, Long.MAX_VALUE);
+    final File file = loadNew(cache, directory, "Foo", 42);
+    assertThat(file.length() > 0, is(true));
+
+    // Different source, different file
+    loadNew(cache, directory, "Foo", 43);
+    assertThat(jars(directory).size(), is(2));
+  }
+
+  /** Tests that a class in the cache is read from the file rather than
+   * compiled. */
+  @Test void testHit(@TempDir File tempDir) throws Exception {
+    final File directory = new File(tempDir, "a");
+    final File directory2 = new File(tempDir, "b");
+    assertThat(directory.mkdir() && directory2.mkdir(), is(true));
+    final BytecodeCache cache = new BytecodeCache(directory, Long.MAX_VALUE);
+    final File file = loadNew(cache, directory, "Foo", 42);
+    final File file2 =
+        loadNew(new BytecodeCache(directory2, Long.MAX_VALUE), directory2,
+            "Foo", 43);
+
+    // Put the bytecode of the other class into the file; if the class is
+    // read from the cache, it returns the other value
+    Files.copy(file2.toPath(), file.toPath(),
+        StandardCopyOption.REPLACE_EXISTING);
+    final long old = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+    assertThat(file.setLastModified(old), is(true));
+    assertThat(call(cache.load("Foo", source("Foo", 42), LOADER)), is(43));
+    assertThat(jars(directory).size(), is(1));
+
+    // Reading the file records the use
+    assertThat(file.lastModified() > old, is(true));
+  }
+
+  /** Tests that when the cache exceeds its size, the least recently used
+   * files are deleted. */
+  @Test void testEviction(@TempDir File directory) throws Exception {
+    // Measure the size of a file
+    final File file0 =
+        loadNew(new BytecodeCache(directory, Long.MAX_VALUE), directory,
+            "Foo0", 0);
+    final long length = file0.length();
+    assertThat(file0.delete(), is(true));
+
+    // Room for two files, but not three
+    final BytecodeCache cache =
+        new BytecodeCache(directory, 2 * length + length / 2);
+    final long now = System.currentTimeMillis();
+    final File file1 = loadNew(cache, directory, "Foo1", 1);
+    assertThat(file1.setLastModified(now - TimeUnit.HOURS.toMillis(3)),
+        is(true));
+    final File file2 = loadNew(cache, directory, "Foo2", 2);
+    assertThat(file2.setLastModified(now - TimeUnit.HOURS.toMillis(2)),
+        is(true));
+    assertThat(jars(directory).size(), is(2));
+
+    final File file3 = loadNew(cache, directory, "Foo3", 3);
+    assertThat(file1.exists(), is(false));
+    assertThat(file2.exists(), is(true));
+    assertThat(file3.exists(), is(true));
+  }
+
+  /** Tests that a cache file that is not a jar, or that holds invalid
+   * bytecode, is replaced by compiling the class again. */
+  @Test void testCorruption(@TempDir File directory) throws Exception {
+    final BytecodeCache cache = new BytecodeCache(directory, Long.MAX_VALUE);
+    final File file = loadNew(cache, directory, "Foo", 42);
+
+    // Not a jar
+    Files.write(file.toPath(), "garbage".getBytes(StandardCharsets.UTF_8));
+    assertThat(call(cache.load("Foo", source("Foo", 42), LOADER)), is(42));
+    assertThat(jars(directory).size(), is(1));
+
+    // A jar whose class is not valid bytecode
+    writeJar(file, "Foo", "garbage".getBytes(StandardCharsets.UTF_8));
+    assertThat(call(cache.load("Foo", source("Foo", 42), LOADER)), is(42));
+    assertThat(jars(directory).size(), is(1));
+    assertThat(file.length() > "garbage".length(), is(true));
+  }
+
+  private static void writeJar(File file, String entryName, byte[] bytes)
+      throws IOException {
+    try (OutputStream out = Files.newOutputStream(file.toPath());
+         ZipOutputStream zip = new ZipOutputStream(out)) {
+      zip.putNextEntry(new ZipEntry(entryName));
+      zip.write(bytes);
+      zip.closeEntry();
+    }
+  }
+}
@@ -338,10 +338,21 @@ static class SearchHit {
     private final Map<String, Object> source;
     private final Map<String, Object> fields;
 
+    /**
+     * Values of the sort keys of this hit (present only in sorted searches)
+     */
+    private final List<Object> sort;
+
+    SearchHit(final String id, final Map<String, Object> source,
+        final Map<String, Object> fields) {
+      this(id, source, fields, null);
+    }
+
     @JsonCreator
     SearchHit(@JsonProperty(ElasticsearchConstants.ID) final String id,
                       @JsonProperty("_source") final Map<String, Object> source,
-                      @JsonProperty("fields") final Map<String, Object> fields) {
+                      @JsonProperty("fields") final Map<String, Object> fields,
+                      @JsonProperty("sort") final List<Object> sort) {
       this.id = Objects.requireNonNull(id, "id");
 
       // both can't be null
@@ -360,6 +371,7 @@ static class SearchHit {
 
       this.source = source;
       this.fields = fields;
+      this.sort = sort == null ? Collections.emptyList() : sort;
     }
 
     /**
@@ -435,6 +447,14 @@ Map<String, Object> fields() {
     Map<String, Object> sourceOrFields() {
       return source != null ? source : fields;
     }
+
+    /**
+     * Returns values of sort keys, to be used as {@code search_after} for the
+     * next page of a sorted search; empty if the search was not sorted.
+     */
+    List<Object> sort() {
+      return sort;
+    }
   }
 
 
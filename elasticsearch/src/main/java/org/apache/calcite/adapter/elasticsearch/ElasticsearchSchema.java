@@ -55,6 +55,11 @@ public class ElasticsearchSchema extends AbstractSchema {
    */
   private final int fetchSize;
 
+  /**
+   * Number of slices that unsorted scans scroll through in parallel.
+   */
+  private final int slices;
+
   /**
    * Allows schema to be instantiated from existing elastic search client.
    *
@@ -69,12 +74,30 @@ public ElasticsearchSchema(RestClient client, ObjectMapper mapper, String index)
   @VisibleForTesting
   ElasticsearchSchema(RestClient client, ObjectMapper mapper,
                       String index, int fetchSize) {
+    this(client, mapper, index, fetchSize, 1);
+  }
+
+  /**
+   * Allows schema to be instantiated from existing elastic search client,
+   * scrolling through unsorted scans in parallel slices.
+   *
+   * @param client existing client instance
+   * @param mapper mapper for JSON (de)serialization
+   * @param index name of ES index
+   * @param fetchSize number of documents to fetch in each request
+   * @param slices number of slices to scroll through in parallel
+   */
+  public ElasticsearchSchema(RestClient client, ObjectMapper mapper,
+                             String index, int fetchSize, int slices) {
     super();
     this.client = Objects.requireNonNull(client, "client");
     this.mapper = Objects.requireNonNull(mapper, "mapper");
     Preconditions.checkArgument(fetchSize > 0,
         "invalid fetch size. Expected %s > 0", fetchSize);
     this.fetchSize = fetchSize;
+    Preconditions.checkArgument(slices > 0,
+        "invalid number of slices. Expected %s > 0", slices);
+    this.slices = slices;
 
     if (index == null) {
       try {
@@ -95,7 +118,7 @@ private Map<String, Table> createTables(Iterable<String> indices) {
     final ImmutableMap.Builder<String, Table> builder = ImmutableMap.builder();
     for (String index : indices) {
       final ElasticsearchTransport transport = new ElasticsearchTransport(client, mapper,
-          index, fetchSize);
+          index, fetchSize, slices);
       builder.put(index, new ElasticsearchTable(transport));
     }
     return builder.build();
@@ -90,8 +90,11 @@ public ElasticsearchSchemaFactory() {
       // create client
       final RestClient client = connect(hosts, pathPrefix);
       final String index = (String) map.get("index");
+      final Number slices = (Number) map.get("slices");
 
-      return new ElasticsearchSchema(client, new ObjectMapper(), index);
+      return new ElasticsearchSchema(client, new ObjectMapper(), index,
+          ElasticsearchTransport.DEFAULT_FETCH_SIZE,
+          slices == null ? 1 : slices.intValue());
     } catch (IOException e) {
       throw new RuntimeException("Cannot parse values from json", e);
     }
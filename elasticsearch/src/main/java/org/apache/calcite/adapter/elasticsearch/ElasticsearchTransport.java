@@ -81,14 +81,29 @@ final class ElasticsearchTransport {
    */
   final int fetchSize;
 
+  /**
+   * Number of slices that unsorted scans scroll through in parallel
+   * @see <a href="https://www.elastic.co/guide/en/elasticsearch/reference/current/search-request-scroll.html#sliced-scroll">Sliced Scroll</a>
+   */
+  final int slices;
+
   ElasticsearchTransport(final RestClient restClient,
                          final ObjectMapper mapper,
                          final String indexName,
                          final int fetchSize) {
+    this(restClient, mapper, indexName, fetchSize, 1);
+  }
+
+  ElasticsearchTransport(final RestClient restClient,
+                         final ObjectMapper mapper,
+                         final String indexName,
+                         final int fetchSize,
+                         final int slices) {
     this.mapper = Objects.requireNonNull(mapper, "mapper");
     this.restClient = Objects.requireNonNull(restClient, "restClient");
     this.indexName = Objects.requireNonNull(indexName, "indexName");
     this.fetchSize = fetchSize;
+    this.slices = slices;
     this.version = version(); // cache version
     this.mapping = fetchAndCreateMapping(); // cache mapping
   }
@@ -16,14 +16,25 @@
  */
 package org.apache.calcite.adapter.elasticsearch;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.collect.AbstractSequentialIterator;
 import com.google.common.collect.Iterators;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 /**
@@ -31,6 +42,20 @@
  * <a href="https://www.elastic.co/guide/en/elasticsearch/reference/current/search-request-scroll.html">Elastic Scrolling API</a>
  * to optimally consume large search results.
  *
+ * <p>Queries sorted on a unique key ({@code _id}, or {@code _uid} in
+ * Elasticsearch 5) are paginated with
+ * <a href="https://www.elastic.co/guide/en/elasticsearch/reference/current/search-request-search-after.html">search_after</a>
+ * instead, which keeps no context open on the cluster. Other sorted queries,
+ * which in practice are most of them, keep using the scroll: search_after
+ * could skip or repeat hits with equal sort values at page boundaries, and
+ * no tiebreaker is added to the sort, since {@code _id} is expensive to sort
+ * on and {@code _shard_doc} requires a point in time (Elasticsearch 7.10).
+ * If the transport has
+ * more than one slice, unsorted queries use a
+ * <a href="https://www.elastic.co/guide/en/elasticsearch/reference/current/search-request-scroll.html#sliced-scroll">sliced scroll</a>,
+ * each slice fetched in its own thread. Both require Elasticsearch 5 or
+ * later.
+ *
  * <p>This class is <strong>not thread safe</strong>.
  */
 class Scrolling {
@@ -59,6 +84,17 @@ Iterator<ElasticsearchJson.SearchHit> query(ObjectNode query) {
       limit = Long.MAX_VALUE;
     }
 
+    if (transport.version.elasticVersionMajor() >= 5) {
+      if (query.has("sort")) {
+        // search_after can't be combined with an offset
+        if (query.path("from").asLong() == 0 && hasUniqueKey(query.get("sort"))) {
+          return searchAfter(query, limit);
+        }
+      } else if (transport.slices > 1) {
+        return new SlicedIterator(transport, query, fetchSize, limit);
+      }
+    }
+
     query.put("size", fetchSize);
     final ElasticsearchJson.Result first = transport
         .search(Collections.singletonMap("scroll", "1m")).apply(query);
@@ -76,6 +112,37 @@ Iterator<ElasticsearchJson.SearchHit> query(ObjectNode query) {
     return result;
   }
 
+  /**
+   * Returns whether a sort contains a field that uniquely identifies a
+   * document, so that no two hits have the same sort values.
+   */
+  private static boolean hasUniqueKey(JsonNode sort) {
+    for (JsonNode field : sort) {
+      if (field.has(ElasticsearchConstants.ID)
+          || field.has(ElasticsearchConstants.UID)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Fetches results of a query sorted on a unique key page by page, each page
+   * starting after the sort values of the last hit of the previous one.
+   */
+  private Iterator<ElasticsearchJson.SearchHit> searchAfter(ObjectNode query, long limit) {
+    final ObjectNode page = query.deepCopy();
+    page.put("size", fetchSize);
+
+    final ElasticsearchJson.Result first = transport.search().apply(page);
+    Iterator<ElasticsearchJson.SearchHit> result =
+        flatten(new SearchAfterIterator(first, page, transport, fetchSize, limit));
+    if (limit != Long.MAX_VALUE) {
+      result = Iterators.limit(result, (int) limit);
+    }
+    return result;
+  }
+
   /**
    * Combines lazily multiple {@link ElasticsearchJson.Result} into a single iterator of
    * {@link ElasticsearchJson.SearchHit}.
@@ -168,4 +235,190 @@ private SequentialIterator(final ElasticsearchJson.Result first,
       return transport.scroll().apply(scrollId);
     }
   }
+
+  /**
+   * Iterator which requests the page after {@code previous} (using its last sort values)
+   * until a page is not full or {@code limit} is reached.
+   */
+  private static class SearchAfterIterator
+      extends AbstractSequentialIterator<ElasticsearchJson.Result> {
+
+    private final ObjectNode query;
+    private final ElasticsearchTransport transport;
+    private final int fetchSize;
+    private final long limit;
+    private long count;
+
+    private SearchAfterIterator(final ElasticsearchJson.Result first, final ObjectNode query,
+        final ElasticsearchTransport transport, final int fetchSize, final long limit) {
+      super(first);
+      this.query = query;
+      this.transport = transport;
+      this.fetchSize = fetchSize;
+      this.limit = limit;
+    }
+
+    @Override protected ElasticsearchJson.Result computeNext(
+        final ElasticsearchJson.Result previous) {
+      final List<ElasticsearchJson.SearchHit> hits = previous.searchHits().hits();
+      count += hits.size();
+      if (hits.size() < fetchSize || count >= limit) {
+        // last page, or limit reached
+        return null;
+      }
+
+      final ArrayNode after = query.putArray("search_after");
+      hits.get(hits.size() - 1).sort()
+          .forEach(value -> after.add(transport.mapper().valueToTree(value)));
+      return transport.search().apply(query);
+    }
+  }
+
+  /**
+   * Iterator over the hits of a sliced scroll. Each slice is scrolled in its own thread, which
+   * puts pages of hits into a bounded queue; hits are returned in the order pages arrive.
+   * Closing the iterator (or reading it to the end) interrupts the threads, which clear their
+   * scrolls and stop.
+   */
+  private static class SlicedIterator
+      implements Iterator<ElasticsearchJson.SearchHit>, AutoCloseable {
+
+    private final long limit;
+    private final BlockingQueue<List<ElasticsearchJson.SearchHit>> queue;
+    /** Put into the queue by each thread after its last page. */
+    private final List<ElasticsearchJson.SearchHit> end = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean closed;
+
+    private int running;
+    private long count;
+    private Iterator<ElasticsearchJson.SearchHit> current = Collections.emptyIterator();
+
+    private SlicedIterator(final ElasticsearchTransport transport, final ObjectNode query,
+        final int fetchSize, final long limit) {
+      this.limit = limit;
+      final int slices = transport.slices;
+      this.queue = new ArrayBlockingQueue<>(2 * slices);
+      for (int i = 0; i < slices; i++) {
+        final ObjectNode slice = query.deepCopy();
+        slice.put("size", fetchSize);
+        slice.putObject("slice").put("id", i).put("max", slices);
+        final Thread thread = new Thread(() -> scroll(transport, slice),
+            String.format(Locale.ROOT, "calcite-elasticsearch-slice-%d", i));
+        thread.setDaemon(true);
+        threads.add(thread);
+      }
+      running = threads.size();
+      threads.forEach(Thread::start);
+    }
+
+    /**
+     * Body of a thread: scrolls through one slice, then clears its scroll.
+     */
+    private void scroll(final ElasticsearchTransport transport, final ObjectNode query) {
+      String scrollId = null;
+      try {
+        ElasticsearchJson.Result result = transport
+            .search(Collections.singletonMap("scroll", "1m")).apply(query);
+        while (!closed) {
+          scrollId = result.scrollId()
+              .orElseThrow(() -> new IllegalStateException("scrollId has to be present"));
+          final List<ElasticsearchJson.SearchHit> hits = result.searchHits().hits();
+          if (hits.isEmpty()) {
+            break;
+          }
+          put(hits);
+          result = transport.scroll().apply(scrollId);
+        }
+      } catch (Throwable e) {
+        failure.compareAndSet(null, e);
+      } finally {
+        if (scrollId != null) {
+          // close() interrupts a thread that is waiting for a page; clear the
+          // interrupt so that the scroll can still be cleared
+          Thread.interrupted();
+          transport.closeScroll(Collections.singleton(scrollId));
+        }
+      }
+      put(end);
+    }
+
+    /**
+     * Puts a page into the queue, waiting for space unless the iterator is closed.
+     */
+    private void put(final List<ElasticsearchJson.SearchHit> hits) {
+      try {
+        while (!closed) {
+          if (queue.offer(hits, 100, TimeUnit.MILLISECONDS)) {
+            return;
+          }
+        }
+      } catch (InterruptedException e) {
+        // closed by the consumer
+      }
+    }
+
+    @Override public boolean hasNext() {
+      for (;;) {
+        if (count >= limit) {
+          close();
+          return false;
+        }
+        if (current.hasNext()) {
+          return true;
+        }
+        if (running == 0) {
+          close();
+          return false;
+        }
+        final List<ElasticsearchJson.SearchHit> hits;
+        try {
+          hits = queue.take();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          close();
+          throw new RuntimeException(e);
+        }
+        if (hits == end) {
+          running--;
+          final Throwable e = failure.get();
+          if (e != null) {
+            close();
+            Throwables.throwIfUnchecked(e);
+            throw new RuntimeException(e);
+          }
+        } else {
+          current = hits.iterator();
+        }
+      }
+    }
+
+    @Override public ElasticsearchJson.SearchHit next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      count++;
+      return current.next();
+    }
+
+    @Override public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      running = 0;
+      queue.clear();
+      // Threads may be waiting for the cluster; make them return
+      threads.forEach(Thread::interrupt);
+      for (Thread thread : threads) {
+        try {
+          thread.join();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+    }
+  }
 }
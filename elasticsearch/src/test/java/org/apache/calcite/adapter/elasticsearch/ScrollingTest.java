@@ -23,8 +23,12 @@
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.util.EntityUtils;
 import org.elasticsearch.client.Request;
 import org.elasticsearch.client.Response;
+import org.elasticsearch.client.RestClient;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -40,8 +44,15 @@
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
 /**
  * Tests usage of scrolling API like correct results and resource cleanup
  * (delete scroll after scan).
@@ -66,12 +77,21 @@ public static void setupInstance() throws Exception {
   }
 
   private CalciteAssert.ConnectionFactory newConnectionFactory(int fetchSize) {
+    return newConnectionFactory(fetchSize, 1);
+  }
+
+  private CalciteAssert.ConnectionFactory newConnectionFactory(int fetchSize, int slices) {
+    return newConnectionFactory(NODE.restClient(), fetchSize, slices);
+  }
+
+  private CalciteAssert.ConnectionFactory newConnectionFactory(RestClient client,
+      int fetchSize, int slices) {
     return new CalciteAssert.ConnectionFactory() {
       @Override public Connection createConnection() throws SQLException {
         final Connection connection = DriverManager.getConnection("jdbc:calcite:");
         final SchemaPlus root = connection.unwrap(CalciteConnection.class).getRootSchema();
-        ElasticsearchSchema schema = new ElasticsearchSchema(NODE.restClient(), NODE.mapper(),
-            NAME, fetchSize);
+        ElasticsearchSchema schema = new ElasticsearchSchema(client, NODE.mapper(),
+            NAME, fetchSize, slices);
         root.add("elastic", schema);
         return connection;
       }
@@ -95,6 +115,96 @@ private CalciteAssert.ConnectionFactory newConnectionFactory(int fetchSize) {
     }
   }
 
+  /**
+   * Scans with a sliced scroll, each slice fetched in batches by its own thread.
+   */
+  @Test void slicedScrolling() {
+    final String[] expected = IntStream.range(0, SIZE).mapToObj(i -> "V=" + i)
+        .toArray(String[]::new);
+    final String query = String.format(Locale.ROOT, "select _MAP['value'] as v from "
+        + "\"elastic\".\"%s\"", NAME);
+
+    for (int slices: Arrays.asList(2, 3)) {
+      for (int fetchSize: Arrays.asList(1, 2, SIZE / 2, SIZE + 1)) {
+        CalciteAssert.that()
+            .with(newConnectionFactory(fetchSize, slices))
+            .query(query)
+            .returnsUnordered(expected);
+
+        CalciteAssert.that()
+            .with(newConnectionFactory(fetchSize, slices))
+            .query(query + " limit 3")
+            .returnsCount(3);
+      }
+    }
+  }
+
+  /**
+   * Pages through a query sorted on {@code _id} with {@code search_after}, and
+   * through a query sorted on a key that need not be unique with a scroll.
+   */
+  @Test void searchAfter() {
+    final String query = String.format(Locale.ROOT, "select _MAP['value'] as v from "
+        + "\"elastic\".\"%s\" order by _MAP['value'] desc", NAME);
+    final String[] expected = IntStream.range(0, SIZE).map(i -> SIZE - 1 - i)
+        .mapToObj(i -> "V=" + i).toArray(String[]::new);
+
+    for (String sql : Arrays.asList(query + ", _MAP['_id']", query)) {
+      for (int fetchSize: Arrays.asList(1, 2, 3, SIZE / 2, SIZE - 1, SIZE, SIZE + 1)) {
+        CalciteAssert.that()
+            .with(newConnectionFactory(fetchSize))
+            .query(sql)
+            .returnsOrdered(expected);
+
+        CalciteAssert.that()
+            .with(newConnectionFactory(fetchSize))
+            .query(sql + " limit 4")
+            .returnsOrdered("V=9", "V=8", "V=7", "V=6");
+      }
+    }
+  }
+
+  /**
+   * Checks the requests that page through a query sorted on {@code _id}: each page is a
+   * search that has no {@code scroll} parameter, and each page after the first starts
+   * with {@code search_after}.
+   */
+  @Test void searchAfterRequests() throws IOException {
+    final List<String> requests = new CopyOnWriteArrayList<>();
+    final HttpRequestInterceptor interceptor = (request, context) -> {
+      final String body = request instanceof HttpEntityEnclosingRequest
+          ? EntityUtils.toString(((HttpEntityEnclosingRequest) request).getEntity())
+          : "";
+      requests.add(request.getRequestLine().getUri() + " " + body);
+    };
+    final String sql = String.format(Locale.ROOT, "select _MAP['value'] as v from "
+        + "\"elastic\".\"%s\" order by _MAP['value'] desc, _MAP['_id']", NAME);
+    final String[] expected = IntStream.range(0, SIZE).map(i -> SIZE - 1 - i)
+        .mapToObj(i -> "V=" + i).toArray(String[]::new);
+
+    try (RestClient client = RestClient.builder(NODE.httpHost())
+        .setHttpClientConfigCallback(builder -> builder.addInterceptorLast(interceptor))
+        .build()) {
+      CalciteAssert.that()
+          .with(newConnectionFactory(client, 3, 1))
+          .query(sql)
+          .returnsOrdered(expected);
+    }
+
+    final List<String> searches = requests.stream()
+        .filter(request -> request.contains("_search"))
+        .collect(Collectors.toList());
+    // pages of 3, 3, 3 and 1 hits
+    assertThat(searches.size(), is(4));
+    for (int i = 0; i < searches.size(); i++) {
+      final String search = searches.get(i);
+      assertThat(search, not(containsString("scroll=")));
+      assertThat(search, not(containsString("_search/scroll")));
+      assertThat(search,
+          i == 0 ? not(containsString("search_after")) : containsString("\"search_after\""));
+    }
+  }
+
   /**
    * Ensures there are no pending scroll contexts in elastic search cluster.
    * Queries {@code /_nodes/stats/indices/search} endpoint.
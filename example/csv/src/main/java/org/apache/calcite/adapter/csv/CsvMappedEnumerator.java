@@ -0,0 +1,529 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.csv;
+
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.util.Source;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/** Enumerator that reads a CSV file by mapping it into memory.
+ *
+ * <p>Unlike {@link CsvEnumerator}, which reads each line through opencsv
+ * into a {@code String[]}, this enumerator finds the fields of each record
+ * in the mapped bytes, and converts only the projected fields; integral and
+ * boolean fields are parsed directly from the bytes. The file is mapped a
+ * window at a time, so it may be larger than 2 GB.
+ *
+ * <p>The file must be encoded in UTF-8. The dialect is that of opencsv's
+ * defaults: fields are separated by commas, and may be enclosed in double
+ * quotes, in which case they may contain commas and line breaks; a quote is
+ * escaped by doubling it or by a preceding backslash.
+ *
+ * <p>A large file is split into ranges of whole records, and several ranges
+ * are converted at a time in other threads; rows are returned in file
+ * order.
+ */
+class CsvMappedEnumerator implements Enumerator<Object> {
+  /** Maximum number of bytes that a cursor maps at a time; no record may be
+   * longer. Not final, so that tests can use small windows. */
+  @VisibleForTesting
+  static int windowSize = 64 << 20;
+
+  /** Approximate number of bytes in each range of a parallel scan. */
+  @VisibleForTesting
+  static int rangeSize = 4 << 20;
+
+  /** Files at least this long are scanned in parallel. */
+  @VisibleForTesting
+  static long parallelThreshold = 64L << 20;
+
+  /** Returned by {@link Cursor#parse} if a field must be converted from a
+   * string. */
+  private static final Object FALLBACK = new Object();
+
+  private final FileChannel channel;
+  private final Converter converter;
+  private final AtomicBoolean cancelFlag;
+  private final Cursor cursor;
+  private Object current;
+
+  private CsvMappedEnumerator(FileChannel channel, Converter converter,
+      AtomicBoolean cancelFlag) throws IOException {
+    this.channel = channel;
+    this.converter = converter;
+    this.cancelFlag = cancelFlag;
+    this.cursor = new Cursor(channel, 0L, channel.size());
+    cursor.next(-1); // skip header row
+  }
+
+  /** Returns whether a source is a file that can be mapped. */
+  static boolean canMap(Source source) {
+    return "file".equals(source.protocol())
+        && !source.path().endsWith(".gz");
+  }
+
+  /** Creates an enumerator over the given fields of a CSV file. */
+  static Enumerator<Object> create(File file, AtomicBoolean cancelFlag,
+      List<CsvFieldType> fieldTypes, int[] fields) {
+    final Converter converter = new Converter(fieldTypes, fields);
+    try {
+      final FileChannel channel =
+          FileChannel.open(file.toPath(), StandardOpenOption.READ);
+      final int parallelism = Runtime.getRuntime().availableProcessors();
+      if (channel.size() >= parallelThreshold && parallelism > 1) {
+        return new ParallelEnumerator(channel, converter, cancelFlag,
+            parallelism);
+      }
+      return new CsvMappedEnumerator(channel, converter, cancelFlag);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public Object current() {
+    return current;
+  }
+
+  public boolean moveNext() {
+    try {
+      if (cancelFlag.get() || !cursor.next(converter.maxField)) {
+        current = null;
+        return false;
+      }
+      current = converter.convert(cursor);
+      return true;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public void reset() {
+    throw new UnsupportedOperationException();
+  }
+
+  public void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new RuntimeException("Error closing CSV file", e);
+    }
+  }
+
+  /** Enumerator that converts several ranges of a file at a time.
+   *
+   * <p>While the rows of one range are being returned, the following ranges
+   * are converted in the common fork-join pool. At most
+   * {@code parallelism} ranges are held in memory. */
+  private static class ParallelEnumerator implements Enumerator<Object> {
+    private final FileChannel channel;
+    private final Converter converter;
+    private final AtomicBoolean cancelFlag;
+    private final int parallelism;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    /** Finds the boundaries of ranges, by skipping whole records. */
+    private final Cursor splitter;
+    private final Deque<CompletableFuture<List<Object>>> pending =
+        new ArrayDeque<>();
+    private Iterator<Object> rows = Collections.emptyIterator();
+    private Object current;
+
+    ParallelEnumerator(FileChannel channel, Converter converter,
+        AtomicBoolean cancelFlag, int parallelism) throws IOException {
+      this.channel = channel;
+      this.converter = converter;
+      this.cancelFlag = cancelFlag;
+      this.parallelism = parallelism;
+      this.splitter = new Cursor(channel, 0L, channel.size());
+      splitter.next(-1); // skip header row
+    }
+
+    public Object current() {
+      return current;
+    }
+
+    public boolean moveNext() {
+      for (;;) {
+        if (cancelFlag.get()) {
+          current = null;
+          return false;
+        }
+        if (rows.hasNext()) {
+          current = rows.next();
+          return true;
+        }
+        try {
+          split();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        final CompletableFuture<List<Object>> next = pending.poll();
+        if (next == null) {
+          current = null;
+          return false;
+        }
+        rows = next.join().iterator();
+      }
+    }
+
+    /** Starts converting ranges until {@code parallelism} are pending. */
+    private void split() throws IOException {
+      while (pending.size() < parallelism && !splitter.atEnd()) {
+        final long start = splitter.position;
+        while (splitter.position - start < rangeSize && splitter.next(-1)) {
+          // skip record
+        }
+        final long end = splitter.position;
+        pending.add(CompletableFuture.supplyAsync(() -> convert(start, end)));
+      }
+    }
+
+    /** Converts the records in a range of the file. */
+    private List<Object> convert(long start, long end) {
+      final List<Object> list = new ArrayList<>();
+      final Cursor cursor = new Cursor(channel, start, end);
+      try {
+        while (!closed.get() && !cancelFlag.get()
+            && cursor.next(converter.maxField)) {
+          list.add(converter.convert(cursor));
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return list;
+    }
+
+    public void reset() {
+      throw new UnsupportedOperationException();
+    }
+
+    public void close() {
+      closed.set(true);
+      pending.clear();
+      try {
+        channel.close();
+      } catch (IOException e) {
+        throw new RuntimeException("Error closing CSV file", e);
+      }
+    }
+  }
+
+  /** Converts the projected fields of the record under a cursor. */
+  private static class Converter {
+    private final CsvFieldType[] fieldTypes;
+    private final int[] fields;
+    final int maxField;
+    /** Converts fields that cannot be parsed from bytes. */
+    private final CsvEnumerator.ArrayRowConverter stringConverter;
+
+    Converter(List<CsvFieldType> fieldTypes, int[] fields) {
+      this.fieldTypes = fieldTypes.toArray(new CsvFieldType[0]);
+      this.fields = fields;
+      this.maxField = Arrays.stream(fields).max().orElse(-1);
+      this.stringConverter =
+          new CsvEnumerator.ArrayRowConverter(fieldTypes, fields);
+    }
+
+    Object convert(Cursor cursor) {
+      if (fields.length == 1) {
+        return convert(cursor, fields[0]);
+      }
+      final Object[] row = new Object[fields.length];
+      for (int i = 0; i < fields.length; i++) {
+        row[i] = convert(cursor, fields[i]);
+      }
+      return row;
+    }
+
+    private Object convert(Cursor cursor, int field) {
+      if (field >= cursor.fieldCount) {
+        return null;
+      }
+      final CsvFieldType fieldType = fieldTypes[field];
+      if (!cursor.escaped[field]) {
+        final Object value = cursor.parse(fieldType, field);
+        if (value != FALLBACK) {
+          return value;
+        }
+      }
+      return stringConverter.convert(fieldType, cursor.string(field));
+    }
+  }
+
+  /** Reads the records in a range of a file, mapping a window of the file
+   * at a time.
+   *
+   * <p>After {@link #next}, the bounds of the record's fields, as offsets
+   * within the window, are in {@link #starts} and {@link #ends}. */
+  private static class Cursor {
+    private final FileChannel channel;
+    private final long end;
+    /** Offset in the file of the next record. */
+    long position;
+    private MappedByteBuffer buffer;
+    private long bufferStart;
+    private int limit;
+    private boolean lastWindow;
+
+    int fieldCount;
+    int[] starts = new int[16];
+    int[] ends = new int[16];
+    /** Whether each field contains escaped quotes or backslashes. */
+    boolean[] escaped = new boolean[16];
+
+    Cursor(FileChannel channel, long start, long end) {
+      this.channel = channel;
+      this.position = start;
+      this.end = end;
+    }
+
+    boolean atEnd() {
+      return position >= end;
+    }
+
+    /** Finds the fields of the record at the current position, recording
+     * the bounds of those up to {@code maxField}, and moves past it.
+     * Returns false if there are no more records. */
+    boolean next(int maxField) throws IOException {
+      for (;;) {
+        if (atEnd()) {
+          return false;
+        }
+        if (buffer == null || position >= bufferStart + limit) {
+          map();
+        }
+        final int p = scan((int) (position - bufferStart), maxField);
+        if (p >= 0) {
+          position = bufferStart + p;
+          return true;
+        }
+        // The record runs past the end of the window
+        if (position == bufferStart) {
+          throw new IllegalStateException("record at offset " + position
+              + " is longer than " + windowSize + " bytes");
+        }
+        map();
+      }
+    }
+
+    /** Maps a window that starts at the current position. */
+    private void map() throws IOException {
+      final long size = Math.min(windowSize, end - position);
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+      bufferStart = position;
+      limit = (int) size;
+      lastWindow = position + size == end;
+    }
+
+    /** Scans the record that starts at {@code p}. Returns the offset after
+     * it, or -1 if the window ends before the record does. */
+    private int scan(int p, int maxField) {
+      int field = 0;
+      for (;;) {
+        int start = p;
+        int stop;
+        final boolean quoted = p < limit && buffer.get(p) == '"';
+        boolean esc = false;
+        if (quoted) {
+          start = ++p;
+          for (;;) {
+            if (p >= limit) {
+              if (!lastWindow) {
+                return -1;
+              }
+              stop = p;
+              break;
+            }
+            final byte b = buffer.get(p);
+            if (b == '\\' && p + 1 < limit && isEscapable(buffer.get(p + 1))) {
+              esc = true;
+              p += 2;
+            } else if (b == '"') {
+              if (p + 1 >= limit && !lastWindow) {
+                return -1;
+              }
+              if (p + 1 < limit && buffer.get(p + 1) == '"') {
+                esc = true;
+                p += 2;
+              } else {
+                stop = p++;
+                break;
+              }
+            } else {
+              ++p;
+            }
+          }
+          // Ignore anything between the closing quote and the separator
+          while (p < limit && buffer.get(p) != ',' && buffer.get(p) != '\n') {
+            ++p;
+          }
+        } else {
+          while (p < limit) {
+            final byte b = buffer.get(p);
+            if (b == ',' || b == '\n') {
+              break;
+            }
+            if (b == '\\' && p + 1 < limit && isEscapable(buffer.get(p + 1))) {
+              esc = true;
+              p += 2;
+            } else {
+              ++p;
+            }
+          }
+          stop = p;
+        }
+        if (p >= limit && !lastWindow) {
+          return -1;
+        }
+        if (field <= maxField) {
+          if (field == starts.length) {
+            starts = Arrays.copyOf(starts, field * 2);
+            ends = Arrays.copyOf(ends, field * 2);
+            escaped = Arrays.copyOf(escaped, field * 2);
+          }
+          starts[field] = start;
+          ends[field] = stop;
+          escaped[field] = esc;
+        }
+        ++field;
+        if (p < limit && buffer.get(p) == ',') {
+          ++p;
+          continue;
+        }
+        // End of line or of file; strip the '\r' of "\r\n"
+        fieldCount = field;
+        --field;
+        if (!quoted && field <= maxField && stop > start
+            && buffer.get(stop - 1) == '\r') {
+          ends[field] = stop - 1;
+        }
+        return p < limit ? p + 1 : p;
+      }
+    }
+
+    private static boolean isEscapable(byte b) {
+      return b == '"' || b == '\\';
+    }
+
+    /** Parses a field from its bytes, or returns {@link #FALLBACK}. */
+    Object parse(CsvFieldType fieldType, int field) {
+      final int start = starts[field];
+      final int stop = ends[field];
+      if (fieldType == null) {
+        return FALLBACK;
+      }
+      switch (fieldType) {
+      case BOOLEAN:
+        if (start == stop) {
+          return null;
+        }
+        return stop - start == 4
+            && (buffer.get(start) | 0x20) == 't'
+            && (buffer.get(start + 1) | 0x20) == 'r'
+            && (buffer.get(start + 2) | 0x20) == 'u'
+            && (buffer.get(start + 3) | 0x20) == 'e';
+      case BYTE:
+      case SHORT:
+      case INT:
+      case LONG:
+        if (start == stop) {
+          return null;
+        }
+        return parseIntegral(fieldType, start, stop);
+      default:
+        return FALLBACK;
+      }
+    }
+
+    /** Parses an integer of up to 18 digits; leaves other values, which
+     * may overflow or be invalid, to the string conversion. */
+    private Object parseIntegral(CsvFieldType fieldType, int start,
+        int stop) {
+      int p = start;
+      final boolean negative = buffer.get(p) == '-';
+      if (negative || buffer.get(p) == '+') {
+        ++p;
+      }
+      if (p == stop || stop - p > 18) {
+        return FALLBACK;
+      }
+      long v = 0;
+      for (; p < stop; p++) {
+        final int digit = buffer.get(p) - '0';
+        if (digit < 0 || digit > 9) {
+          return FALLBACK;
+        }
+        v = v * 10 + digit;
+      }
+      if (negative) {
+        v = -v;
+      }
+      switch (fieldType) {
+      case BYTE:
+        return v == (byte) v ? (Object) (byte) v : FALLBACK;
+      case SHORT:
+        return v == (short) v ? (Object) (short) v : FALLBACK;
+      case INT:
+        return v == (int) v ? (Object) (int) v : FALLBACK;
+      default:
+        return v;
+      }
+    }
+
+    /** Decodes a field, removing escapes. */
+    String string(int field) {
+      final int start = starts[field];
+      final int length = ends[field] - start;
+      final byte[] bytes = new byte[length];
+      final ByteBuffer b = buffer.duplicate();
+      b.position(start);
+      b.get(bytes);
+      int n = length;
+      if (escaped[field]) {
+        n = 0;
+        for (int i = 0; i < length; i++) {
+          final byte c = bytes[i];
+          if (i + 1 < length
+              && (c == '"' && bytes[i + 1] == '"'
+                  || c == '\\' && isEscapable(bytes[i + 1]))) {
+            ++i;
+          }
+          bytes[n++] = bytes[i];
+        }
+      }
+      return new String(bytes, 0, n, StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -33,6 +33,7 @@
 import org.apache.calcite.util.Source;
 
 import java.lang.reflect.Type;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -50,6 +51,9 @@ public String toString() {
   }
 
   /** Returns an enumerable over a given projection of the fields.
+   *
+   * <p>An uncompressed local file is mapped into memory, and only the
+   * projected fields are converted (see {@link CsvMappedEnumerator}).
    *
    * <p>Called from generated code. */
   public Enumerable<Object> project(final DataContext root,
@@ -57,10 +61,16 @@ public Enumerable<Object> project(final DataContext root,
     final AtomicBoolean cancelFlag = DataContext.Variable.CANCEL_FLAG.get(root);
     return new AbstractEnumerable<Object>() {
       public Enumerator<Object> enumerator() {
+        final List<CsvFieldType> fieldTypes =
+            getFieldTypes(root.getTypeFactory());
+        if (CsvMappedEnumerator.canMap(source)) {
+          return CsvMappedEnumerator.create(source.file(), cancelFlag,
+              fieldTypes, fields);
+        }
         return new CsvEnumerator<>(
             source,
             cancelFlag,
-            getFieldTypes(root.getTypeFactory()),
+            fieldTypes,
             fields);
       }
     };
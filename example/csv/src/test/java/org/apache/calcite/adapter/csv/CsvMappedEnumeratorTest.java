@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.csv;
+
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.util.Sources;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit test for {@link CsvMappedEnumerator}.
+ */
+class CsvMappedEnumeratorTest {
+  private static final List<CsvFieldType> FIELD_TYPES =
+      ImmutableList.of(CsvFieldType.INT, CsvFieldType.STRING,
+          CsvFieldType.BOOLEAN);
+
+  private final int windowSize = CsvMappedEnumerator.windowSize;
+  private final int rangeSize = CsvMappedEnumerator.rangeSize;
+  private final long parallelThreshold = CsvMappedEnumerator.parallelThreshold;
+
+  @AfterEach void restore() {
+    CsvMappedEnumerator.windowSize = windowSize;
+    CsvMappedEnumerator.rangeSize = rangeSize;
+    CsvMappedEnumerator.parallelThreshold = parallelThreshold;
+  }
+
+  /** Writes a file of records, some of them quoted and spanning several
+   * lines, and returns it. */
+  private static File write(Path dir) throws IOException {
+    final StringBuilder b = new StringBuilder("ID:int,NAME:string,FLAG:boolean\n");
+    for (int i = 0; i < 200; i++) {
+      b.append(i).append(',');
+      switch (i % 5) {
+      case 0:
+        b.append("name").append(i);
+        break;
+      case 1:
+        b.append("\"a,b ").append(i).append('"');
+        break;
+      case 2:
+        b.append("\"line 1\nline 2\n").append(i).append('"');
+        break;
+      case 3:
+        b.append("\"say \"\"hi\"\" ").append(i).append('"');
+        break;
+      default:
+        b.append("\"back\\\"slash ").append(i).append('"');
+        break;
+      }
+      b.append(',').append(i % 3 == 0 ? "true" : i % 3 == 1 ? "false" : "")
+          .append('\n');
+    }
+    final File file = dir.resolve("records.csv").toFile();
+    Files.write(file.toPath(), b.toString().getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  private static List<String> read(Enumerator<?> enumerator) {
+    final List<String> rows = new ArrayList<>();
+    try {
+      while (enumerator.moveNext()) {
+        rows.add(Arrays.deepToString((Object[]) enumerator.current()));
+      }
+    } finally {
+      enumerator.close();
+    }
+    return rows;
+  }
+
+  private static List<String> expected(File file) {
+    return read(
+        new CsvEnumerator<>(Sources.of(file), new AtomicBoolean(),
+            FIELD_TYPES));
+  }
+
+  private static List<String> actual(File file) {
+    return read(
+        CsvMappedEnumerator.create(file, new AtomicBoolean(), FIELD_TYPES,
+            new int[] {0, 1, 2}));
+  }
+
+  /** Tests that records that cross the boundaries of windows are read as
+   * {@link CsvEnumerator} reads them. */
+  @Test void testSmallWindows(@TempDir Path dir) throws IOException {
+    final File file = write(dir);
+    CsvMappedEnumerator.windowSize = 64;
+    final List<String> expected = expected(file);
+    assertThat(expected.size(), is(200));
+    assertThat(actual(file), is(expected));
+  }
+
+  /** Tests that a file split into many ranges, which may be converted in
+   * parallel, returns its records in file order. */
+  @Test void testSmallRanges(@TempDir Path dir) throws IOException {
+    final File file = write(dir);
+    CsvMappedEnumerator.windowSize = 64;
+    CsvMappedEnumerator.rangeSize = 100;
+    CsvMappedEnumerator.parallelThreshold = 0;
+    final List<String> expected = expected(file);
+    assertThat(expected.size(), is(200));
+    assertThat(actual(file), is(expected));
+  }
+}
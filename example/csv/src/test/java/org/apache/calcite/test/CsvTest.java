@@ -35,6 +35,8 @@
 import java.io.File;
 import java.io.PrintStream;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
@@ -189,6 +191,52 @@ private static StringBuilder escapeString(StringBuilder buf, String s) {
     sql("smart", "select name from DEPTS").ok();
   }
 
+  /** Tests that a translatable table, which maps an uncompressed file into
+   * memory, handles quotes, escapes, line breaks in fields, "\r\n" line
+   * endings, empty fields and a missing final line break. */
+  @Test void testSelectProjectMapped() throws Exception {
+    final File dir = Files.createTempDirectory("csv").toFile();
+    final File file = new File(dir, "QUOTED.csv");
+    try {
+      final String csv = "ID:int,NAME:string,AMOUNT:long,FLAG:boolean,NOTE:string\r\n"
+          + "1,\"Smith, John\",-12,TRUE,\"say \"\"hi\"\"\"\r\n"
+          + "2,plain,9000000000,false,\"two\nlines\"\r\n"
+          + "3,,,,\"back\\\"slash\"";
+      Files.write(file.toPath(), csv.getBytes(StandardCharsets.UTF_8));
+      final String model = "inline:"
+          + "{\n"
+          + "  version: '1.0',\n"
+          + "  defaultSchema: 'T',\n"
+          + "  schemas: [\n"
+          + "    {\n"
+          + "      type: 'custom',\n"
+          + "      name: 'T',\n"
+          + "      factory: 'org.apache.calcite.adapter.csv.CsvSchemaFactory',\n"
+          + "      operand: {\n"
+          + "        directory: " + escapeString(dir.getAbsolutePath()) + ",\n"
+          + "        flavor: 'TRANSLATABLE'\n"
+          + "      }\n"
+          + "    }\n"
+          + "  ]\n"
+          + "}";
+      final Properties info = new Properties();
+      info.put("model", model);
+      try (Connection connection =
+               DriverManager.getConnection("jdbc:calcite:", info);
+           Statement statement = connection.createStatement();
+           ResultSet resultSet = statement.executeQuery(
+               "select note, amount, flag, name from quoted")) {
+        expect("NOTE=say \"hi\"; AMOUNT=-12; FLAG=true; NAME=Smith, John",
+            "NOTE=two\nlines; AMOUNT=9000000000; FLAG=false; NAME=plain",
+            "NOTE=back\"slash; AMOUNT=null; FLAG=null; NAME=")
+            .accept(resultSet);
+      }
+    } finally {
+      Util.discard(file.delete());
+      Util.discard(dir.delete());
+    }
+  }
+
   /** Test case for
    * <a href="https://issues.apache.org/jira/browse/CALCITE-898">[CALCITE-898]
    * Type inference multiplying Java long by SQL INTEGER</a>. */
@@ -30,6 +30,11 @@
 /**
  * Enumerator to read data from {@link Consumer},
  * and converted into SQL rows with {@link KafkaRowConverter}.
+ *
+ * <p>The enumerator tracks the event-time watermark of each partition (see
+ * {@link KafkaWatermarks}), and can drop records that arrive after the
+ * watermark has passed them.
+ *
  * @param <K>: type for Kafka message key,
  *           refer to {@link ConsumerConfig#KEY_DESERIALIZER_CLASS_CONFIG};
  * @param <V>: type for Kafka message value,
@@ -39,6 +44,8 @@
   final Consumer consumer;
   final KafkaRowConverter<K, V> rowConverter;
   private final AtomicBoolean cancelFlag;
+  private final KafkaWatermarks watermarks;
+  private final boolean dropLateRecords;
 
   //runtime
   private final LinkedList<ConsumerRecord<K, V>> bufferedRecords = new LinkedList<>();
@@ -47,9 +54,19 @@
   KafkaMessageEnumerator(final Consumer consumer,
       final KafkaRowConverter<K, V> rowConverter,
       final AtomicBoolean cancelFlag) {
+    this(consumer, rowConverter, cancelFlag, 0L, false);
+  }
+
+  KafkaMessageEnumerator(final Consumer consumer,
+      final KafkaRowConverter<K, V> rowConverter,
+      final AtomicBoolean cancelFlag,
+      final long maxOutOfOrdernessMillis,
+      final boolean dropLateRecords) {
     this.consumer = consumer;
     this.rowConverter = rowConverter;
     this.cancelFlag = cancelFlag;
+    this.watermarks = new KafkaWatermarks(maxOutOfOrdernessMillis);
+    this.dropLateRecords = dropLateRecords;
   }
 
   /**
@@ -60,16 +77,36 @@
   }
 
   @Override public boolean moveNext() {
-    if (cancelFlag.get()) {
-      return false;
-    }
+    for (;;) {
+      if (cancelFlag.get()) {
+        return false;
+      }
+
+      while (bufferedRecords.isEmpty()) {
+        pullRecords();
+      }
 
-    while (bufferedRecords.isEmpty()) {
-      pullRecords();
+      final ConsumerRecord<K, V> record = bufferedRecords.removeFirst();
+      if (dropLateRecords
+          && watermarks.isLate(record.partition(), record.timestamp())) {
+        continue;
+      }
+      watermarks.onRecord(record.partition(), record.timestamp());
+      curRecord = record;
+      return true;
     }
+  }
+
+  /** Returns the event-time watermark of the topic, in milliseconds since
+   * the epoch; records read later should have a timestamp no less than
+   * it. */
+  public long watermark() {
+    return watermarks.watermark();
+  }
 
-    curRecord = bufferedRecords.removeFirst();
-    return true;
+  /** Returns the event-time watermark of a partition. */
+  public long watermark(int partition) {
+    return watermarks.watermark(partition);
   }
 
   private void pullRecords() {
@@ -77,6 +114,7 @@ private void pullRecords() {
     for (ConsumerRecord record : records) {
       bufferedRecords.add(record);
     }
+    watermarks.assign(consumer.assignment());
   }
 
   @Override public void reset() {
@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.kafka;
+
+import org.apache.calcite.linq4j.Enumerator;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+
+import com.google.common.collect.ImmutableList;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Enumerator that reads a Kafka topic with several consumers, each polling
+ * and converting records in its own thread.
+ *
+ * <p>The consumers should belong to the same consumer group, so that the
+ * partitions of the topic are divided among them. Each thread converts the
+ * records of a poll into rows with {@link KafkaRowConverter}, which must
+ * therefore be thread-safe, and puts them
+ * into a bounded queue as one batch; when the queue is full, threads block
+ * until the enumerator catches up, so that a slow reader holds back the
+ * consumers rather than exhausting memory.
+ *
+ * <p>Rows of the same partition are returned in offset order; rows of
+ * different partitions are interleaved in the order their batches arrive.
+ * Watermarks are tracked as in {@link KafkaMessageEnumerator}.
+ *
+ * @param <K>: type for Kafka message key
+ * @param <V>: type for Kafka message value
+ */
+public class KafkaParallelEnumerator<K, V> implements Enumerator<Object[]> {
+  private final List<Consumer<K, V>> consumers;
+  private final KafkaRowConverter<K, V> rowConverter;
+  private final AtomicBoolean cancelFlag;
+  private final KafkaWatermarks watermarks;
+  private final boolean dropLateRecords;
+  private final BlockingQueue<Batch> queue;
+  private final List<Thread> threads = new ArrayList<>();
+  private final AtomicBoolean closed = new AtomicBoolean();
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+  /** Partitions assigned to each consumer, as of its latest batch read. */
+  private final List<List<TopicPartition>> assignments = new ArrayList<>();
+
+  //runtime
+  private Batch batch;
+  private int index;
+  private Object[] current;
+
+  /** Creates a KafkaParallelEnumerator.
+   *
+   * @param consumers Consumers, one per thread; each is used and closed only
+   *                  by its thread
+   * @param rowConverter Converts records to rows
+   * @param cancelFlag Cancel flag of the statement
+   * @param queueSize Maximum number of converted batches waiting to be read
+   * @param maxOutOfOrdernessMillis Maximum out-of-orderness of timestamps
+   * @param dropLateRecords Whether to skip records behind the watermark
+   */
+  KafkaParallelEnumerator(List<? extends Consumer<K, V>> consumers,
+      KafkaRowConverter<K, V> rowConverter, AtomicBoolean cancelFlag,
+      int queueSize, long maxOutOfOrdernessMillis, boolean dropLateRecords) {
+    if (queueSize <= 0) {
+      throw new IllegalArgumentException("queue size must be positive: "
+          + queueSize);
+    }
+    this.consumers = ImmutableList.copyOf(consumers);
+    this.rowConverter = rowConverter;
+    this.cancelFlag = cancelFlag;
+    this.watermarks = new KafkaWatermarks(maxOutOfOrdernessMillis);
+    this.dropLateRecords = dropLateRecords;
+    this.queue = new ArrayBlockingQueue<>(queueSize);
+    for (int i = 0; i < this.consumers.size(); i++) {
+      final Consumer<K, V> consumer = this.consumers.get(i);
+      final int ordinal = i;
+      assignments.add(ImmutableList.of());
+      final Thread thread = new Thread(() -> consume(ordinal, consumer),
+          String.format(Locale.ROOT, "calcite-kafka-consumer-%d", i));
+      thread.setDaemon(true);
+      threads.add(thread);
+    }
+    threads.forEach(Thread::start);
+  }
+
+  /** Body of a consumer thread. */
+  private void consume(int ordinal, Consumer<K, V> consumer) {
+    try {
+      while (!closed.get() && !cancelFlag.get()) {
+        final ConsumerRecords<K, V> records =
+            consumer.poll(Duration.ofMillis(100));
+        if (records.isEmpty()) {
+          continue;
+        }
+        final Batch converted = new Batch(ordinal, records.count(),
+            ImmutableList.copyOf(consumer.assignment()));
+        for (ConsumerRecord<K, V> record : records) {
+          converted.add(record, rowConverter.toRow(record));
+        }
+        while (!queue.offer(converted, 100, TimeUnit.MILLISECONDS)) {
+          if (closed.get() || cancelFlag.get()) {
+            return;
+          }
+        }
+      }
+    } catch (WakeupException | InterruptedException e) {
+      // closed by the enumerator
+    } catch (Throwable e) {
+      failure.compareAndSet(null, e);
+    } finally {
+      consumer.close();
+    }
+  }
+
+  @Override public Object[] current() {
+    if (current == null) {
+      throw new NoSuchElementException();
+    }
+    return current;
+  }
+
+  @Override public boolean moveNext() {
+    for (;;) {
+      if (cancelFlag.get()) {
+        return false;
+      }
+      while (batch == null || index >= batch.size()) {
+        batch = nextBatch();
+        index = 0;
+        if (batch == null) {
+          return false;
+        }
+        assign(batch);
+      }
+      final int i = index++;
+      final int partition = batch.partitions[i];
+      final long timestamp = batch.timestamps[i];
+      if (dropLateRecords && watermarks.isLate(partition, timestamp)) {
+        continue;
+      }
+      watermarks.onRecord(partition, timestamp);
+      current = batch.rows.get(i);
+      return true;
+    }
+  }
+
+  /** Records the assignment of the consumer that read a batch, and
+   * registers with the watermarks the partitions assigned to any
+   * consumer. */
+  private void assign(Batch batch) {
+    if (batch.assignment.equals(assignments.get(batch.consumer))) {
+      return;
+    }
+    assignments.set(batch.consumer, batch.assignment);
+    final List<TopicPartition> partitions = new ArrayList<>();
+    assignments.forEach(partitions::addAll);
+    watermarks.assign(partitions);
+  }
+
+  /** Waits for the next batch; returns null if the statement has been
+   * cancelled. */
+  private Batch nextBatch() {
+    try {
+      for (;;) {
+        final Throwable e = failure.get();
+        if (e != null) {
+          throw new RuntimeException("Kafka consumer failed", e);
+        }
+        if (cancelFlag.get()) {
+          return null;
+        }
+        final Batch next = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (next != null) {
+          return next;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  /** Returns the event-time watermark of the topic, as of the rows returned
+   * so far. */
+  public long watermark() {
+    return watermarks.watermark();
+  }
+
+  /** Returns the event-time watermark of a partition. */
+  public long watermark(int partition) {
+    return watermarks.watermark(partition);
+  }
+
+  /** Discards the rows that have been polled but not yet returned; the
+   * consumers continue polling from their current positions, as in
+   * {@link KafkaMessageEnumerator#reset()}. */
+  @Override public void reset() {
+    queue.clear();
+    batch = null;
+    index = 0;
+    current = null;
+  }
+
+  @Override public void close() {
+    if (closed.compareAndSet(false, true)) {
+      consumers.forEach(Consumer::wakeup);
+      for (Thread thread : threads) {
+        try {
+          thread.join();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+      queue.clear();
+    }
+  }
+
+  /** Rows converted from the records of one poll, with the partition and
+   * timestamp of each record. */
+  private static class Batch {
+    /** Ordinal of the consumer that read this batch. */
+    final int consumer;
+    final List<Object[]> rows;
+    final int[] partitions;
+    final long[] timestamps;
+    final List<TopicPartition> assignment;
+
+    Batch(int consumer, int capacity, List<TopicPartition> assignment) {
+      this.consumer = consumer;
+      this.rows = new ArrayList<>(capacity);
+      this.partitions = new int[capacity];
+      this.timestamps = new long[capacity];
+      this.assignment = assignment;
+    }
+
+    void add(ConsumerRecord<?, ?> record, Object[] row) {
+      partitions[rows.size()] = record.partition();
+      timestamps[rows.size()] = record.timestamp();
+      rows.add(row);
+    }
+
+    int size() {
+      return rows.size();
+    }
+  }
+}
@@ -44,6 +44,10 @@
    * Parses and reformats Kafka message from consumer,
    * to align with row type defined as {@link #rowDataType(String)}.
    *
+   * <p>If the table has more than one consumer thread
+   * ({@code consumer.threads}), this method is called concurrently from each
+   * of them, so implementations must be thread-safe.
+   *
    * @param message, the raw Kafka message record;
    * @return fields in the row
    */
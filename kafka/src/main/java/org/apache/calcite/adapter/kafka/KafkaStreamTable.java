@@ -21,7 +21,6 @@
 import org.apache.calcite.linq4j.AbstractEnumerable;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.Enumerator;
-import org.apache.calcite.rel.RelCollations;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeFactory;
 import org.apache.calcite.schema.ScannableTable;
@@ -39,7 +38,9 @@
 
 import com.google.common.collect.ImmutableList;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -62,10 +63,12 @@ public class KafkaStreamTable implements ScannableTable, StreamableTable {
       public Enumerator<Object[]> enumerator() {
         if (tableOptions.getConsumer() != null) {
           return new KafkaMessageEnumerator(tableOptions.getConsumer(),
-              tableOptions.getRowConverter(), cancelFlag);
+              tableOptions.getRowConverter(), cancelFlag,
+              tableOptions.getWatermarkDelayMillis(),
+              tableOptions.isDropLateRecords());
         }
 
-        Properties consumerConfig = new Properties();
+        final Properties consumerConfig = new Properties();
         consumerConfig.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
             tableOptions.getBootstrapServers());
         //by default it's <byte[], byte[]>
@@ -77,21 +80,41 @@ public Enumerator<Object[]> enumerator() {
         if (tableOptions.getConsumerParams() != null) {
           consumerConfig.putAll(tableOptions.getConsumerParams());
         }
-        Consumer consumer = new KafkaConsumer<>(consumerConfig);
-        consumer.subscribe(Collections.singletonList(tableOptions.getTopicName()));
+        if (tableOptions.getConsumerThreads() > 1) {
+          // Consumers of the same group divide the partitions among them
+          final List<Consumer> consumers = new ArrayList<>();
+          for (int i = 0; i < tableOptions.getConsumerThreads(); i++) {
+            consumers.add(createConsumer(consumerConfig));
+          }
+          return new KafkaParallelEnumerator(consumers,
+              tableOptions.getRowConverter(), cancelFlag,
+              tableOptions.getConsumerQueueSize(),
+              tableOptions.getWatermarkDelayMillis(),
+              tableOptions.isDropLateRecords());
+        }
 
-        return new KafkaMessageEnumerator(consumer, tableOptions.getRowConverter(), cancelFlag);
+        return new KafkaMessageEnumerator(createConsumer(consumerConfig),
+            tableOptions.getRowConverter(), cancelFlag,
+            tableOptions.getWatermarkDelayMillis(),
+            tableOptions.isDropLateRecords());
       }
     };
   }
 
+  private Consumer createConsumer(Properties consumerConfig) {
+    final Consumer consumer = new KafkaConsumer<>(consumerConfig);
+    consumer.subscribe(Collections.singletonList(tableOptions.getTopicName()));
+    return consumer;
+  }
+
   @Override public RelDataType getRowType(final RelDataTypeFactory typeFactory) {
     return tableOptions.getRowConverter().rowDataType(tableOptions.getTopicName());
   }
 
   @Override public Statistic getStatistic() {
-    return Statistics.of(100d, ImmutableList.of(),
-        RelCollations.createSingleton(0));
+    // No collation: records of different partitions arrive interleaved, so
+    // the stream is not sorted on MSG_PARTITION, nor on any other column
+    return Statistics.of(100d, ImmutableList.of());
   }
 
   @Override public boolean isRolledUp(final String column) {
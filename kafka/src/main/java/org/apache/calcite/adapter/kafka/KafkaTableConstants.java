@@ -25,4 +25,8 @@ interface KafkaTableConstants {
   String SCHEMA_ROW_CONVERTER = "row.converter";
   String SCHEMA_CUST_CONSUMER = "consumer.cust";
   String SCHEMA_CONSUMER_PARAMS = "consumer.params";
+  String SCHEMA_WATERMARK_DELAY = "watermark.delay.ms";
+  String SCHEMA_DROP_LATE_RECORDS = "watermark.drop.late";
+  String SCHEMA_CONSUMER_THREADS = "consumer.threads";
+  String SCHEMA_CONSUMER_QUEUE_SIZE = "consumer.queue.size";
 }
@@ -71,6 +71,30 @@ public KafkaTableFactory() {
       tableOptionBuilder.setConsumerParams(
           (Map<String, String>) operand.get(KafkaTableConstants.SCHEMA_CONSUMER_PARAMS));
     }
+    if (operand.containsKey(KafkaTableConstants.SCHEMA_WATERMARK_DELAY)) {
+      tableOptionBuilder.setWatermarkDelayMillis(
+          Long.parseLong(
+              String.valueOf(
+                  operand.get(KafkaTableConstants.SCHEMA_WATERMARK_DELAY))));
+    }
+    if (operand.containsKey(KafkaTableConstants.SCHEMA_DROP_LATE_RECORDS)) {
+      tableOptionBuilder.setDropLateRecords(
+          Boolean.parseBoolean(
+              String.valueOf(
+                  operand.get(KafkaTableConstants.SCHEMA_DROP_LATE_RECORDS))));
+    }
+    if (operand.containsKey(KafkaTableConstants.SCHEMA_CONSUMER_THREADS)) {
+      tableOptionBuilder.setConsumerThreads(
+          Integer.parseInt(
+              String.valueOf(
+                  operand.get(KafkaTableConstants.SCHEMA_CONSUMER_THREADS))));
+    }
+    if (operand.containsKey(KafkaTableConstants.SCHEMA_CONSUMER_QUEUE_SIZE)) {
+      tableOptionBuilder.setConsumerQueueSize(
+          Integer.parseInt(
+              String.valueOf(
+                  operand.get(KafkaTableConstants.SCHEMA_CONSUMER_QUEUE_SIZE))));
+    }
     if (operand.containsKey(KafkaTableConstants.SCHEMA_CUST_CONSUMER)) {
       String custConsumerClass = (String) operand.get(KafkaTableConstants.SCHEMA_CUST_CONSUMER);
       try {
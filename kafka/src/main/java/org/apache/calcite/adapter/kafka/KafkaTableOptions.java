@@ -30,6 +30,10 @@ public final class KafkaTableOptions {
   private Map<String, String> consumerParams;
   //added to inject MockConsumer for testing.
   private Consumer consumer;
+  private long watermarkDelayMillis;
+  private boolean dropLateRecords;
+  private int consumerThreads = 1;
+  private int consumerQueueSize = 16;
 
   public String getBootstrapServers() {
     return bootstrapServers;
@@ -76,4 +80,50 @@ public KafkaTableOptions setConsumer(final Consumer consumer) {
     this.consumer = consumer;
     return this;
   }
+
+  public long getWatermarkDelayMillis() {
+    return watermarkDelayMillis;
+  }
+
+  /** Sets the maximum out-of-orderness of records' timestamps; the
+   * watermark of a partition trails the greatest timestamp read from it by
+   * this many milliseconds. */
+  public KafkaTableOptions setWatermarkDelayMillis(
+      final long watermarkDelayMillis) {
+    this.watermarkDelayMillis = watermarkDelayMillis;
+    return this;
+  }
+
+  public boolean isDropLateRecords() {
+    return dropLateRecords;
+  }
+
+  /** Sets whether to drop records whose timestamp is behind the watermark
+   * of their partition. */
+  public KafkaTableOptions setDropLateRecords(final boolean dropLateRecords) {
+    this.dropLateRecords = dropLateRecords;
+    return this;
+  }
+
+  public int getConsumerThreads() {
+    return consumerThreads;
+  }
+
+  /** Sets the number of consumers, each polling and converting records in
+   * its own thread; if greater than 1, they share the topic's partitions. */
+  public KafkaTableOptions setConsumerThreads(final int consumerThreads) {
+    this.consumerThreads = consumerThreads;
+    return this;
+  }
+
+  public int getConsumerQueueSize() {
+    return consumerQueueSize;
+  }
+
+  /** Sets the maximum number of converted batches that consumer threads may
+   * get ahead of the reader. */
+  public KafkaTableOptions setConsumerQueueSize(final int consumerQueueSize) {
+    this.consumerQueueSize = consumerQueueSize;
+    return this;
+  }
 }
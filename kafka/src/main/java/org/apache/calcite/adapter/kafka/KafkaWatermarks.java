@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.kafka;
+
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tracks the event-time watermark of each partition of a Kafka topic.
+ *
+ * <p>The watermark of a partition is the greatest timestamp read from it,
+ * minus a maximum out-of-orderness; a record whose timestamp is less than
+ * the watermark of its partition is late. The watermark of the topic is the
+ * least watermark of its assigned partitions, so a window that ends before
+ * it will receive no more records, unless they are late.
+ *
+ * <p>Records without a timestamp (timestamp less than 0) do not advance the
+ * watermark and are never late.
+ */
+public class KafkaWatermarks {
+  private final long maxOutOfOrdernessMillis;
+  /** Greatest timestamp read from each partition;
+   * {@link Long#MIN_VALUE} if none has been read. */
+  private final Map<Integer, Long> maxTimestamps = new HashMap<>();
+
+  KafkaWatermarks(long maxOutOfOrdernessMillis) {
+    if (maxOutOfOrdernessMillis < 0) {
+      throw new IllegalArgumentException("max out-of-orderness must not be "
+          + "negative: " + maxOutOfOrdernessMillis);
+    }
+    this.maxOutOfOrdernessMillis = maxOutOfOrdernessMillis;
+  }
+
+  /** Registers the partitions currently assigned to the consumer. A
+   * partition from which no record has been read holds back the watermark
+   * of the topic; a partition that is no longer assigned, for instance
+   * after a rebalance, is forgotten, so that it does not. */
+  void assign(Collection<TopicPartition> partitions) {
+    final Set<Integer> assigned = new HashSet<>();
+    for (TopicPartition partition : partitions) {
+      assigned.add(partition.partition());
+    }
+    maxTimestamps.keySet().retainAll(assigned);
+    for (int partition : assigned) {
+      maxTimestamps.putIfAbsent(partition, Long.MIN_VALUE);
+    }
+  }
+
+  /** Advances the watermark of a partition past a record. */
+  void onRecord(int partition, long timestamp) {
+    if (timestamp >= 0) {
+      maxTimestamps.merge(partition, timestamp, Math::max);
+    }
+  }
+
+  /** Returns whether a record arrived after the watermark of its partition
+   * passed its timestamp. */
+  public boolean isLate(int partition, long timestamp) {
+    return timestamp >= 0 && timestamp < watermark(partition);
+  }
+
+  /** Returns the watermark of a partition, in milliseconds since the epoch,
+   * or {@link Long#MIN_VALUE} if no record has been read from it. */
+  public long watermark(int partition) {
+    final Long maxTimestamp = maxTimestamps.get(partition);
+    if (maxTimestamp == null || maxTimestamp == Long.MIN_VALUE) {
+      return Long.MIN_VALUE;
+    }
+    return maxTimestamp - maxOutOfOrdernessMillis;
+  }
+
+  /** Returns the watermark of the topic: the least watermark of its
+   * partitions, or {@link Long#MIN_VALUE} if there are none. */
+  public long watermark() {
+    long watermark = Long.MAX_VALUE;
+    for (int partition : maxTimestamps.keySet()) {
+      watermark = Math.min(watermark, watermark(partition));
+    }
+    return watermark == Long.MAX_VALUE ? Long.MIN_VALUE : watermark;
+  }
+}
@@ -18,6 +18,13 @@
 
 import org.apache.calcite.test.CalciteAssert;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.record.TimestampType;
+
+import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Resources;
 
 import org.junit.jupiter.api.Test;
@@ -26,7 +33,17 @@
 import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
 
 /**
  * Unit test cases for Kafka adapter.
@@ -108,4 +125,156 @@ private CalciteAssert.AssertThat assertModel(URL url) {
         .query("SELECT * FROM KAFKA.MOCKTABLE")
         .failsAtValidation("Cannot convert stream 'MOCKTABLE' to relation");
   }
+
+  /** Tests that a stream cannot be grouped by partition. Records of
+   * different partitions are interleaved, so the partition is not monotonic,
+   * and aggregating run by run would return a row per run rather than a row
+   * per partition. */
+  @Test void testGroupByPartition() {
+    assertModel(MODEL)
+        .query("SELECT STREAM MSG_PARTITION, COUNT(*) AS C\n"
+            + "FROM KAFKA.MOCKTABLE\n"
+            + "GROUP BY MSG_PARTITION")
+        .failsAtValidation("Streaming aggregation requires at least one "
+            + "monotonic expression in GROUP BY clause");
+  }
+
+  /** Tests that the enumerator tracks the watermark of each partition, and
+   * drops records that are behind it. */
+  @Test void testWatermark() {
+    final MockConsumer<byte[], byte[]> consumer =
+        new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    final TopicPartition p0 = new TopicPartition("testtopic", 0);
+    final TopicPartition p1 = new TopicPartition("testtopic", 1);
+    consumer.assign(Arrays.asList(p0, p1));
+    consumer.updateBeginningOffsets(ImmutableMap.of(p0, 0L, p1, 0L));
+
+    final KafkaMessageEnumerator<byte[], byte[]> enumerator =
+        new KafkaMessageEnumerator<>(consumer, new KafkaRowConverterImpl(),
+            new AtomicBoolean(), 500L, true);
+    assertThat(enumerator.watermark(), is(Long.MIN_VALUE));
+
+    addRecord(consumer, 0, 0, 1000L);
+    assertThat(enumerator.moveNext(), is(true));
+    assertThat(enumerator.watermark(0), is(500L));
+    // Nothing has been read from partition 1, so it holds the watermark back
+    assertThat(enumerator.watermark(), is(Long.MIN_VALUE));
+
+    addRecord(consumer, 1, 0, 2000L);
+    assertThat(enumerator.moveNext(), is(true));
+    assertThat(enumerator.watermark(), is(500L));
+
+    addRecord(consumer, 0, 1, 3000L);
+    assertThat(enumerator.moveNext(), is(true));
+    assertThat(enumerator.watermark(), is(1500L));
+    assertThat(enumerator.watermark(0), is(2500L));
+
+    // Record at 2400 is late on partition 0, and is skipped; 2600 is not
+    addRecord(consumer, 0, 2, 2400L);
+    addRecord(consumer, 0, 3, 2600L);
+    assertThat(enumerator.moveNext(), is(true));
+    assertThat(enumerator.current()[2], is((Object) 3L));
+    assertThat(enumerator.watermark(0), is(2500L));
+  }
+
+  /** Tests that a partition that a rebalance takes away from the consumer
+   * no longer holds back the watermark of the topic. */
+  @Test void testWatermarkRebalance() {
+    final MockConsumer<byte[], byte[]> consumer =
+        new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    final TopicPartition p0 = new TopicPartition("testtopic", 0);
+    final TopicPartition p1 = new TopicPartition("testtopic", 1);
+    consumer.subscribe(Collections.singletonList("testtopic"));
+    consumer.rebalance(Arrays.asList(p0, p1));
+    consumer.updateBeginningOffsets(ImmutableMap.of(p0, 0L, p1, 0L));
+
+    final KafkaMessageEnumerator<byte[], byte[]> enumerator =
+        new KafkaMessageEnumerator<>(consumer, new KafkaRowConverterImpl(),
+            new AtomicBoolean(), 500L, true);
+    addRecord(consumer, 0, 0, 1000L);
+    assertThat(enumerator.moveNext(), is(true));
+    assertThat(enumerator.watermark(0), is(500L));
+    // Nothing has been read from partition 1, so it holds the watermark back
+    assertThat(enumerator.watermark(), is(Long.MIN_VALUE));
+
+    // After partition 1 is revoked, only partition 0 counts
+    consumer.rebalance(Collections.singletonList(p0));
+    addRecord(consumer, 0, 1, 2000L);
+    assertThat(enumerator.moveNext(), is(true));
+    assertThat(enumerator.watermark(), is(1500L));
+    assertThat(enumerator.watermark(1), is(Long.MIN_VALUE));
+  }
+
+  /** Tests that consumers in several threads, with a queue of one batch,
+   * return every record, and the records of each partition in order. */
+  @Test void testParallelConsumers() {
+    final List<MockConsumer<byte[], byte[]>> consumers = new ArrayList<>();
+    for (int partition = 0; partition < 2; partition++) {
+      final MockConsumer<byte[], byte[]> consumer =
+          new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+      final TopicPartition tp = new TopicPartition("testtopic", partition);
+      consumer.assign(Collections.singletonList(tp));
+      consumer.updateBeginningOffsets(ImmutableMap.of(tp, 0L));
+      for (int offset = 0; offset < 3; offset++) {
+        addRecord(consumer, partition, offset, 1000L * offset);
+      }
+      consumers.add(consumer);
+    }
+
+    final Map<Integer, List<Long>> offsets = new TreeMap<>();
+    try (KafkaParallelEnumerator<byte[], byte[]> enumerator =
+             new KafkaParallelEnumerator<>(consumers,
+                 new KafkaRowConverterImpl(), new AtomicBoolean(), 1, 0L,
+                 false)) {
+      for (int i = 0; i < 6; i++) {
+        assertThat(enumerator.moveNext(), is(true));
+        final Object[] row = enumerator.current();
+        offsets.computeIfAbsent((Integer) row[0], p -> new ArrayList<>())
+            .add((Long) row[2]);
+      }
+      assertThat(enumerator.watermark(), is(2000L));
+    }
+    assertThat(offsets.toString(), is("{0=[0, 1, 2], 1=[0, 1, 2]}"));
+    for (MockConsumer<byte[], byte[]> consumer : consumers) {
+      assertThat(consumer.closed(), is(true));
+    }
+  }
+
+  /** Tests that resetting a KafkaParallelEnumerator discards the rows that
+   * have been polled but not returned, and that the consumer continues from
+   * its position. */
+  @Test void testParallelConsumersReset() {
+    final MockConsumer<byte[], byte[]> consumer =
+        new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    final TopicPartition tp = new TopicPartition("testtopic", 0);
+    consumer.assign(Collections.singletonList(tp));
+    consumer.updateBeginningOffsets(ImmutableMap.of(tp, 0L));
+    for (int offset = 0; offset < 3; offset++) {
+      addRecord(consumer, 0, offset, 1000L * offset);
+    }
+
+    try (KafkaParallelEnumerator<byte[], byte[]> enumerator =
+             new KafkaParallelEnumerator<>(Collections.singletonList(consumer),
+                 new KafkaRowConverterImpl(), new AtomicBoolean(), 1, 0L,
+                 false)) {
+      // The first poll returns offsets 0 to 2 as one batch
+      assertThat(enumerator.moveNext(), is(true));
+      assertThat(enumerator.current()[2], is(0L));
+
+      enumerator.reset();
+      addRecord(consumer, 0, 3, 3000L);
+      assertThat(enumerator.moveNext(), is(true));
+      assertThat(enumerator.current()[2], is(3L));
+    }
+  }
+
+  private static void addRecord(MockConsumer<byte[], byte[]> consumer,
+      int partition, long offset, long timestamp) {
+    consumer.addRecord(
+        new ConsumerRecord<>("testtopic", partition, offset, timestamp,
+            TimestampType.CREATE_TIME, ConsumerRecord.NULL_CHECKSUM,
+            ConsumerRecord.NULL_SIZE, ConsumerRecord.NULL_SIZE,
+            ("mykey" + offset).getBytes(StandardCharsets.UTF_8),
+            ("myvalue" + offset).getBytes(StandardCharsets.UTF_8)));
+  }
 }
@@ -62,6 +62,10 @@
 import java.util.RandomAccess;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import static org.apache.calcite.linq4j.Linq4j.CollectionEnumerable;
 import static org.apache.calcite.linq4j.Linq4j.ListEnumerable;
@@ -817,6 +821,37 @@ public static <TSource, TKey, TAccumulate, TResult> Enumerable<TResult> groupBy(
         resultSelector);
   }
 
+  /**
+   * Groups the elements of a sequence in which elements with the same run
+   * key are adjacent, such as a stream that arrives in order of a window
+   * column. The key of each group must determine its run key.
+   *
+   * <p>Unlike {@link #groupBy(Enumerable, Function1, Function0, Function2, Function2)},
+   * this method holds only the accumulators of the current run. When an
+   * element with a different run key arrives, the run is closed: the results
+   * of its groups are returned, in the order that the groups were first
+   * seen, and their accumulators are discarded. Therefore memory use is
+   * bounded by the number of groups in a run, and the sequence may be
+   * unbounded.
+   *
+   * <p>This method does not correspond to any method in {@link Enumerable}.
+   */
+  public static <TSource, TRunKey, TKey, TAccumulate, TResult> Enumerable<TResult>
+      groupByRuns(final Enumerable<TSource> enumerable,
+      final Function1<TSource, TRunKey> runKeySelector,
+      final Function1<TSource, TKey> keySelector,
+      final Function0<TAccumulate> accumulatorInitializer,
+      final Function2<TAccumulate, TSource, TAccumulate> accumulatorAdder,
+      final Function2<TKey, TAccumulate, TResult> resultSelector) {
+    return new AbstractEnumerable<TResult>() {
+      public Enumerator<TResult> enumerator() {
+        return new RunGroupingEnumerator<>(enumerable.enumerator(),
+            runKeySelector, keySelector, accumulatorInitializer,
+            accumulatorAdder, resultSelector);
+      }
+    };
+  }
+
   private static <TSource, TKey, TAccumulate, TResult> Enumerable<TResult> groupBy_(
       final Map<TKey, TAccumulate> map, Enumerable<TSource> enumerable,
       Function1<TSource, TKey> keySelector,
@@ -1342,6 +1377,284 @@ public void close() {
     };
   }
 
+  /**
+   * Correlates the elements of two sequences based on matching keys of
+   * primitive type {@code long}.
+   *
+   * <p>Returns the same rows, in the same order, as {@code hashJoin} with
+   * {@code generateNullsOnLeft} false, but builds its hash table without
+   * boxing keys or allocating per-row entries. Only inner and left joins are
+   * supported.
+   */
+  public static <TSource, TInner, TResult> Enumerable<TResult> longKeyHashJoin(
+      final Enumerable<TSource> outer, final Enumerable<TInner> inner,
+      final LongFunction1<TSource> outerKeySelector,
+      final LongFunction1<TInner> innerKeySelector,
+      final Function2<TSource, TInner, TResult> resultSelector,
+      final boolean generateNullsOnRight) {
+    return new AbstractEnumerable<TResult>() {
+      public Enumerator<TResult> enumerator() {
+        final LongHashMultimap<TInner> innerMap = new LongHashMultimap<>();
+        try (Enumerator<TInner> inners = inner.enumerator()) {
+          while (inners.moveNext()) {
+            final TInner row = inners.current();
+            innerMap.put(innerKeySelector.apply(row), row);
+          }
+        }
+
+        return new Enumerator<TResult>() {
+          final Enumerator<TSource> outers = outer.enumerator();
+          /** Index of the current inner row; -1 if the current outer row
+           * has no more matches. */
+          int innerIndex = -1;
+          /** Whether to emit the current outer row with a null inner row. */
+          boolean pendingNull;
+          TResult current;
+
+          public TResult current() {
+            return current;
+          }
+
+          public boolean moveNext() {
+            for (;;) {
+              if (innerIndex >= 0) {
+                current = resultSelector.apply(outers.current(),
+                    innerMap.value(innerIndex));
+                innerIndex = innerMap.next(innerIndex);
+                return true;
+              }
+              if (pendingNull) {
+                current = resultSelector.apply(outers.current(), null);
+                pendingNull = false;
+                return true;
+              }
+              if (!outers.moveNext()) {
+                return false;
+              }
+              final TSource outer = outers.current();
+              innerIndex = outer == null
+                  ? -1
+                  : innerMap.first(outerKeySelector.apply(outer));
+              pendingNull = innerIndex < 0 && generateNullsOnRight;
+            }
+          }
+
+          public void reset() {
+            outers.reset();
+            innerIndex = -1;
+            pendingNull = false;
+          }
+
+          public void close() {
+            outers.close();
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * Correlates the elements of two sequences based on matching keys, using
+   * several threads to build and probe the hash table.
+   *
+   * <p>The {@code inner} input is read fully and partitioned by key hash into
+   * {@code parallelism} hash tables, which are built concurrently. The
+   * {@code outer} input is read in blocks, and each block is split into
+   * {@code parallelism} contiguous ranges that are probed concurrently.
+   *
+   * <p>Rows are returned in the same order as the single-threaded
+   * {@code hashJoin}: in the order of the {@code outer} input, and for each outer row, matching
+   * inner rows in the order of the {@code inner} input.
+   *
+   * <p>Only inner and left joins are supported. If {@code parallelism} is
+   * less than 2, performs a regular single-threaded hash join.
+   */
+  public static <TSource, TInner, TKey, TResult> Enumerable<TResult> parallelHashJoin(
+      final Enumerable<TSource> outer, final Enumerable<TInner> inner,
+      final Function1<TSource, TKey> outerKeySelector,
+      final Function1<TInner, TKey> innerKeySelector,
+      final Function2<TSource, TInner, TResult> resultSelector,
+      final EqualityComparer<TKey> comparer,
+      final boolean generateNullsOnRight, final int parallelism) {
+    if (parallelism < 2) {
+      return hashEquiJoin_(outer, inner, outerKeySelector, innerKeySelector,
+          resultSelector, comparer, false, generateNullsOnRight);
+    }
+    return new AbstractEnumerable<TResult>() {
+      public Enumerator<TResult> enumerator() {
+        final List<Map<Object, List<TInner>>> tables =
+            buildPartitionedHashTables(inner.toList(), innerKeySelector,
+                comparer, parallelism);
+
+        return new Enumerator<TResult>() {
+          final Enumerator<TSource> outers = outer.enumerator();
+          List<TResult> results = ImmutableList.of();
+          int i = -1;
+
+          public TResult current() {
+            return results.get(i);
+          }
+
+          public boolean moveNext() {
+            while (++i >= results.size()) {
+              final List<TSource> block = new ArrayList<>();
+              while (block.size() < PARALLEL_HASH_JOIN_BLOCK_SIZE * parallelism
+                  && outers.moveNext()) {
+                block.add(outers.current());
+              }
+              if (block.isEmpty()) {
+                return false;
+              }
+              results = probe(block);
+              i = -1;
+            }
+            return true;
+          }
+
+          /** Probes the hash tables with a block of outer rows, one
+           * contiguous range of the block per task, and concatenates the
+           * results in range order. */
+          private List<TResult> probe(final List<TSource> block) {
+            final int n = block.size();
+            final List<Callable<List<TResult>>> tasks = new ArrayList<>();
+            for (int t = 0; t < parallelism; t++) {
+              final int start = (int) ((long) n * t / parallelism);
+              final int end = (int) ((long) n * (t + 1) / parallelism);
+              tasks.add(() -> {
+                final List<TResult> list = new ArrayList<>();
+                for (TSource o : block.subList(start, end)) {
+                  List<TInner> matches = null;
+                  if (o != null) {
+                    final TKey key = outerKeySelector.apply(o);
+                    if (key != null) {
+                      final Object k =
+                          comparer == null ? key : Wrapped.upAs(comparer, key);
+                      matches = tables.get(partition(k, parallelism)).get(k);
+                    }
+                  }
+                  if (matches != null) {
+                    for (TInner match : matches) {
+                      list.add(resultSelector.apply(o, match));
+                    }
+                  } else if (generateNullsOnRight) {
+                    list.add(resultSelector.apply(o, null));
+                  }
+                }
+                return list;
+              });
+            }
+            final List<TResult> list = new ArrayList<>();
+            for (List<TResult> rangeResults : invokeAll(tasks)) {
+              list.addAll(rangeResults);
+            }
+            return list;
+          }
+
+          public void reset() {
+            outers.reset();
+            results = ImmutableList.of();
+            i = -1;
+          }
+
+          public void close() {
+            outers.close();
+          }
+        };
+      }
+    };
+  }
+
+  /** Number of outer rows per thread that {@link #parallelHashJoin} reads
+   * before probing them. */
+  private static final int PARALLEL_HASH_JOIN_BLOCK_SIZE = 4096;
+
+  /** Builds one hash table per partition for
+   * {@link #parallelHashJoin}.
+   *
+   * <p>First, each task computes the keys of a contiguous slice of the input
+   * and scatters the rows into one bucket per partition. Then each task
+   * builds the hash table of one partition from that partition's buckets,
+   * visiting the slices in order, so that rows with the same key remain in
+   * input order. Rows with null keys never match and are dropped. */
+  private static <TInner, TKey> List<Map<Object, List<TInner>>>
+      buildPartitionedHashTables(final List<TInner> innerList,
+      final Function1<TInner, TKey> innerKeySelector,
+      final EqualityComparer<TKey> comparer, final int parallelism) {
+    final int n = innerList.size();
+    final List<Callable<List<List<Map.Entry<Object, TInner>>>>> scatterTasks =
+        new ArrayList<>();
+    for (int t = 0; t < parallelism; t++) {
+      final int start = (int) ((long) n * t / parallelism);
+      final int end = (int) ((long) n * (t + 1) / parallelism);
+      scatterTasks.add(() -> {
+        final List<List<Map.Entry<Object, TInner>>> buckets =
+            new ArrayList<>();
+        for (int p = 0; p < parallelism; p++) {
+          buckets.add(new ArrayList<>());
+        }
+        for (TInner row : innerList.subList(start, end)) {
+          final TKey key = innerKeySelector.apply(row);
+          if (key == null) {
+            continue;
+          }
+          final Object k =
+              comparer == null ? key : Wrapped.upAs(comparer, key);
+          buckets.get(partition(k, parallelism))
+              .add(new AbstractMap.SimpleImmutableEntry<>(k, row));
+        }
+        return buckets;
+      });
+    }
+    final List<List<List<Map.Entry<Object, TInner>>>> slices =
+        invokeAll(scatterTasks);
+
+    final List<Callable<Map<Object, List<TInner>>>> buildTasks =
+        new ArrayList<>();
+    for (int t = 0; t < parallelism; t++) {
+      final int p = t;
+      buildTasks.add(() -> {
+        final Map<Object, List<TInner>> map = new HashMap<>();
+        for (List<List<Map.Entry<Object, TInner>>> slice : slices) {
+          for (Map.Entry<Object, TInner> entry : slice.get(p)) {
+            map.computeIfAbsent(entry.getKey(), k -> new ArrayList<>())
+                .add(entry.getValue());
+          }
+        }
+        return map;
+      });
+    }
+    return invokeAll(buildTasks);
+  }
+
+  /** Returns the partition that a (possibly wrapped) key belongs to. */
+  private static int partition(Object key, int partitionCount) {
+    return (key.hashCode() & Integer.MAX_VALUE) % partitionCount;
+  }
+
+  /** Runs tasks in the common fork-join pool, waits for them to complete,
+   * and returns their results in the order of the tasks. */
+  private static <T> List<T> invokeAll(List<Callable<T>> tasks) {
+    final List<T> results = new ArrayList<>();
+    try {
+      for (Future<T> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RuntimeException(cause);
+    }
+    return results;
+  }
+
   /**
    * For each row of the {@code outer} enumerable returns the correlated rows
    * from the {@code inner} enumerable.
@@ -2489,6 +2802,30 @@ public static <TSource, TKey> Enumerable<TSource> orderBy(
     };
   }
 
+  /**
+   * Sorts the elements of a sequence in ascending
+   * order by using a specified comparer, writing sorted runs to temporary
+   * files whenever more than {@code spillThreshold} elements are held in
+   * memory, and merging them.
+   *
+   * <p>The order of elements is the same as for
+   * {@link #orderBy(Enumerable, Function1, Comparator)}. If
+   * {@code spillThreshold} is not positive, never spills.
+   */
+  public static <TSource, TKey> Enumerable<TSource> orderBy(
+      Enumerable<TSource> source, Function1<TSource, TKey> keySelector,
+      Comparator<TKey> comparator, int spillThreshold) {
+    if (spillThreshold <= 0) {
+      return orderBy(source, keySelector, comparator);
+    }
+    return new AbstractEnumerable<TSource>() {
+      @Override public Enumerator<TSource> enumerator() {
+        return new SpillingSortEnumerator<>(source, keySelector, comparator,
+            spillThreshold);
+      }
+    };
+  }
+
   /**
    * Sorts the elements of a sequence in descending
    * order according to a key.
@@ -3853,6 +4190,119 @@ public void remove() {
     }
   }
 
+  /** Enumerator that groups each run of elements that have the same run
+   * key, and returns the results of a run's groups when the run ends.
+   *
+   * @see #groupByRuns
+   *
+   * @param <TSource> element type
+   * @param <TRunKey> run key type
+   * @param <TKey> key type
+   * @param <TAccumulate> accumulator type
+   * @param <TResult> result type */
+  private static class RunGroupingEnumerator<TSource, TRunKey, TKey, TAccumulate, TResult>
+      implements Enumerator<TResult> {
+    private final Enumerator<TSource> enumerator;
+    private final Function1<TSource, TRunKey> runKeySelector;
+    private final Function1<TSource, TKey> keySelector;
+    private final Function0<TAccumulate> accumulatorInitializer;
+    private final Function2<TAccumulate, TSource, TAccumulate> accumulatorAdder;
+    private final Function2<TKey, TAccumulate, TResult> resultSelector;
+    /** Accumulators of the groups of the current run. */
+    private final Map<TKey, TAccumulate> groups = new LinkedHashMap<>();
+    private Iterator<Map.Entry<TKey, TAccumulate>> closedGroups =
+        Collections.emptyIterator();
+    /** First element of the next run, if it has been read. */
+    private TSource next;
+    private boolean hasNext;
+    private boolean done;
+    private TResult current;
+
+    RunGroupingEnumerator(Enumerator<TSource> enumerator,
+        Function1<TSource, TRunKey> runKeySelector,
+        Function1<TSource, TKey> keySelector,
+        Function0<TAccumulate> accumulatorInitializer,
+        Function2<TAccumulate, TSource, TAccumulate> accumulatorAdder,
+        Function2<TKey, TAccumulate, TResult> resultSelector) {
+      this.enumerator = enumerator;
+      this.runKeySelector = runKeySelector;
+      this.keySelector = keySelector;
+      this.accumulatorInitializer = accumulatorInitializer;
+      this.accumulatorAdder = accumulatorAdder;
+      this.resultSelector = resultSelector;
+    }
+
+    public TResult current() {
+      return current;
+    }
+
+    public boolean moveNext() {
+      for (;;) {
+        if (closedGroups.hasNext()) {
+          final Map.Entry<TKey, TAccumulate> entry = closedGroups.next();
+          current = resultSelector.apply(entry.getKey(), entry.getValue());
+          closedGroups.remove();
+          return true;
+        }
+        if (done) {
+          return false;
+        }
+        done = !readRun();
+        closedGroups = groups.entrySet().iterator();
+      }
+    }
+
+    /** Reads the elements of the next run into {@link #groups}. Returns
+     * false if the input ended before the run did. */
+    private boolean readRun() {
+      TRunKey runKey = null;
+      boolean first = true;
+      if (hasNext) {
+        runKey = runKeySelector.apply(next);
+        add(next);
+        next = null;
+        hasNext = false;
+        first = false;
+      }
+      while (enumerator.moveNext()) {
+        final TSource o = enumerator.current();
+        final TRunKey k = runKeySelector.apply(o);
+        if (!first && !Objects.equals(k, runKey)) {
+          next = o;
+          hasNext = true;
+          return true;
+        }
+        runKey = k;
+        first = false;
+        add(o);
+      }
+      return false;
+    }
+
+    private void add(TSource o) {
+      final TKey key = keySelector.apply(o);
+      TAccumulate accumulator = groups.get(key);
+      if (accumulator == null) {
+        accumulator = accumulatorInitializer.apply();
+      }
+      groups.put(key, accumulatorAdder.apply(accumulator, o));
+    }
+
+    public void reset() {
+      enumerator.reset();
+      groups.clear();
+      closedGroups = Collections.emptyIterator();
+      next = null;
+      hasNext = false;
+      done = false;
+      current = null;
+    }
+
+    public void close() {
+      enumerator.close();
+    }
+  }
+
   /** Enumerator that performs a merge join on its sorted inputs.
    * Inputs must sorted in ascending order, nulls last.
    *
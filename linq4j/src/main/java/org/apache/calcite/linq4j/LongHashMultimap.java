@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.linq4j;
+
+import java.util.Arrays;
+
+/**
+ * Multimap from primitive {@code long} keys to values, using open addressing.
+ *
+ * <p>Unlike a {@link java.util.HashMap} of lists, it does not box keys and
+ * allocates no per-entry objects: keys live in a {@code long} array probed
+ * linearly, and the values for each key form a chain, in insertion order,
+ * through an {@code int} array.
+ *
+ * <p>To iterate over the values of a key:
+ *
+ * <blockquote><pre>
+ * for (int i = map.first(key); i &gt;= 0; i = map.next(i)) {
+ *   V v = map.value(i);
+ * }
+ * </pre></blockquote>
+ *
+ * @param <V> Value type
+ */
+final class LongHashMultimap<V> {
+  private static final int EMPTY = -1;
+
+  /** Key of each slot; meaningful only if the slot's head is not
+   * {@link #EMPTY}. */
+  private long[] keys;
+  /** Index of the first value of each slot's key, or {@link #EMPTY}. */
+  private int[] heads;
+  /** Index of the last value of each slot's key. */
+  private int[] tails;
+  /** Number of occupied slots. */
+  private int keyCount;
+
+  private Object[] values;
+  /** Index of the next value that has the same key, or {@link #EMPTY}. */
+  private int[] nexts;
+  private int valueCount;
+
+  LongHashMultimap() {
+    allocateSlots(16);
+    values = new Object[16];
+    nexts = new int[16];
+  }
+
+  private void allocateSlots(int capacity) {
+    keys = new long[capacity];
+    heads = new int[capacity];
+    tails = new int[capacity];
+    Arrays.fill(heads, EMPTY);
+  }
+
+  private static int hash(long key) {
+    final long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  /** Returns the slot that holds {@code key}, or the empty slot where it
+   * would be added. */
+  private int slot(long key) {
+    final int mask = keys.length - 1;
+    int slot = hash(key) & mask;
+    while (heads[slot] != EMPTY && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /** Adds a value; values of the same key are returned in the order they
+   * were added. */
+  void put(long key, V value) {
+    if (valueCount == values.length) {
+      values = Arrays.copyOf(values, valueCount * 2);
+      nexts = Arrays.copyOf(nexts, valueCount * 2);
+    }
+    final int index = valueCount++;
+    values[index] = value;
+    nexts[index] = EMPTY;
+
+    final int slot = slot(key);
+    if (heads[slot] == EMPTY) {
+      keys[slot] = key;
+      heads[slot] = index;
+      tails[slot] = index;
+      // Keep the load factor at most 1/2, so that probe sequences are short
+      if (++keyCount * 2 > keys.length) {
+        rehash();
+      }
+    } else {
+      nexts[tails[slot]] = index;
+      tails[slot] = index;
+    }
+  }
+
+  private void rehash() {
+    final long[] oldKeys = keys;
+    final int[] oldHeads = heads;
+    final int[] oldTails = tails;
+    allocateSlots(oldKeys.length * 2);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldHeads[i] != EMPTY) {
+        final int slot = slot(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        heads[slot] = oldHeads[i];
+        tails[slot] = oldTails[i];
+      }
+    }
+  }
+
+  /** Returns the index of the first value of a key, or a negative number if
+   * there is none. */
+  int first(long key) {
+    return heads[slot(key)];
+  }
+
+  /** Returns the index of the value after the value at {@code index} that has
+   * the same key, or a negative number if there is none. */
+  int next(int index) {
+    return nexts[index];
+  }
+
+  /** Returns the value at a given index. */
+  @SuppressWarnings("unchecked")
+  V value(int index) {
+    return (V) values[index];
+  }
+}
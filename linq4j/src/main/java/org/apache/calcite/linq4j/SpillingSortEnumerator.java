@@ -0,0 +1,356 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.linq4j;
+
+import org.apache.calcite.linq4j.function.Function1;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Enumerator that sorts its input using an external merge sort.
+ *
+ * <p>Rows are buffered in memory until there are {@code spillThreshold} of
+ * them; the buffer is then sorted and written to a temporary file (a "run"),
+ * using Java serialization. When the input is exhausted, the runs and the
+ * rows remaining in memory are merged. At most {@link #MAX_FAN_IN} runs are
+ * read at a time; if there are more, they are first merged in passes into
+ * fewer, longer runs.
+ *
+ * <p>The sort is stable, like
+ * {@link EnumerableDefaults#orderBy(Enumerable, Function1, Comparator)}:
+ * rows with equal keys are returned in input order. Rows must be
+ * serializable; if a row that is to be written to a run is not, the sort
+ * fails rather than silently holding every row in memory.
+ *
+ * @param <TSource> Row type
+ * @param <TKey> Sort key type
+ */
+class SpillingSortEnumerator<TSource, TKey> implements Enumerator<TSource> {
+  /** Number of rows after which the stream is reset, so that it does not
+   * hold references to every row it has written. */
+  private static final int RESET_INTERVAL = 1024;
+
+  /** Maximum number of runs merged at a time, and therefore of files open
+   * at a time. */
+  static final int MAX_FAN_IN = 64;
+
+  private final Function1<TSource, TKey> keySelector;
+  private final Comparator<TKey> keyComparator;
+  private final List<Run> runs = new ArrayList<>();
+  private Merge merge;
+  private TSource current;
+
+  @SuppressWarnings("unchecked")
+  SpillingSortEnumerator(Enumerable<TSource> source,
+      Function1<TSource, TKey> keySelector, Comparator<TKey> comparator,
+      int spillThreshold) {
+    this.keySelector = keySelector;
+    this.keyComparator = comparator != null
+        ? comparator
+        : (Comparator<TKey>) Comparator.naturalOrder();
+
+    final boolean spill = spillThreshold > 0;
+    final List<Map.Entry<TKey, TSource>> buffer = new ArrayList<>();
+    try {
+      try (Enumerator<TSource> enumerator = source.enumerator()) {
+        while (enumerator.moveNext()) {
+          final TSource row = enumerator.current();
+          buffer.add(
+              new AbstractMap.SimpleImmutableEntry<>(keySelector.apply(row),
+                  row));
+          if (spill && buffer.size() >= spillThreshold) {
+            sort(buffer, keyComparator);
+            runs.add(
+                FileRun.write(buffer.stream().map(Map.Entry::getValue)
+                    .iterator()));
+            buffer.clear();
+          }
+        }
+      }
+      mergeRuns();
+    } catch (RuntimeException | Error e) {
+      close();
+      throw e;
+    }
+    sort(buffer, keyComparator);
+    runs.add(new MemoryRun(buffer));
+    merge = new Merge(new ArrayList<>(runs));
+  }
+
+  private static <TKey, TSource> void sort(
+      List<Map.Entry<TKey, TSource>> buffer, Comparator<TKey> comparator) {
+    // List.sort is stable
+    buffer.sort(Map.Entry.comparingByKey(comparator));
+  }
+
+  /** Merges runs of consecutive files, {@link #MAX_FAN_IN} at a time, until
+   * there are few enough to be merged, along with the rows in memory, in
+   * one pass. Merging only consecutive runs keeps the sort stable. */
+  private void mergeRuns() {
+    while (runs.size() >= MAX_FAN_IN) {
+      final List<Run> merged = new ArrayList<>();
+      try {
+        for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+          final List<Run> group =
+              runs.subList(i, Math.min(i + MAX_FAN_IN, runs.size()));
+          if (group.size() == 1) {
+            merged.add(group.get(0));
+            continue;
+          }
+          final Merge groupMerge = new Merge(new ArrayList<>(group));
+          try {
+            merged.add(FileRun.write(groupMerge));
+          } finally {
+            groupMerge.close();
+          }
+        }
+      } catch (RuntimeException | Error e) {
+        merged.forEach(Run::close);
+        throw e;
+      }
+      runs.clear();
+      runs.addAll(merged);
+    }
+  }
+
+  public TSource current() {
+    return current;
+  }
+
+  public boolean moveNext() {
+    if (merge == null || !merge.hasNext()) {
+      return false;
+    }
+    current = merge.next();
+    return true;
+  }
+
+  public void reset() {
+    throw new UnsupportedOperationException();
+  }
+
+  public void close() {
+    if (merge != null) {
+      merge.close();
+      merge = null;
+    }
+    for (Run run : runs) {
+      run.close();
+    }
+    runs.clear();
+  }
+
+  /** Merges sorted runs into one sorted sequence. */
+  private class Merge implements Iterator<TSource> {
+    private final List<Run> runs;
+    private final PriorityQueue<Map.Entry<TKey, Integer>> heads;
+
+    Merge(List<Run> runs) {
+      this.runs = runs;
+      // Among heads with equal keys, the one from the earlier run goes first;
+      // that, and a stable sort within each run, make the merge stable.
+      this.heads = new PriorityQueue<>(Comparator
+          .<Map.Entry<TKey, Integer>, TKey>comparing(Map.Entry::getKey,
+              keyComparator)
+          .thenComparingInt(Map.Entry::getValue));
+      for (int i = 0; i < runs.size(); i++) {
+        advance(i);
+      }
+    }
+
+    /** Reads the next row of a run and, if there is one, adds its key to
+     * the queue of heads. */
+    @SuppressWarnings("unchecked")
+    private void advance(int runIndex) {
+      final Run run = runs.get(runIndex);
+      if (run.moveNext()) {
+        final TSource row = (TSource) run.current();
+        heads.add(
+            new AbstractMap.SimpleImmutableEntry<>(keySelector.apply(row),
+                runIndex));
+      }
+    }
+
+    public boolean hasNext() {
+      return !heads.isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    public TSource next() {
+      final Map.Entry<TKey, Integer> head = heads.poll();
+      if (head == null) {
+        throw new NoSuchElementException();
+      }
+      final int runIndex = head.getValue();
+      final TSource row = (TSource) runs.get(runIndex).current();
+      advance(runIndex);
+      return row;
+    }
+
+    void close() {
+      for (Run run : runs) {
+        run.close();
+      }
+      heads.clear();
+    }
+  }
+
+  /** Sorted sequence of rows. */
+  private interface Run {
+    boolean moveNext();
+
+    Object current();
+
+    void close();
+  }
+
+  /** Run whose rows are held in memory. */
+  private static class MemoryRun implements Run {
+    private final Iterator<? extends Map.Entry<?, ?>> iterator;
+    private Object current;
+
+    MemoryRun(List<? extends Map.Entry<?, ?>> entries) {
+      this.iterator = entries.iterator();
+    }
+
+    public boolean moveNext() {
+      if (iterator.hasNext()) {
+        current = iterator.next().getValue();
+        return true;
+      }
+      current = null;
+      return false;
+    }
+
+    public Object current() {
+      return current;
+    }
+
+    public void close() {
+    }
+  }
+
+  /** Run whose rows have been written to a temporary file. */
+  private static class FileRun implements Run {
+    private final File file;
+    private final int count;
+    private ObjectInputStream in;
+    private int read;
+    private Object current;
+
+    private FileRun(File file, int count) {
+      this.file = file;
+      this.count = count;
+    }
+
+    /** Writes sorted rows to a temporary file. The file is deleted when the
+     * run is closed.
+     *
+     * @throws UncheckedIOException if one of the rows is not serializable */
+    static FileRun write(Iterator<?> rows) {
+      final File file;
+      try {
+        file = File.createTempFile("linq4j-sort", ".run");
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      int count = 0;
+      try (ObjectOutputStream out =
+               new ObjectOutputStream(
+                   new BufferedOutputStream(
+                       Files.newOutputStream(file.toPath())))) {
+        while (rows.hasNext()) {
+          out.writeObject(rows.next());
+          if (++count % RESET_INTERVAL == 0) {
+            out.reset();
+          }
+        }
+      } catch (NotSerializableException e) {
+        delete(file);
+        throw new UncheckedIOException("Cannot spill sort to disk: "
+            + "class is not serializable: " + e.getMessage(), e);
+      } catch (IOException e) {
+        delete(file);
+        throw new UncheckedIOException(e);
+      } catch (RuntimeException | Error e) {
+        delete(file);
+        throw e;
+      }
+      return new FileRun(file, count);
+    }
+
+    public boolean moveNext() {
+      if (read >= count) {
+        close();
+        return false;
+      }
+      try {
+        if (in == null) {
+          final InputStream stream = Files.newInputStream(file.toPath());
+          in = new ObjectInputStream(new BufferedInputStream(stream));
+        }
+        current = in.readObject();
+        ++read;
+        return true;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } catch (ClassNotFoundException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    public Object current() {
+      return current;
+    }
+
+    public void close() {
+      current = null;
+      read = count;
+      if (in != null) {
+        try {
+          in.close();
+        } catch (IOException e) {
+          // ignore
+        }
+        in = null;
+      }
+      delete(file);
+    }
+
+    private static void delete(File file) {
+      //noinspection ResultOfMethodCallIgnored
+      file.delete();
+    }
+  }
+}
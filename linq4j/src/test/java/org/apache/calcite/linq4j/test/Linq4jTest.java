@@ -44,6 +44,7 @@
 
 import org.junit.jupiter.api.Test;
 
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -67,6 +68,7 @@
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -691,6 +693,48 @@ private static <K extends Comparable, V> Function1<Grouping<K, V>, K> groupingKe
         s);
   }
 
+  /**
+   * Tests {@link EnumerableDefaults#groupByRuns}, which returns the groups of
+   * a run as soon as the run ends, and therefore works on an unbounded input.
+   */
+  @Test void testGroupByRuns() {
+    final Enumerable<Integer> integers = new AbstractEnumerable<Integer>() {
+      public Enumerator<Integer> enumerator() {
+        return new Enumerator<Integer>() {
+          int i = -1;
+
+          public Integer current() {
+            return i;
+          }
+
+          public boolean moveNext() {
+            ++i;
+            return true;
+          }
+
+          public void reset() {
+            i = -1;
+          }
+
+          public void close() {
+          }
+        };
+      }
+    };
+    // Runs of 4 consecutive integers; in each run, sum odds and evens
+    final String s =
+        EnumerableDefaults.groupByRuns(integers,
+            i -> i / 4,
+            i -> i / 4 + (i % 2 == 0 ? "even" : "odd"),
+            (Function0<Integer>) () -> 0,
+            (acc, i) -> acc + i,
+            (key, sum) -> key + "=" + sum)
+            .take(5)
+            .toList()
+            .toString();
+    assertEquals("[0even=2, 0odd=4, 1even=10, 1odd=12, 2even=18]", s);
+  }
+
   /**
    * Tests the version of
    * {@link ExtendedEnumerable#aggregate}
@@ -1095,6 +1139,89 @@ public int hashCode(Integer integer) {
         s);
   }
 
+  @Test void testParallelLeftJoin() {
+    // Unlike testLeftJoin, no orderBy: the parallel join preserves the order
+    // of employees.
+    String s =
+        EnumerableDefaults.parallelHashJoin(
+            Linq4j.asEnumerable(emps)
+                .concat(Linq4j.asEnumerable(badEmps)),
+            Linq4j.asEnumerable(depts),
+            EMP_DEPTNO_SELECTOR,
+            DEPT_DEPTNO_SELECTOR, (v1, v2) -> v1.name + " works in "
+                + (v2 == null ? null : v2.name), null, true, 3)
+            .toList()
+            .toString();
+    assertEquals(
+        "[Fred works in Sales, "
+            + "Bill works in Marketing, "
+            + "Eric works in Sales, "
+            + "Janet works in Sales, "
+            + "Cedric works in null]",
+        s);
+  }
+
+  /** Tests that the parallel hash join returns the same rows, in the same
+   * order, as the single-threaded hash join, over inputs that span several
+   * probe blocks and have duplicate and null keys. */
+  @Test void testParallelJoinMatchesHashJoin() {
+    final List<Integer> outer = new ArrayList<>();
+    for (int i = 0; i < 50_000; i++) {
+      outer.add(i % 97 == 0 ? null : (i * 31) % 2_000);
+    }
+    final List<Integer> inner = new ArrayList<>();
+    for (int i = 0; i < 3_000; i++) {
+      inner.add(i % 101 == 0 ? null : i % 1_500);
+    }
+    final Function1<Integer, Integer> keySelector = v -> v;
+    for (boolean generateNullsOnRight : new boolean[] {false, true}) {
+      final Function2<Integer, Integer, String> resultSelector =
+          (o, i) -> o + ":" + i;
+      final List<String> expected =
+          Linq4j.asEnumerable(outer)
+              .hashJoin(Linq4j.asEnumerable(inner), keySelector, keySelector,
+                  resultSelector, null, false, generateNullsOnRight)
+              .toList();
+      for (int parallelism : new int[] {1, 2, 7}) {
+        final List<String> actual =
+            EnumerableDefaults.parallelHashJoin(Linq4j.asEnumerable(outer),
+                Linq4j.asEnumerable(inner), keySelector, keySelector,
+                resultSelector, null, generateNullsOnRight, parallelism)
+                .toList();
+        assertEquals(expected, actual);
+      }
+    }
+  }
+
+  /** Tests that the hash join specialized for {@code long} keys returns the
+   * same rows, in the same order, as the general hash join, with enough
+   * distinct keys to grow its hash table several times. */
+  @Test void testLongKeyJoinMatchesHashJoin() {
+    final List<long[]> outer = new ArrayList<>();
+    for (int i = 0; i < 20_000; i++) {
+      outer.add(new long[] {(i * 37L) % 5_003 - 2_500, i});
+    }
+    final List<long[]> inner = new ArrayList<>();
+    for (int i = 0; i < 6_000; i++) {
+      inner.add(new long[] {i % 3_001 - 1_000, i});
+    }
+    final Function2<long[], long[], String> resultSelector =
+        (o, i) -> o[1] + ":" + (i == null ? null : i[1]);
+    for (boolean generateNullsOnRight : new boolean[] {false, true}) {
+      final List<String> expected =
+          Linq4j.asEnumerable(outer)
+              .hashJoin(Linq4j.asEnumerable(inner), o -> o[0], i -> i[0],
+                  resultSelector, null, false, generateNullsOnRight)
+              .toList();
+      final List<String> actual =
+          EnumerableDefaults.longKeyHashJoin(Linq4j.asEnumerable(outer),
+              Linq4j.asEnumerable(inner), o -> o[0], i -> i[0],
+              resultSelector, generateNullsOnRight)
+              .toList();
+      assertEquals(expected, actual);
+    }
+  }
+
   @Test void cartesianProductWithReset() {
     Enumerator<List<Integer>> product =
         Linq4j.product(
@@ -1490,6 +1617,56 @@ public boolean apply(Department v1, Integer v2) {
             .toList().toString());
   }
 
+  /** Tests a sort that writes sorted runs to temporary files and merges
+   * them, in several passes if there are too many runs to merge at once; the
+   * result must be the same, including the order of rows with equal keys, as
+   * the in-memory sort. */
+  @Test void testOrderBySpilling() {
+    final List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      rows.add(new Object[] {(i * 7919) % 503, "row" + i});
+    }
+    final Function1<Object[], Integer> keySelector = row -> (Integer) row[0];
+    final List<String> expected =
+        Linq4j.asEnumerable(rows)
+            .orderBy(keySelector, Collections.reverseOrder())
+            .select(row -> (String) row[1])
+            .toList();
+    for (int spillThreshold : new int[] {0, 1, 100, 300, 9_999, 20_000}) {
+      final List<String> actual =
+          EnumerableDefaults.orderBy(Linq4j.asEnumerable(rows), keySelector,
+              Collections.reverseOrder(), spillThreshold)
+              .select(row -> (String) row[1])
+              .toList();
+      assertEquals(expected, actual);
+    }
+  }
+
+  /** As {@link #testOrderBy()}, but with a spill threshold; rows are not
+   * serializable, so the sort fails when it needs to spill, rather than
+   * silently sorting in memory. */
+  @Test void testOrderBySpillingNotSerializable() {
+    final UncheckedIOException e =
+        assertThrows(UncheckedIOException.class, () ->
+            EnumerableDefaults.orderBy(Linq4j.asEnumerable(emps),
+                EMP_DEPTNO_SELECTOR, null, 2)
+                .toList());
+    assertThat(e.getMessage(),
+        is("Cannot spill sort to disk: class is not serializable: "
+            + Employee.class.getName()));
+
+    // Below the threshold, nothing is written, so rows need not be
+    // serializable
+    assertEquals(
+        "[Employee(name: Fred, deptno:10),"
+            + " Employee(name: Eric, deptno:10),"
+            + " Employee(name: Janet, deptno:10),"
+            + " Employee(name: Bill, deptno:30)]",
+        EnumerableDefaults.orderBy(Linq4j.asEnumerable(emps),
+            EMP_DEPTNO_SELECTOR, null, 5)
+            .toList().toString());
+  }
+
   @Test void testOrderByDescending() {
     assertEquals(
         "[Employee(name: Janet, deptno:10),"
@@ -24,7 +24,9 @@
     jmhCompileClasspath(platform(project(":bom")))
     jmhImplementation(project(":core"))
     jmhImplementation(project(":linq4j"))
+    jmhImplementation(project(":plus"))
     jmhImplementation("com.google.guava:guava")
+    jmhImplementation("net.hydromatic:tpcds")
     jmhImplementation("org.codehaus.janino:commons-compiler")
     jmhImplementation("org.openjdk.jmh:jmh-core")
     jmhImplementation("org.openjdk.jmh:jmh-generator-annprocess")
@@ -0,0 +1,374 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.benchmarks;
+
+import org.apache.calcite.DataContext;
+import org.apache.calcite.adapter.enumerable.EnumerableConvention;
+import org.apache.calcite.adapter.enumerable.EnumerableInterpretable;
+import org.apache.calcite.adapter.enumerable.EnumerableRel;
+import org.apache.calcite.adapter.tpcds.TpcdsSchema;
+import org.apache.calcite.adapter.tpch.TpchSchema;
+import org.apache.calcite.jdbc.CalciteConnection;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.plan.RelTraitDef;
+import org.apache.calcite.plan.hep.HepPlanner;
+import org.apache.calcite.plan.hep.HepProgram;
+import org.apache.calcite.plan.hep.HepProgramBuilder;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.rules.AggregateProjectMergeRule;
+import org.apache.calcite.rel.rules.FilterJoinRule;
+import org.apache.calcite.rel.rules.FilterMergeRule;
+import org.apache.calcite.rel.rules.FilterProjectTransposeRule;
+import org.apache.calcite.rel.rules.ProjectMergeRule;
+import org.apache.calcite.rel.rules.ProjectRemoveRule;
+import org.apache.calcite.runtime.Bindable;
+import org.apache.calcite.schema.SchemaPlus;
+import org.apache.calcite.schema.Schemas;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.parser.SqlParser;
+import org.apache.calcite.tools.FrameworkConfig;
+import org.apache.calcite.tools.Frameworks;
+import org.apache.calcite.tools.Planner;
+import org.apache.calcite.tools.Programs;
+
+import com.google.common.collect.ImmutableMap;
+
+import net.hydromatic.tpcds.query.Query;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks each phase of the lifecycle of a query (parse, validate,
+ * SQL-to-rel conversion, heuristic planning, cost-based planning, code
+ * generation and execution) separately, over TPC-H and TPC-DS queries.
+ *
+ * <p>Each benchmark method measures one phase; the phases before it run in
+ * per-invocation setup, and are not measured. Data is generated on the fly
+ * by {@link TpchSchema} and {@link TpcdsSchema} at scale factor 0.01.
+ *
+ * <p>To record a Flight Recorder log of a phase, run {@link #main} with the
+ * name of the phase, for example {@code volcano}.
+ */
+@Fork(value = 1, jvmArgsPrepend = "-Xmx1g")
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Threads(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class QueryLifecycleBenchmark {
+
+  /** TPC-H queries, from the TPC-H specification, with the changes that
+   * {@code TpchTest} makes so that Calcite can run them. */
+  private static final Map<String, String> TPCH_QUERIES =
+      ImmutableMap.of(
+          "tpch01", "select\n"
+              + "  l_returnflag,\n"
+              + "  l_linestatus,\n"
+              + "  sum(l_quantity) as sum_qty,\n"
+              + "  sum(l_extendedprice) as sum_base_price,\n"
+              + "  sum(l_extendedprice * (1 - l_discount)) as sum_disc_price,\n"
+              + "  sum(l_extendedprice * (1 - l_discount) * (1 + l_tax))"
+              + " as sum_charge,\n"
+              + "  avg(l_quantity) as avg_qty,\n"
+              + "  avg(l_extendedprice) as avg_price,\n"
+              + "  avg(l_discount) as avg_disc,\n"
+              + "  count(*) as count_order\n"
+              + "from\n"
+              + "  tpch.lineitem\n"
+              + "group by\n"
+              + "  l_returnflag,\n"
+              + "  l_linestatus\n"
+              + "order by\n"
+              + "  l_returnflag,\n"
+              + "  l_linestatus",
+          "tpch03", "select\n"
+              + "  l.l_orderkey,\n"
+              + "  sum(l.l_extendedprice * (1 - l.l_discount)) as revenue,\n"
+              + "  o.o_orderdate,\n"
+              + "  o.o_shippriority\n"
+              + "from\n"
+              + "  tpch.customer c,\n"
+              + "  tpch.orders o,\n"
+              + "  tpch.lineitem l\n"
+              + "where\n"
+              + "  c.c_mktsegment = 'HOUSEHOLD'\n"
+              + "  and c.c_custkey = o.o_custkey\n"
+              + "  and l.l_orderkey = o.o_orderkey\n"
+              + "group by\n"
+              + "  l.l_orderkey,\n"
+              + "  o.o_orderdate,\n"
+              + "  o.o_shippriority\n"
+              + "order by\n"
+              + "  revenue desc,\n"
+              + "  o.o_orderdate\n"
+              + "limit 10",
+          "tpch06", "select\n"
+              + "  sum(l_extendedprice * l_discount) as revenue\n"
+              + "from\n"
+              + "  tpch.lineitem\n"
+              + "where\n"
+              + "  l_discount between 0.03 - 0.01 and 0.03 + 0.01\n"
+              + "  and l_quantity < 24",
+          "tpch14", "select\n"
+              + "  100.00 * sum(case\n"
+              + "    when p.p_type like 'PROMO%'\n"
+              + "      then l.l_extendedprice * (1 - l.l_discount)\n"
+              + "    else 0\n"
+              + "  end) / sum(l.l_extendedprice * (1 - l.l_discount))"
+              + " as promo_revenue\n"
+              + "from\n"
+              + "  tpch.lineitem l,\n"
+              + "  tpch.part p\n"
+              + "where\n"
+              + "  l.l_partkey = p.p_partkey\n"
+              + "  and l.l_shipdate >= date '1994-08-01'\n"
+              + "  and l.l_shipdate < date '1994-08-01' + interval '1' month");
+
+  /** Rules applied in the {@link #hep} phase. */
+  private static final HepProgram HEP_PROGRAM = new HepProgramBuilder()
+      .addRuleInstance(FilterProjectTransposeRule.INSTANCE)
+      .addRuleInstance(FilterMergeRule.INSTANCE)
+      .addRuleInstance(FilterJoinRule.FILTER_ON_JOIN)
+      .addRuleInstance(FilterJoinRule.JOIN)
+      .addRuleInstance(AggregateProjectMergeRule.INSTANCE)
+      .addRuleInstance(ProjectMergeRule.INSTANCE)
+      .addRuleInstance(ProjectRemoveRule.INSTANCE)
+      .build();
+
+  /** Schemas and configuration, shared by all invocations. */
+  @State(Scope.Benchmark)
+  public static class QueryState {
+    /** Query to run: "tpchNN" is query NN of TPC-H, "tpcdsNN" is query NN
+     * of TPC-DS. */
+    @Param({"tpch01", "tpch03", "tpch06", "tpch14", "tpcds17"})
+    String query;
+
+    String sql;
+    Connection connection;
+    FrameworkConfig config;
+    DataContext dataContext;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+      if (query.startsWith("tpcds")) {
+        final int i = Integer.parseInt(query.substring("tpcds".length()));
+        sql = Query.of(i).sql(new Random(0));
+      } else {
+        sql = TPCH_QUERIES.get(query);
+        if (sql == null) {
+          throw new IllegalArgumentException("unknown query " + query);
+        }
+      }
+      connection = DriverManager.getConnection("jdbc:calcite:");
+      final CalciteConnection calciteConnection =
+          connection.unwrap(CalciteConnection.class);
+      final SchemaPlus rootSchema = calciteConnection.getRootSchema();
+      rootSchema.add("TPCH", new TpchSchema(0.01D, 1, 1, true));
+      rootSchema.add("TPCDS", new TpcdsSchema(0.01D));
+      // TPC-H queries qualify their tables; TPC-DS queries do not
+      final SchemaPlus defaultSchema = query.startsWith("tpcds")
+          ? rootSchema.getSubSchema("TPCDS")
+          : rootSchema;
+      config = Frameworks.newConfigBuilder()
+          .parserConfig(SqlParser.Config.DEFAULT)
+          .defaultSchema(defaultSchema)
+          .traitDefs((List<RelTraitDef>) null)
+          .programs(Programs.heuristicJoinOrder(Programs.RULE_SET, true, 2))
+          .build();
+      dataContext = Schemas.createDataContext(connection, rootSchema);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+      connection.close();
+    }
+  }
+
+  /** Result of each phase, computed before each invocation up to (but not
+   * including) the phase being measured. */
+  @State(Scope.Thread)
+  public static class PhaseState {
+    Planner planner;
+    SqlNode parsed;
+    SqlNode validated;
+    RelNode logical;
+    RelNode physical;
+    Bindable<?> bindable;
+
+    void prepare(QueryState state, int phases) throws Exception {
+      planner = Frameworks.getPlanner(state.config);
+      if (phases > 0) {
+        parsed = planner.parse(state.sql);
+      }
+      if (phases > 1) {
+        validated = planner.validate(parsed);
+      }
+      if (phases > 2) {
+        logical = planner.rel(validated).project();
+      }
+      if (phases > 3) {
+        physical = planner.transform(0,
+            logical.getTraitSet().replace(EnumerableConvention.INSTANCE),
+            logical);
+      }
+      if (phases > 4) {
+        bindable = EnumerableInterpretable.toBindable(new HashMap<>(), null,
+            (EnumerableRel) physical, EnumerableRel.Prefer.ARRAY);
+      }
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+      planner.close();
+    }
+  }
+
+  /** Prepares for the {@link #parse} phase. */
+  public static class BeforeParse extends PhaseState {
+    @Setup(Level.Invocation)
+    public void setup(QueryState state) throws Exception {
+      prepare(state, 0);
+    }
+  }
+
+  /** Prepares for the {@link #validate} phase. */
+  public static class BeforeValidate extends PhaseState {
+    @Setup(Level.Invocation)
+    public void setup(QueryState state) throws Exception {
+      prepare(state, 1);
+    }
+  }
+
+  /** Prepares for the {@link #sqlToRel} phase. */
+  public static class BeforeSqlToRel extends PhaseState {
+    @Setup(Level.Invocation)
+    public void setup(QueryState state) throws Exception {
+      prepare(state, 2);
+    }
+  }
+
+  /** Prepares for the {@link #hep} and {@link #volcano} phases. */
+  public static class BeforePlan extends PhaseState {
+    @Setup(Level.Invocation)
+    public void setup(QueryState state) throws Exception {
+      prepare(state, 3);
+    }
+  }
+
+  /** Prepares for the {@link #codegen} phase. */
+  public static class BeforeCodegen extends PhaseState {
+    @Setup(Level.Invocation)
+    public void setup(QueryState state) throws Exception {
+      prepare(state, 4);
+    }
+  }
+
+  /** Prepares for the {@link #execute} phase. */
+  public static class BeforeExecute extends PhaseState {
+    @Setup(Level.Invocation)
+    public void setup(QueryState state) throws Exception {
+      prepare(state, 5);
+    }
+  }
+
+  @Benchmark
+  public SqlNode parse(QueryState state, BeforeParse phase) throws Exception {
+    return phase.planner.parse(state.sql);
+  }
+
+  @Benchmark
+  public SqlNode validate(BeforeValidate phase) throws Exception {
+    return phase.planner.validate(phase.parsed);
+  }
+
+  @Benchmark
+  public RelNode sqlToRel(BeforeSqlToRel phase) throws Exception {
+    return phase.planner.rel(phase.validated).project();
+  }
+
+  @Benchmark
+  public RelNode hep(BeforePlan phase) {
+    final HepPlanner hepPlanner = new HepPlanner(HEP_PROGRAM);
+    hepPlanner.setRoot(phase.logical);
+    return hepPlanner.findBestExp();
+  }
+
+  @Benchmark
+  public RelNode volcano(BeforePlan phase) throws Exception {
+    return phase.planner.transform(0,
+        phase.logical.getTraitSet().replace(EnumerableConvention.INSTANCE),
+        phase.logical);
+  }
+
+  @Benchmark
+  public Bindable<?> codegen(BeforeCodegen phase) {
+    return EnumerableInterpretable.toBindable(new HashMap<>(), null,
+        (EnumerableRel) phase.physical, EnumerableRel.Prefer.ARRAY);
+  }
+
+  @Benchmark
+  public int execute(QueryState state, BeforeExecute phase) {
+    final Enumerable<?> enumerable = phase.bindable.bind(state.dataContext);
+    int rowCount = 0;
+    try (Enumerator<?> enumerator = enumerable.enumerator()) {
+      while (enumerator.moveNext()) {
+        ++rowCount;
+      }
+    }
+    return rowCount;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    final String phase = args.length > 0 ? "." + args[0] + "$" : "";
+    Options opt = new OptionsBuilder()
+        .include(QueryLifecycleBenchmark.class.getSimpleName() + phase)
+        .addProfiler(GCProfiler.class)
+        .addProfiler(FlightRecorderProfiler.class)
+        .detectJvmArgs()
+        .build();
+
+    new Runner(opt).run();
+  }
+}